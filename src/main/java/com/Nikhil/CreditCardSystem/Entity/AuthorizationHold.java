@@ -0,0 +1,32 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import com.Nikhil.CreditCardSystem.util.TimeOrderedId;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "authorization_hold", indexes = {
+        @Index(name = "idx_authorization_hold_status_id", columnList = "status, id"),
+        @Index(name = "idx_authorization_hold_card", columnList = "card_id")})
+@Data
+@NoArgsConstructor
+public class AuthorizationHold {
+
+    @Id
+    @TimeOrderedId(sequenceName = "authorization_hold_seq")
+    private Long id;
+
+    private double amount;          // reserved amount, part of the card's heldAmount while ACTIVE
+    private Double capturedAmount;  // set on capture, at most amount
+    private String status;          // ACTIVE / CAPTURED / VOIDED / EXPIRED
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime expiresAt;
+    private LocalDateTime closedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "card_id")
+    private CreditCard creditCard;
+}
@@ -0,0 +1,33 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Balance of a card at the end of a day; written by BalanceSnapshotJob for days with transactions
+@Entity
+@Table(name = "card_balance_snapshot")
+@IdClass(CardBalanceSnapshot.Key.class)
+@Data
+@NoArgsConstructor
+public class CardBalanceSnapshot {
+
+    @Id
+    private Long cardId;
+
+    @Id
+    private LocalDate snapshotDate; // balance after every transaction before the next midnight
+
+    private double balance;
+
+    @Data
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long cardId;
+        private LocalDate snapshotDate;
+    }
+}
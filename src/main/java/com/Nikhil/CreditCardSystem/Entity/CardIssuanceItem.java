@@ -0,0 +1,33 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// One customer of a bulk issuance job; written and read with JDBC by CardIssuanceJobService
+@Entity
+@Table(name = "card_issuance_item", indexes = @Index(name = "idx_card_issuance_item_pending", columnList = "job_id, status, customer_id"))
+@IdClass(CardIssuanceItem.Key.class)
+@Data
+@NoArgsConstructor
+public class CardIssuanceItem {
+
+    @Id
+    private Long jobId;
+
+    @Id
+    private Long customerId;
+
+    private String status;  // PENDING / ISSUED / SKIPPED
+    private Long cardId;    // card issued for this customer
+
+    @Data
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long jobId;
+        private Long customerId;
+    }
+}
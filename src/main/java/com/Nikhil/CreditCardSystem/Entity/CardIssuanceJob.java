@@ -0,0 +1,34 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "card_issuance_job")
+@Data
+@NoArgsConstructor
+public class CardIssuanceJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_issuance_job_seq")
+    @SequenceGenerator(name = "card_issuance_job_seq", sequenceName = "card_issuance_job_seq", allocationSize = 1)
+    private Long id;
+
+    // Parameters of every card issued by the job
+    private String cardType;
+    private double initialBalance;
+    private boolean active;
+
+    private String status;       // QUEUED / RUNNING / COMPLETED / FAILED
+    private long total;          // customers in the job
+    private long processed;      // customers handled so far (committed with each chunk)
+    private long issued;
+    private long skipped;        // customer not found
+    private String lastError;
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,31 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Running ledger totals of a card and the result of its last check; maintained by LedgerReconciliationJob
+@Entity
+@Table(name = "card_ledger_checksum", indexes = @Index(name = "idx_card_ledger_checksum_status", columnList = "status"))
+@Data
+@NoArgsConstructor
+public class CardLedgerChecksum {
+
+    @Id
+    private Long cardId;
+
+    // Transactions with id <= throughId, archived ones included
+    private long txCount;
+    private double netAmount;       // credits minus debits
+    private long checksum;          // order independent sum of the entries' hashes
+    private long throughId;
+
+    private double expectedBalance; // opening balance + net of every transaction
+    private double actualBalance;   // totalBalance at the check
+    private double difference;      // actual - expected
+    private String status;          // MATCHED / MISMATCH / BASELINED
+    private LocalDateTime verifiedAt;
+}
@@ -0,0 +1,41 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Per-card totals of one day or month; maintained by TransactionRollupService with SQL upserts
+@Entity
+@Table(name = "card_rollup")
+@IdClass(CardRollup.Key.class)
+@Data
+@NoArgsConstructor
+public class CardRollup {
+
+    @Id
+    private Long cardId;
+
+    @Id
+    private String period;        // DAY / MONTH
+
+    @Id
+    private LocalDate periodStart; // the day, or the first day of the month
+
+    private long txCount;
+    private double debitTotal;
+    private double creditTotal;
+    private double minAmount;
+    private double maxAmount;
+
+    @Data
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long cardId;
+        private String period;
+        private LocalDate periodStart;
+    }
+}
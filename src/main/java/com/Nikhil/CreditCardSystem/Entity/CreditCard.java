@@ -4,22 +4,29 @@ package com.Nikhil.CreditCardSystem.Entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.Nikhil.util.EncryptDecryptConverter;
+import org.hibernate.annotations.SQLRestriction;
+import com.Nikhil.CreditCardSystem.util.EncryptDecryptConverter;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_credit_card_expiry_date", columnList = "expiry_date"),
+        @Index(name = "idx_credit_card_deleted_at", columnList = "deleted_at")})
+@SQLRestriction("deleted_at is null")
 @Data
 @NoArgsConstructor
 public class CreditCard {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credit_card_seq")
+    @SequenceGenerator(name = "credit_card_seq", sequenceName = "credit_card_seq", allocationSize = 50)
     private Long id;
 
-    @Convert(converter = org.Nikhil.util.EncryptDecryptConverter.class)
+    @Convert(converter = EncryptDecryptConverter.class)
     @Column(unique = true)
     private String cardNumber; // unique per card
 
@@ -30,16 +37,31 @@ public class CreditCard {
 
     private String cardType; // Optional (Visa, MasterCard)
 
-    private boolean isActive = true; // card enabled by default
+    // Card enabled by default. Only changed by CardLifecycleService's set-based UPDATEs, so a
+    // concurrently saved entity must not write its stale value back.
+    @Column(updatable = false)
+    private boolean isActive = true;
 
     private double totalBalance;
+    // Balance the card was issued with (no transaction row); the base of LedgerReconciliationJob.
+    // Null for cards issued before it was recorded until a reconciliation run derives it.
+    @Column(updatable = false)
+    private Double openingBalance;
+    // Reserved by ACTIVE authorization holds; available balance is totalBalance - heldAmount
+    @Column(columnDefinition = "double precision default 0 not null")
+    private double heldAmount = 0;
     private double dailyDebitedAmount = 0;
     private double dailyCreditedAmount = 0;
 
-    private final double MAX_WITHDRAWAL_LIMIT = 50000;
-    private final double DAILY_DEBIT_LIMIT = 20000;
-    private final double DAILY_CREDIT_LIMIT = 50000;
-    private final double MAX_CREDIT_LIMIT = 50000;
+    // Soft delete: hidden from every entity query at once, rows removed later by SoftDeletePurger.
+    // Only set by the native soft-delete UPDATEs, so a stale save must not write it back.
+    @Column(updatable = false)
+    private LocalDateTime deletedAt;
+
+    // Own LimitProfile; null = the profile of the card type (see LimitProfileService). Only set by
+    // the admin assignment UPDATE, so a concurrently saved entity must not write it back.
+    @Column(updatable = false)
+    private Long limitProfileId;
 
     @ManyToOne
     @JoinColumn(name = "customer_id")
@@ -47,5 +69,11 @@ public class CreditCard {
 
     @OneToMany(mappedBy = "creditCard", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Transaction> transactions = new ArrayList<>();
+
+    @OneToMany(mappedBy = "creditCard", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<AuthorizationHold> holds = new ArrayList<>();
+
+    @OneToMany(mappedBy = "creditCard", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<ScheduledPayment> scheduledPayments = new ArrayList<>();
 }
 
@@ -4,30 +4,40 @@ package com.Nikhil.CreditCardSystem.Entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.Nikhil.util.EncryptDecryptConverter;
+import org.hibernate.annotations.SQLRestriction;
+import com.Nikhil.CreditCardSystem.util.EncryptDecryptConverter;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_customer_deleted_at", columnList = "deleted_at"))
+@SQLRestriction("deleted_at is null")
 @Data
 @NoArgsConstructor
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     private Long id;
 
-    @Convert(converter = org.Nikhil.util.EncryptDecryptConverter.class)
+    @Convert(converter = EncryptDecryptConverter.class)
     private String username;
     private String password;
     private String name;
-    @Convert(converter = org.Nikhil.util.EncryptDecryptConverter.class)
+    @Convert(converter = EncryptDecryptConverter.class)
     private String phoneNumber;
-    @Convert(converter = org.Nikhil.util.EncryptDecryptConverter.class)
+    @Convert(converter = EncryptDecryptConverter.class)
     private String email;
 
     private String role;
 
+    // Soft delete: hidden from every entity query at once, rows removed later by SoftDeletePurger.
+    // Only set by the native soft-delete UPDATEs, so a stale save must not write it back.
+    @Column(updatable = false)
+    private LocalDateTime deletedAt;
+
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CreditCard> creditCards = new ArrayList<>();
 
@@ -0,0 +1,32 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "customer_import_job")
+@Data
+@NoArgsConstructor
+public class CustomerImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_import_job_seq")
+    @SequenceGenerator(name = "customer_import_job_seq", sequenceName = "customer_import_job_seq", allocationSize = 1)
+    private Long id;
+
+    private String fileName;     // inside customer-import.input-dir
+    private String format;       // CSV / NDJSON
+
+    private String status;       // QUEUED / RUNNING / COMPLETED / FAILED
+    private long linesRead;      // lines consumed so far (committed with each chunk's customers)
+    private long imported;
+    private long duplicates;     // username already taken, in the database or earlier in the file
+    private long invalid;        // malformed line or missing required field
+    private String lastError;
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,37 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import com.Nikhil.CreditCardSystem.util.EncryptDecryptConverter;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_scope_key", columnNames = {"username", "endpoint", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+    @SequenceGenerator(name = "idempotency_keys_seq", sequenceName = "idempotency_keys_seq", allocationSize = 50)
+    private Long id;
+
+    private String username;        // Who sent the request; keys are only unique per caller
+    private String endpoint;        // e.g. "debit", "credit", "transactions/batch"
+    private String idempotencyKey;  // Value of the Idempotency-Key header
+    private String requestHash;     // SHA-256 of the request parameters, to reject a reused key
+    private String status;          // IN_PROGRESS / COMPLETED / UNSTORED
+    private Integer responseStatus; // HTTP status of the stored response
+
+    // The response can contain card numbers, so it is stored encrypted
+    @Convert(converter = EncryptDecryptConverter.class)
+    @Column(columnDefinition = "text")
+    private String responseBody;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime expiresAt;
+}
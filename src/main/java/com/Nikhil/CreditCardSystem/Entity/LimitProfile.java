@@ -0,0 +1,29 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Debit/credit limits shared by many cards; cached by LimitProfileService
+@Entity
+@Table(name = "limit_profile", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_limit_profile_name", columnNames = "name"),
+        @UniqueConstraint(name = "uk_limit_profile_card_type", columnNames = "card_type")})
+@Data
+@NoArgsConstructor
+public class LimitProfile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "limit_profile_seq")
+    @SequenceGenerator(name = "limit_profile_seq", sequenceName = "limit_profile_seq", allocationSize = 1)
+    private Long id;
+
+    private String name;
+    private String cardType;   // applies to every card of this type without a profile of its own (null = none)
+
+    private double maxWithdrawalLimit;
+    private double dailyDebitLimit;
+    private double dailyCreditLimit;
+    private double maxCreditLimit;
+}
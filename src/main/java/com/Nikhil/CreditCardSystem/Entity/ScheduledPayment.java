@@ -0,0 +1,35 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "scheduled_payment", indexes = {
+        @Index(name = "idx_scheduled_payment_due", columnList = "status, next_run_at"),
+        @Index(name = "idx_scheduled_payment_card", columnList = "card_id")})
+@Data
+@NoArgsConstructor
+public class ScheduledPayment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_payment_seq")
+    @SequenceGenerator(name = "scheduled_payment_seq", sequenceName = "scheduled_payment_seq", allocationSize = 50)
+    private Long id;
+
+    private String transactionType;  // "DEBIT" or "CREDIT"
+    private double amount;
+    private String frequency;        // ONCE / DAILY / WEEKLY / MONTHLY
+    private LocalDateTime startAt;   // first occurrence; later ones are counted from here, so months don't drift
+    private LocalDateTime endAt;     // optional, no occurrence after this
+    private LocalDateTime nextRunAt;
+    private int occurrences;         // occurrences already claimed (or skipped)
+    private String status;           // ACTIVE / COMPLETED / CANCELLED
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "card_id")
+    private CreditCard creditCard;
+}
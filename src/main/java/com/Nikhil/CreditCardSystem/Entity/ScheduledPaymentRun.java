@@ -0,0 +1,31 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import com.Nikhil.CreditCardSystem.util.TimeOrderedId;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "scheduled_payment_run",
+        uniqueConstraints = @UniqueConstraint(name = "uk_scheduled_payment_run_occurrence", columnNames = {"payment_id", "due_at"}),
+        indexes = @Index(name = "idx_scheduled_payment_run_pending", columnList = "status, claimed_at"))
+@Data
+@NoArgsConstructor
+public class ScheduledPaymentRun {
+
+    @Id
+    @TimeOrderedId(sequenceName = "scheduled_payment_run_seq")
+    private Long id;
+
+    private Long paymentId;          // one row per occurrence (unique with dueAt): never executed twice
+    private Long cardId;
+    private String transactionType;
+    private double amount;
+    private LocalDateTime dueAt;
+    private LocalDateTime claimedAt; // PENDING rows claimed long ago are picked up again after a crash
+    private LocalDateTime executedAt;
+    private String status;           // PENDING / SUCCESS / FAILED
+    private String message;
+}
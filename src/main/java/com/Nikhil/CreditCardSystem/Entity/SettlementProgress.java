@@ -0,0 +1,40 @@
+package com.Nikhil.CreditCardSystem.Entity;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Checkpoint of one settlement file: byte offset up to which a partition's records are applied
+// (partition -1: offset every partition has passed). Written by SettlementIngestionJob with SQL upserts.
+@Entity
+@Table(name = "settlement_progress")
+@IdClass(SettlementProgress.Key.class)
+@Data
+@NoArgsConstructor
+public class SettlementProgress {
+
+    @Id
+    private String fileName;
+
+    @Id
+    private int partitionNo;
+
+    private long appliedOffset;
+
+    private int partitions;       // partition count of the run that wrote the row
+
+    // Identity of the file the checkpoints belong to (partition -1 row only): a later file with the
+    // same name is refused instead of being skipped or resumed mid-line
+    private Long fileSize;
+    private String fingerprint;   // SHA-256 of the first MiB
+
+    @Data
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String fileName;
+        private int partitionNo;
+    }
+}
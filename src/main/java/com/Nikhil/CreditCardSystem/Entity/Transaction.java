@@ -3,23 +3,31 @@ package com.Nikhil.CreditCardSystem.Entity;
 
 
 import jakarta.persistence.*;
+import com.Nikhil.CreditCardSystem.util.TimeOrderedId;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_transaction_card_date_time", columnList = "card_id, date_time"),
+        // Export order (TransactionExportService): streams from the first row instead of sorting the table
+        @Index(name = "idx_transaction_date_time_id", columnList = "date_time, id")
+})
 @Data
 @NoArgsConstructor
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId(sequenceName = "transaction_seq")
     private Long id;
 
     private double amount;
     private String transactionType; // e.g. "DEBIT" or "CREDIT"
     private String cardType;
     private String description;
+    // Partition key of the monthly partitions (see PartitionMaintenanceService); part of the primary key
+    @Column(nullable = false)
     private LocalDateTime dateTime = LocalDateTime.now();
 
     @ManyToOne
@@ -2,6 +2,7 @@ package com.Nikhil.CreditCardSystem.Entity;
 
 
 import jakarta.persistence.*;
+import com.Nikhil.CreditCardSystem.util.TimeOrderedId;
 import lombok.Data;
 import java.time.LocalDateTime;
 
@@ -11,11 +12,13 @@ import java.time.LocalDateTime;
 public class UserActionLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId(sequenceName = "user_action_logs_seq")
     private Long id;
 
     private String name; // Who performed the action
     private String action;   // Description of the action
     private String status;   // SUCCESS / FAILED
+    // Partition key of the monthly partitions (see PartitionMaintenanceService); part of the primary key
+    @Column(nullable = false)
     private LocalDateTime actionTime = LocalDateTime.now();
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.Nikhil.CreditCardSystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Runs the parallel reads behind GET /api/customers/{id}/overview.
+    // Bounded queue: when saturated, requests fail fast instead of piling up behind the deadline.
+    @Bean(name = "overviewExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService overviewExecutor(@Value("${overview.executor.pool-size:16}") int poolSize,
+                                            @Value("${overview.executor.queue-capacity:256}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("overview-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Executes scheduled payment runs, one task per card. A full queue makes the poller run the
+    // task itself, which throttles claiming instead of dropping work.
+    @Bean(name = "scheduledPaymentExecutor", destroyMethod = "shutdown")
+    public ExecutorService scheduledPaymentExecutor(@Value("${scheduled-payments.executor.pool-size:8}") int poolSize,
+                                                    @Value("${scheduled-payments.executor.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("scheduled-payment-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Writes statement partitions (one card id range per task, each holding one DB connection while
+    // it streams). A full queue makes the job's coordinator thread run the partition itself.
+    @Bean(name = "statementExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService statementExecutor(@Value("${statements.executor.pool-size:4}") int poolSize,
+                                             @Value("${statements.executor.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("statement-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Applies settlement file partitions: one task per partition and chunk, so the pool never queues
+    // more than one chunk's worth of tasks.
+    @Bean(name = "settlementExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService settlementExecutor(@Value("${settlements.partitions:4}") int partitions) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                partitions, partitions, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(partitions),
+                new CustomizableThreadFactory("settlement-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // BCrypt hashing and field encryption of customer imports; CPU bound, so one thread per core by
+    // default (customer-import.hash-threads=0). Unbounded queue: the job submits one chunk at a time.
+    @Bean(name = "customerImportExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService customerImportExecutor(@Value("${customer-import.hash-threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("customer-import-hash-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Scans of the analytics column store: one stripe of segments per thread, CPU bound, so one
+    // thread per core by default (analytics.query-threads=0)
+    @Bean(name = "analyticsExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService analyticsExecutor(@Value("${analytics.query-threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("analytics-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Ledger reconciliation: one card id range per task, each holding one DB connection while it
+    // streams. A full queue makes the job's coordinator thread check the range itself.
+    @Bean(name = "reconciliationExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService reconciliationExecutor(@Value("${reconciliation.threads:4}") int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads),
+                new CustomizableThreadFactory("reconciliation-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -46,6 +46,8 @@ public class SecurityConfig {
                                 "/favicon.ico",
                                 "/webjars/**" )
                         .permitAll()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/analytics/**").hasRole("ADMIN")
                         .requestMatchers("/api/creditcards/**").hasAnyRole("USER", "ADMIN")    // ✅ only ADMIN
                         .requestMatchers("/api/customers/**" ).hasRole("USER") // ✅ both
                         .anyRequest().authenticated())
@@ -0,0 +1,39 @@
+package com.Nikhil.CreditCardSystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Value("${export.executor.pool-size:4}")
+    private int exportPoolSize;
+
+    @Value("${export.executor.queue-capacity:16}")
+    private int exportQueueCapacity;
+
+    @Value("${export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
+
+    // Writes StreamingResponseBody responses (GET /api/transactions/export). Each running export holds
+    // one DB connection, so the pool size caps how many stream at once; beyond the queue they are rejected.
+    @Bean(name = "exportExecutor")
+    public ThreadPoolTaskExecutor exportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportPoolSize);
+        executor.setMaxPoolSize(exportPoolSize);
+        executor.setQueueCapacity(exportQueueCapacity);
+        executor.setThreadNamePrefix("export-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportExecutor());
+        configurer.setDefaultTimeout(exportTimeoutMs);
+    }
+}
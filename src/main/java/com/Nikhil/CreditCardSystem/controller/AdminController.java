@@ -0,0 +1,869 @@
+package com.Nikhil.CreditCardSystem.controller;
+
+import com.Nikhil.CreditCardSystem.dto.CardIssuanceRequest;
+import com.Nikhil.CreditCardSystem.dto.CoalescingStatsDto;
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import com.Nikhil.CreditCardSystem.dto.LedgerDiscrepancyDto;
+import com.Nikhil.CreditCardSystem.dto.LimitProfileDto;
+import com.Nikhil.CreditCardSystem.dto.PartitionDto;
+import com.Nikhil.CreditCardSystem.service.BalanceSnapshotJob;
+import com.Nikhil.CreditCardSystem.service.CardIssuanceJobService;
+import com.Nikhil.CreditCardSystem.service.CustomerImportJobService;
+import com.Nikhil.CreditCardSystem.service.FieldReEncryptionJob;
+import com.Nikhil.CreditCardSystem.service.LedgerReconciliationJob;
+import com.Nikhil.CreditCardSystem.service.LimitProfileService;
+import com.Nikhil.CreditCardSystem.service.PartitionMaintenanceService;
+import com.Nikhil.CreditCardSystem.service.RollupBackfillJob;
+import com.Nikhil.CreditCardSystem.service.RequestCoalescingService;
+import com.Nikhil.CreditCardSystem.service.SettlementIngestionJob;
+import com.Nikhil.CreditCardSystem.service.StatementJob;
+import com.Nikhil.CreditCardSystem.service.TransactionArchiveJob;
+import com.Nikhil.CreditCardSystem.util.ResponseStructure;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdminController.class);
+
+    @Autowired
+    private RequestCoalescingService requestCoalescingService;
+
+    @Autowired
+    private FieldReEncryptionJob fieldReEncryptionJob;
+
+    @Autowired
+    private CardIssuanceJobService cardIssuanceJobService;
+
+    @Autowired
+    private LimitProfileService limitProfileService;
+
+    @Autowired
+    private RollupBackfillJob rollupBackfillJob;
+
+    @Autowired
+    private StatementJob statementJob;
+
+    @Autowired
+    private SettlementIngestionJob settlementIngestionJob;
+
+    @Autowired
+    private CustomerImportJobService customerImportJobService;
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    private TransactionArchiveJob transactionArchiveJob;
+
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+
+    @Autowired
+    private LedgerReconciliationJob ledgerReconciliationJob;
+
+    /**
+     * 📊 API: Request coalescing metrics
+     *
+     * Endpoint: GET /api/admin/coalescing/stats
+     * Description: Per-endpoint counters of database loads vs. calls that shared an in-flight load.
+     * Response: Map of endpoint name to CoalescingStatsDto.
+     */
+
+    // 📊 COALESCING STATS
+    @Operation(
+            summary = "Request coalescing metrics",
+            description = "Returns, per endpoint, how many reads hit the database and how many were served by an identical in-flight read."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stats fetched successfully"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/coalescing/stats")
+    public ResponseEntity<ResponseStructure<Map<String, CoalescingStatsDto>>> getCoalescingStats() {
+        LOGGER.info("Fetching request coalescing stats");
+
+        ResponseStructure<Map<String, CoalescingStatsDto>> structure = new ResponseStructure<>();
+        structure.setMessage("Coalescing stats fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(requestCoalescingService.getStats());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 🔐 API: Start field re-encryption
+     *
+     * Endpoint: POST /api/admin/jobs/field-reencryption
+     * Description: Starts the background job that rewrites legacy encrypted columns in the current format.
+     * Response: Current job status; 409 if a run is already in progress.
+     */
+
+    // 🔐 START FIELD RE-ENCRYPTION
+    @Operation(
+            summary = "Start field re-encryption",
+            description = "Re-encrypts legacy ciphertext in customer and credit card columns in the background."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "409", description = "Job already running")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/field-reencryption")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> startFieldReEncryption() {
+        LOGGER.info("Starting field re-encryption job");
+        boolean started = fieldReEncryptionJob.start();
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(started ? "Field re-encryption started" : "Field re-encryption is already running");
+        structure.setHttpstatus(started ? "SUCCESS" : "FAILED");
+        structure.setData(fieldReEncryptionJob.getStatus());
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+
+    /**
+     * 🔐 API: Field re-encryption status
+     *
+     * Endpoint: GET /api/admin/jobs/field-reencryption
+     * Description: Progress of the current or last re-encryption run.
+     */
+
+    // 🔐 FIELD RE-ENCRYPTION STATUS
+    @Operation(
+            summary = "Field re-encryption status",
+            description = "Returns progress counters of the current or last field re-encryption run."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/jobs/field-reencryption")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> getFieldReEncryptionStatus() {
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Field re-encryption status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(fieldReEncryptionJob.getStatus());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 💳 API: Bulk card issuance
+     *
+     * Endpoint: POST /api/admin/jobs/card-issuance
+     * Description: Issues one card per customer ID in the background, in JDBC-batched chunks.
+     * Response: Status of the queued job; progress via GET /api/admin/jobs/card-issuance/{jobId}.
+     */
+
+    // 💳 START CARD ISSUANCE
+    @Operation(
+            summary = "Bulk card issuance",
+            description = "Queues a job that issues a card with the given type and balance to every listed customer. Unknown customers are skipped."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/card-issuance")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> startCardIssuance(@RequestBody CardIssuanceRequest request) {
+        LOGGER.info("Starting card issuance job for {} customers", request.getCustomerIds() == null ? 0 : request.getCustomerIds().size());
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Card issuance job queued");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(cardIssuanceJobService.create(request));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(structure);
+    }
+
+    /**
+     * 💳 API: Card issuance status
+     *
+     * Endpoint: GET /api/admin/jobs/card-issuance/{jobId}
+     * Description: Progress of a bulk card issuance job.
+     */
+
+    // 💳 CARD ISSUANCE STATUS
+    @Operation(
+            summary = "Card issuance status",
+            description = "Returns total, processed, issued (updated) and skipped counts of a card issuance job."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/jobs/card-issuance/{jobId}")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> getCardIssuanceStatus(@PathVariable Long jobId) {
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Card issuance status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(cardIssuanceJobService.getStatus(jobId));
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 💳 API: Resume card issuance
+     *
+     * Endpoint: POST /api/admin/jobs/card-issuance/{jobId}/resume
+     * Description: Re-queues a failed job; it continues with the customers not yet processed.
+     * Response: Job status; 409 if the job is already queued, running or completed.
+     */
+
+    // 💳 RESUME CARD ISSUANCE
+    @Operation(
+            summary = "Resume card issuance",
+            description = "Continues a failed card issuance job from its last committed chunk."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job re-queued"),
+            @ApiResponse(responseCode = "404", description = "Job not found"),
+            @ApiResponse(responseCode = "409", description = "Job already running or completed")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/card-issuance/{jobId}/resume")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> resumeCardIssuance(@PathVariable Long jobId) {
+        LOGGER.info("Resuming card issuance job {}", jobId);
+        boolean resumed = cardIssuanceJobService.resume(jobId);
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(resumed ? "Card issuance job re-queued" : "Card issuance job is already running or completed");
+        structure.setHttpstatus(resumed ? "SUCCESS" : "FAILED");
+        structure.setData(cardIssuanceJobService.getStatus(jobId));
+        return ResponseEntity.status(resumed ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+
+    /**
+     * 📏 API: Limit profiles
+     *
+     * Endpoint: GET /api/admin/limit-profiles
+     * Description: All limit profiles as currently cached and used by the debit/credit checks.
+     */
+
+    // 📏 LIST LIMIT PROFILES
+    @Operation(
+            summary = "List limit profiles",
+            description = "Returns every limit profile. Cards use their own profile, else the one of their card type, else DEFAULT."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Profiles fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/limit-profiles")
+    public ResponseEntity<ResponseStructure<List<LimitProfileDto>>> getLimitProfiles() {
+        ResponseStructure<List<LimitProfileDto>> structure = new ResponseStructure<>();
+        structure.setMessage("Limit profiles fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(limitProfileService.getProfiles());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 📏 API: Create or update limit profile
+     *
+     * Endpoint: POST /api/admin/limit-profiles
+     * Description: Creates the profile or updates the one with the same name; takes effect immediately.
+     * Response: The saved profile.
+     */
+
+    // 📏 SAVE LIMIT PROFILE
+    @Operation(
+            summary = "Create or update limit profile",
+            description = "Saves a limit profile by name. A card type makes it the default profile of that type."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Profile saved"),
+            @ApiResponse(responseCode = "400", description = "Invalid limits or card type already taken")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/limit-profiles")
+    public ResponseEntity<ResponseStructure<LimitProfileDto>> saveLimitProfile(@RequestBody LimitProfileDto request) {
+        LOGGER.info("Saving limit profile {}", request.getName());
+
+        ResponseStructure<LimitProfileDto> structure = new ResponseStructure<>();
+        structure.setMessage("Limit profile saved successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(limitProfileService.save(request));
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 📏 API: Assign limit profile to card
+     *
+     * Endpoint: PUT /api/admin/creditcards/{cardId}/limit-profile?profileId=
+     * Description: Gives one card its own limit profile; without profileId the card falls back to its card type's profile.
+     */
+
+    // 📏 ASSIGN LIMIT PROFILE
+    @Operation(
+            summary = "Assign limit profile to card",
+            description = "Sets or clears the card's own limit profile."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Profile assigned"),
+            @ApiResponse(responseCode = "404", description = "Card or profile not found")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/creditcards/{cardId}/limit-profile")
+    public ResponseEntity<ResponseStructure<String>> assignLimitProfile(@PathVariable Long cardId,
+                                                                        @RequestParam(required = false) Long profileId) {
+        LOGGER.info("Assigning limit profile {} to card ID {}", profileId, cardId);
+        limitProfileService.assignToCard(cardId, profileId);
+
+        ResponseStructure<String> structure = new ResponseStructure<>();
+        structure.setMessage("Limit profile assigned successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(profileId == null ? "Card ID " + cardId + " uses its card type's profile" : "Card ID " + cardId + " uses profile ID " + profileId);
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 📊 API: Start rollup backfill
+     *
+     * Endpoint: POST /api/admin/jobs/rollup-backfill
+     * Description: Rebuilds the daily and monthly card rollups from the transaction history.
+     * Response: Current job status; 409 if a run is already in progress.
+     */
+
+    // 📊 START ROLLUP BACKFILL
+    @Operation(
+            summary = "Start rollup backfill",
+            description = "Recomputes card_rollup for every card in the background, chunk by chunk; live transactions keep being counted."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "409", description = "Job already running")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/rollup-backfill")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> startRollupBackfill() {
+        LOGGER.info("Starting rollup backfill job");
+        boolean started = rollupBackfillJob.start();
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(started ? "Rollup backfill started" : "Rollup backfill is already running");
+        structure.setHttpstatus(started ? "SUCCESS" : "FAILED");
+        structure.setData(rollupBackfillJob.getStatus());
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+
+    /**
+     * 📊 API: Rollup backfill status
+     *
+     * Endpoint: GET /api/admin/jobs/rollup-backfill
+     * Description: Progress of the current or last rollup backfill.
+     */
+
+    // 📊 ROLLUP BACKFILL STATUS
+    @Operation(
+            summary = "Rollup backfill status",
+            description = "Returns cards processed and rollup rows written by the current or last backfill."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/jobs/rollup-backfill")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> getRollupBackfillStatus() {
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Rollup backfill status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(rollupBackfillJob.getStatus());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 🧾 API: Start statement generation
+     *
+     * Endpoint: POST /api/admin/jobs/statements?month=2025-01
+     * Description: Writes the month's statement files (gzip CSV, one per card id range) for every card.
+     * Query Parameters:
+     *      - month (YearMonth, optional): defaults to the previous month
+     * Response: Current job status; 409 if a run is already in progress.
+     */
+
+    // 🧾 START STATEMENTS
+    @Operation(
+            summary = "Start statement generation",
+            description = "Streams every card's transactions of the month into compressed CSV files, card id ranges in parallel; ranges written by an interrupted run are reused."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "409", description = "Job already running")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/statements")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> startStatements(
+            @Parameter(description = "Month (yyyy-MM), defaults to the previous month", example = "2025-01")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        YearMonth statementMonth = month != null ? month : YearMonth.now().minusMonths(1);
+        LOGGER.info("Starting statement job for {}", statementMonth);
+        boolean started = statementJob.start(statementMonth);
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(started ? "Statement generation started for " + statementMonth : "Statement generation is already running");
+        structure.setHttpstatus(started ? "SUCCESS" : "FAILED");
+        structure.setData(statementJob.getStatus());
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+
+    /**
+     * 🧾 API: Statement generation status
+     *
+     * Endpoint: GET /api/admin/jobs/statements
+     * Description: Progress of the current or last statement run.
+     */
+
+    // 🧾 STATEMENTS STATUS
+    @Operation(
+            summary = "Statement generation status",
+            description = "Returns card id ranges done (total/processed/skipped as reused) and cards written by the current or last run."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/jobs/statements")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> getStatementStatus() {
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Statement status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(statementJob.getStatus());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 💳 API: Ingest settlement file
+     *
+     * Endpoint: POST /api/admin/jobs/settlements?file=settlement-2025-01-31.csv
+     * Description: Applies a partner settlement file from the settlement input directory. Running
+     *              it again for the same file resumes from its checkpoint; a finished file is not reapplied.
+     * Query Parameters:
+     *      - file (String): file name inside settlements.input-dir
+     * Response: Current job status; 409 if a file is already being ingested.
+     */
+
+    // 💳 START SETTLEMENT INGESTION
+    @Operation(
+            summary = "Ingest settlement file",
+            description = "Memory-maps the file, applies its debit/credit lines in parallel card partitions with batched writes and writes rejected lines to <file>.rejects."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "400", description = "File name invalid or file not found"),
+            @ApiResponse(responseCode = "409", description = "Job already running")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/settlements")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> startSettlementIngestion(
+            @Parameter(description = "Settlement file name", example = "settlement-2025-01-31.csv")
+            @RequestParam String file) {
+        LOGGER.info("Starting settlement ingestion for {}", file);
+        boolean started = settlementIngestionJob.start(file);
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(started ? "Settlement ingestion started for " + file : "Settlement ingestion is already running");
+        structure.setHttpstatus(started ? "SUCCESS" : "FAILED");
+        structure.setData(settlementIngestionJob.getStatus());
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+
+    /**
+     * 💳 API: Settlement ingestion status
+     *
+     * Endpoint: GET /api/admin/jobs/settlements
+     * Description: Progress of the current or last settlement file.
+     */
+
+    // 💳 SETTLEMENT INGESTION STATUS
+    @Operation(
+            summary = "Settlement ingestion status",
+            description = "Returns lines read (processed), applied (updated) and rejected (skipped) by the current or last run."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/jobs/settlements")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> getSettlementIngestionStatus() {
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Settlement ingestion status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(settlementIngestionJob.getStatus());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 👥 API: Bulk customer import
+     *
+     * Endpoint: POST /api/admin/jobs/customer-import?file=legacy-customers.csv
+     * Description: Imports customers from a CSV (header: name,username,password,email,phone_number,role)
+     *              or NDJSON file in the customer import directory, in the background.
+     * Response: Status of the queued job; progress via GET /api/admin/jobs/customer-import/{jobId}.
+     */
+
+    // 👥 START CUSTOMER IMPORT
+    @Operation(
+            summary = "Bulk customer import",
+            description = "Queues a job that hashes passwords (BCrypt hashes are kept as they are) and encrypts fields in parallel and inserts customers in batches. Duplicate usernames are reported, not imported."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job queued"),
+            @ApiResponse(responseCode = "400", description = "File name invalid, file not found or unsupported format")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/customer-import")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> startCustomerImport(
+            @Parameter(description = "Import file name (.csv, .ndjson or .jsonl)", example = "legacy-customers.csv")
+            @RequestParam String file) {
+        LOGGER.info("Starting customer import for {}", file);
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Customer import job queued");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(customerImportJobService.create(file));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(structure);
+    }
+
+    /**
+     * 👥 API: Customer import status
+     *
+     * Endpoint: GET /api/admin/jobs/customer-import/{jobId}
+     * Description: Progress of a bulk customer import job.
+     */
+
+    // 👥 CUSTOMER IMPORT STATUS
+    @Operation(
+            summary = "Customer import status",
+            description = "Returns lines read (processed), customers imported (updated) and duplicate or invalid lines (skipped)."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/jobs/customer-import/{jobId}")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> getCustomerImportStatus(@PathVariable Long jobId) {
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Customer import status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(customerImportJobService.getStatus(jobId));
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 👥 API: Resume customer import
+     *
+     * Endpoint: POST /api/admin/jobs/customer-import/{jobId}/resume
+     * Description: Re-queues a failed job; it continues after the last committed line.
+     * Response: Job status; 409 if the job is already queued, running or completed.
+     */
+
+    // 👥 RESUME CUSTOMER IMPORT
+    @Operation(
+            summary = "Resume customer import",
+            description = "Continues a failed customer import job from its last committed chunk."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job re-queued"),
+            @ApiResponse(responseCode = "404", description = "Job not found"),
+            @ApiResponse(responseCode = "409", description = "Job already running or completed")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/customer-import/{jobId}/resume")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> resumeCustomerImport(@PathVariable Long jobId) {
+        LOGGER.info("Resuming customer import job {}", jobId);
+        boolean resumed = customerImportJobService.resume(jobId);
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(resumed ? "Customer import job re-queued" : "Customer import job is already running or completed");
+        structure.setHttpstatus(resumed ? "SUCCESS" : "FAILED");
+        structure.setData(customerImportJobService.getStatus(jobId));
+        return ResponseEntity.status(resumed ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+
+    /**
+     * 🗂️ API: Table partitions
+     *
+     * Endpoint: GET /api/admin/partitions
+     * Description: Monthly partitions of transaction and user_action_logs with their ranges.
+     */
+
+    // 🗂️ LIST PARTITIONS
+    @Operation(
+            summary = "Table partitions",
+            description = "Lists the partitions of the month-partitioned tables with range bounds and estimated row counts."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Partitions fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/partitions")
+    public ResponseEntity<ResponseStructure<List<PartitionDto>>> getPartitions() {
+        ResponseStructure<List<PartitionDto>> structure = new ResponseStructure<>();
+        structure.setMessage("Partitions fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(partitionMaintenanceService.getPartitions());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 🗂️ API: Detach old partitions
+     *
+     * Endpoint: POST /api/admin/partitions/detach?table=transaction&before=2024-06
+     * Description: Detaches every partition of the table that ends before the given month. The
+     *              detached tables keep their names; nothing is dropped. Transaction partitions
+     *              are only detached once the archive job has emptied them.
+     * Response: Names of the detached partitions.
+     */
+
+    // 🗂️ DETACH PARTITIONS
+    @Operation(
+            summary = "Detach old partitions",
+            description = "Detaches the month partitions (and the legacy partition) that end before the given month; transaction partitions only once archived."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Partitions detached"),
+            @ApiResponse(responseCode = "400", description = "Unknown table or month not in the past")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/partitions/detach")
+    public ResponseEntity<ResponseStructure<List<String>>> detachPartitions(
+            @Parameter(description = "transaction or user_action_logs", example = "transaction")
+            @RequestParam String table,
+            @Parameter(description = "First month to keep (yyyy-MM)", example = "2024-06")
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth before) {
+        LOGGER.info("Detaching partitions of {} before {}", table, before);
+        List<String> detached = partitionMaintenanceService.detachBefore(table, before);
+
+        ResponseStructure<List<String>> structure = new ResponseStructure<>();
+        structure.setMessage(detached.isEmpty() ? "No partitions to detach" : "Detached " + detached.size() + " partitions");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(detached);
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 🧊 API: Start transaction archiving
+     *
+     * Endpoint: POST /api/admin/jobs/archive
+     * Description: Moves transactions older than archive.after-months, and detached month partitions,
+     *              into compressed column files of the cold store. Also runs monthly on its own.
+     * Response: Current job status; 409 if a run is already in progress.
+     */
+
+    // 🧊 START TRANSACTION ARCHIVE
+    @Operation(
+            summary = "Start transaction archiving",
+            description = "Writes aged transactions to per-month, per-card-range column files and deletes them from the database."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "409", description = "Job already running")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/archive")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> startTransactionArchive() {
+        LOGGER.info("Starting transaction archive job");
+        boolean started = transactionArchiveJob.start();
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(started ? "Transaction archive started" : "Transaction archive is already running");
+        structure.setHttpstatus(started ? "SUCCESS" : "FAILED");
+        structure.setData(transactionArchiveJob.getStatus());
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+
+    /**
+     * 🧊 API: Transaction archive status
+     *
+     * Endpoint: GET /api/admin/jobs/archive
+     * Description: Progress of the current or last archive run.
+     */
+
+    // 🧊 TRANSACTION ARCHIVE STATUS
+    @Operation(
+            summary = "Transaction archive status",
+            description = "Returns archive files written (processed of total) and transactions moved out of the database."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/jobs/archive")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> getTransactionArchiveStatus() {
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Transaction archive status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(transactionArchiveJob.getStatus());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 📸 API: Start balance snapshots
+     *
+     * Endpoint: POST /api/admin/jobs/balance-snapshots
+     * Description: Writes the end-of-day balances of the days since the last run (up to yesterday) for
+     *              the cards active on them. Also runs every night and at startup.
+     * Response: Current job status; 409 if a run is already in progress.
+     */
+
+    // 📸 START BALANCE SNAPSHOTS
+    @Operation(
+            summary = "Start balance snapshots",
+            description = "Catches up on the missing end-of-day balance snapshots used by point-in-time balance queries."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "409", description = "Job already running")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/balance-snapshots")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> startBalanceSnapshots() {
+        LOGGER.info("Starting balance snapshot job");
+        boolean started = balanceSnapshotJob.start();
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(started ? "Balance snapshots started" : "Balance snapshots are already running");
+        structure.setHttpstatus(started ? "SUCCESS" : "FAILED");
+        structure.setData(balanceSnapshotJob.getStatus());
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+
+    /**
+     * 📸 API: Balance snapshot status
+     *
+     * Endpoint: GET /api/admin/jobs/balance-snapshots
+     * Description: Progress of the current or last snapshot run.
+     */
+
+    // 📸 BALANCE SNAPSHOT STATUS
+    @Operation(
+            summary = "Balance snapshot status",
+            description = "Returns days processed (of total) and snapshot rows written."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/jobs/balance-snapshots")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> getBalanceSnapshotStatus() {
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Balance snapshot status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(balanceSnapshotJob.getStatus());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * ⚖️ API: Start ledger reconciliation
+     *
+     * Endpoint: POST /api/admin/jobs/reconciliation?full=false
+     * Description: Checks card balances against opening balance + credits - debits, in parallel per card
+     *              id range. Incremental by default (cards with new transactions or a moved balance);
+     *              full=true recomputes every ledger, archived months included. Also runs nightly.
+     * Response: Current job status; 409 if a run is already in progress.
+     */
+
+    // ⚖️ START LEDGER RECONCILIATION
+    @Operation(
+            summary = "Start ledger reconciliation",
+            description = "Recomputes card balances from their transactions and records the cards that do not match."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job started"),
+            @ApiResponse(responseCode = "409", description = "Job already running")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/jobs/reconciliation")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> startReconciliation(
+            @Parameter(description = "Recompute every ledger instead of only the changed cards", example = "false")
+            @RequestParam(defaultValue = "false") boolean full) {
+        LOGGER.info("Starting {} ledger reconciliation", full ? "full" : "incremental");
+        boolean started = ledgerReconciliationJob.start(full);
+
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(started ? "Ledger reconciliation started" : "Ledger reconciliation is already running");
+        structure.setHttpstatus(started ? "SUCCESS" : "FAILED");
+        structure.setData(ledgerReconciliationJob.getStatus());
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+
+    /**
+     * ⚖️ API: Ledger reconciliation status
+     *
+     * Endpoint: GET /api/admin/jobs/reconciliation
+     * Description: Progress of the current or last reconciliation run.
+     */
+
+    // ⚖️ LEDGER RECONCILIATION STATUS
+    @Operation(
+            summary = "Ledger reconciliation status",
+            description = "Returns card ranges done (of total), cards checked and cards skipped as unchanged."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/jobs/reconciliation")
+    public ResponseEntity<ResponseStructure<JobStatusDto>> getReconciliationStatus() {
+        ResponseStructure<JobStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Ledger reconciliation status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(ledgerReconciliationJob.getStatus());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * ⚖️ API: Ledger discrepancies
+     *
+     * Endpoint: GET /api/admin/reconciliation/discrepancies?limit=100
+     * Description: Cards whose balance did not match their ledger when last checked.
+     * Response: Expected vs actual balance per card, lowest card id first.
+     */
+
+    // ⚖️ LEDGER DISCREPANCIES
+    @Operation(
+            summary = "Ledger discrepancies",
+            description = "Lists the cards in MISMATCH after the last reconciliation that checked them."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Discrepancies fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "limit out of range")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/reconciliation/discrepancies")
+    public ResponseEntity<ResponseStructure<List<LedgerDiscrepancyDto>>> getLedgerDiscrepancies(
+            @Parameter(description = "Maximum number of cards (1-1000)", example = "100")
+            @RequestParam(defaultValue = "100") int limit) {
+        List<LedgerDiscrepancyDto> discrepancies = ledgerReconciliationJob.findDiscrepancies(limit);
+
+        ResponseStructure<List<LedgerDiscrepancyDto>> structure = new ResponseStructure<>();
+        structure.setMessage(discrepancies.isEmpty() ? "No ledger discrepancies" : discrepancies.size() + " ledger discrepancies");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(discrepancies);
+        return ResponseEntity.ok(structure);
+    }
+}
@@ -0,0 +1,153 @@
+package com.Nikhil.CreditCardSystem.controller;
+
+import com.Nikhil.CreditCardSystem.dto.AnalyticsResultDto;
+import com.Nikhil.CreditCardSystem.dto.AnalyticsStatusDto;
+import com.Nikhil.CreditCardSystem.service.TransactionAnalyticsStore;
+import com.Nikhil.CreditCardSystem.util.ResponseStructure;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalyticsController.class);
+
+    @Autowired
+    private TransactionAnalyticsStore transactionAnalyticsStore;
+
+    /**
+     * 📈 API: Spend analytics
+     *
+     * Endpoint: GET /api/analytics/spend?groupBy=cardType,hour&type=DEBIT&from=2025-01-01&to=2025-01-31
+     * Description: Count, sum, min, max and average amount of the matching transactions, grouped by
+     *              any of cardType, transactionType, hour, dayOfWeek and amountBucket. Answered from
+     *              the in-memory column store (last analytics.window-months), not the database.
+     * Request Parameters (all optional):
+     *      - groupBy (String): comma separated dimensions
+     *      - from/to (LocalDate, inclusive), type, cardType, minAmount/maxAmount
+     *      - bucketWidth (double, default 100): width of an amountBucket
+     * Response: AnalyticsResultDto with one entry per non-empty group.
+     */
+
+    // 📈 SPEND ANALYTICS
+    @Operation(
+            summary = "Spend analytics",
+            description = "Filters and aggregates transactions in parallel over the in-memory column store."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Analytics computed"),
+            @ApiResponse(responseCode = "400", description = "Unknown dimension or invalid range")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/spend")
+    public ResponseEntity<ResponseStructure<AnalyticsResultDto>> spend(
+            @Parameter(description = "cardType, transactionType, hour, dayOfWeek, amountBucket", example = "cardType,hour")
+            @RequestParam(required = false) String groupBy,
+            @Parameter(description = "First day (yyyy-MM-dd), inclusive", example = "2025-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (yyyy-MM-dd), inclusive", example = "2025-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "DEBIT or CREDIT", example = "DEBIT")
+            @RequestParam(required = false) String type,
+            @Parameter(description = "Card type", example = "VISA")
+            @RequestParam(required = false) String cardType,
+            @Parameter(description = "Smallest amount, inclusive", example = "0")
+            @RequestParam(required = false) Double minAmount,
+            @Parameter(description = "Largest amount, inclusive", example = "10000")
+            @RequestParam(required = false) Double maxAmount,
+            @Parameter(description = "Width of an amount bucket", example = "100")
+            @RequestParam(defaultValue = "100") double bucketWidth) {
+
+        List<String> dimensions = groupBy == null ? List.of() : Arrays.stream(groupBy.split(","))
+                .map(String::trim)
+                .filter(dimension -> !dimension.isEmpty())
+                .toList();
+        TransactionAnalyticsStore.Query query = new TransactionAnalyticsStore.Query(dimensions,
+                from != null ? from.atStartOfDay() : null, to != null ? to.plusDays(1).atStartOfDay() : null,
+                type, cardType, minAmount, maxAmount, bucketWidth);
+        AnalyticsResultDto result = transactionAnalyticsStore.query(query);
+        LOGGER.info("Analytics query {} matched {} of {} rows in {} ms", query, result.getRowsMatched(),
+                result.getRowsScanned(), result.getTookMillis());
+
+        ResponseStructure<AnalyticsResultDto> structure = new ResponseStructure<>();
+        structure.setMessage(result.isComplete() ? "Analytics computed" : "Analytics computed while the store is still loading");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(result);
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 📈 API: Analytics store status
+     *
+     * Endpoint: GET /api/analytics/status
+     * Description: Rows and memory held by the column store and when it was last loaded.
+     */
+
+    // 📈 ANALYTICS STATUS
+    @Operation(
+            summary = "Analytics store status",
+            description = "Returns rows, segments, memory use and load state of the in-memory column store."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status fetched successfully")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/status")
+    public ResponseEntity<ResponseStructure<AnalyticsStatusDto>> status() {
+        ResponseStructure<AnalyticsStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage("Analytics status fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(transactionAnalyticsStore.getStatus());
+        return ResponseEntity.ok(structure);
+    }
+
+    /**
+     * 📈 API: Reload the analytics store
+     *
+     * Endpoint: POST /api/analytics/reload
+     * Description: Rebuilds the column store from the database in the background; queries keep using
+     *              the current one until the new one is complete.
+     * Response: Current status; 409 if a load is already running.
+     */
+
+    // 📈 RELOAD ANALYTICS
+    @Operation(
+            summary = "Reload the analytics store",
+            description = "Reloads the transactions of the analytics window into a new column store and swaps it in."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Reload started"),
+            @ApiResponse(responseCode = "409", description = "Load already running")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reload")
+    public ResponseEntity<ResponseStructure<AnalyticsStatusDto>> reload() {
+        LOGGER.info("Reloading analytics store");
+        boolean started = transactionAnalyticsStore.reload();
+
+        ResponseStructure<AnalyticsStatusDto> structure = new ResponseStructure<>();
+        structure.setMessage(started ? "Analytics reload started" : "Analytics store is already loading");
+        structure.setHttpstatus(started ? "SUCCESS" : "FAILED");
+        structure.setData(transactionAnalyticsStore.getStatus());
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(structure);
+    }
+}
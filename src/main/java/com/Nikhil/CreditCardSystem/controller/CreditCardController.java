@@ -1,8 +1,23 @@
 package com.Nikhil.CreditCardSystem.controller;
 
 
+import com.Nikhil.CreditCardSystem.dto.AuthorizeRequest;
+import com.Nikhil.CreditCardSystem.dto.BalanceAsOfDto;
+import com.Nikhil.CreditCardSystem.dto.BatchGetRequest;
+import com.Nikhil.CreditCardSystem.dto.BatchGetResultDto;
+import com.Nikhil.CreditCardSystem.dto.BatchTransactionRequest;
+import com.Nikhil.CreditCardSystem.dto.BatchTransactionResultDto;
 import com.Nikhil.CreditCardSystem.dto.CreditCardDto;
+import com.Nikhil.CreditCardSystem.dto.DailyBalanceDto;
+import com.Nikhil.CreditCardSystem.dto.HoldDto;
+import com.Nikhil.CreditCardSystem.dto.TransferRequest;
+import com.Nikhil.CreditCardSystem.dto.TransferResultDto;
+import com.Nikhil.CreditCardSystem.service.AuthorizationHoldService;
+import com.Nikhil.CreditCardSystem.service.CardBalanceService;
+import com.Nikhil.CreditCardSystem.service.CardBatchTransactionService;
+import com.Nikhil.CreditCardSystem.service.CardTransferService;
 import com.Nikhil.CreditCardSystem.service.CreditCardService;
+import com.Nikhil.CreditCardSystem.service.IdempotencyService;
 import com.Nikhil.CreditCardSystem.util.ResponseStructure;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,10 +26,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 
 
@@ -25,6 +47,21 @@ public class CreditCardController {
     @Autowired
     private CreditCardService cardService;
 
+    @Autowired
+    private CardBatchTransactionService cardBatchTransactionService;
+
+    @Autowired
+    private CardTransferService cardTransferService;
+
+    @Autowired
+    private AuthorizationHoldService authorizationHoldService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CardBalanceService cardBalanceService;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(CreditCardController.class);
 
 
@@ -90,6 +127,110 @@ public class CreditCardController {
     }
 
 
+    /**
+     * 🔍 API: Balance of a card at a point in time
+     *
+     * Endpoint: GET /api/creditcards/{cardId}/balance?asOf=2025-03-31T18:00:00
+     * Description: Balance after every transaction before asOf, replayed from the nearest end-of-day
+     *              snapshot instead of the whole history.
+     * Path Variable: cardId (Long)
+     * Response: BalanceAsOfDto with the balance and the anchor it was derived from.
+     */
+
+    // 🔍 GET BALANCE AS OF
+    @Operation(
+            summary = "Get balance as of a point in time",
+            description = "Returns the balance of the card at the given moment, computed from the nearest balance snapshot."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Balance computed successfully"),
+            @ApiResponse(responseCode = "400", description = "asOf in the future or before the card was issued"),
+            @ApiResponse(responseCode = "404", description = "Credit card not found")
+    })
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/{cardId}/balance")
+    public ResponseEntity<ResponseStructure<BalanceAsOfDto>> getBalanceAsOf(
+            @Parameter(description = "Unique ID of the credit card") @PathVariable Long cardId,
+            @Parameter(description = "Point in time (yyyy-MM-ddTHH:mm:ss)", example = "2025-03-31T18:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+
+        LOGGER.info("Fetching balance of card {} as of {}", cardId, asOf);
+        ResponseStructure<BalanceAsOfDto> structure = new ResponseStructure<>();
+        structure.setMessage("Balance fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(cardBalanceService.balanceAt(cardId, asOf));
+        return ResponseEntity.ok(structure);
+    }
+
+
+    /**
+     * 🔍 API: Daily balances of a card
+     *
+     * Endpoint: GET /api/creditcards/{cardId}/balances/daily?from=2025-01-01&to=2025-03-31
+     * Description: End-of-day balance, net change and transaction count for every day of the range
+     *              (at most balances.series-max-days days).
+     * Path Variable: cardId (Long)
+     * Response: One DailyBalanceDto per day, oldest first.
+     */
+
+    // 🔍 GET DAILY BALANCES
+    @Operation(
+            summary = "Get daily balances",
+            description = "Returns the end-of-day balance time series of the card between two days (inclusive)."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Daily balances fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid or too long range"),
+            @ApiResponse(responseCode = "404", description = "Credit card not found")
+    })
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/{cardId}/balances/daily")
+    public ResponseEntity<ResponseStructure<List<DailyBalanceDto>>> getDailyBalances(
+            @Parameter(description = "Unique ID of the credit card") @PathVariable Long cardId,
+            @Parameter(description = "First day (yyyy-MM-dd), inclusive", example = "2025-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (yyyy-MM-dd), inclusive", example = "2025-03-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        LOGGER.info("Fetching daily balances of card {} from {} to {}", cardId, from, to);
+        ResponseStructure<List<DailyBalanceDto>> structure = new ResponseStructure<>();
+        structure.setMessage("Daily balances fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(cardBalanceService.dailyBalances(cardId, from, to));
+        return ResponseEntity.ok(structure);
+    }
+
+
+    /**
+     * 📦 API: Get many credit cards by ID
+     *
+     * Endpoint: POST /api/creditcards/batch-get
+     * Description: Resolves up to batch-get.max-ids credit cards in one call with a single IN query.
+     * Request Body: { "ids": [1, 2, 3] }
+     * Response: Cards found, plus a per-ID error for IDs that are invalid or not found.
+     */
+
+    // 📦 BATCH GET CREDIT CARDS
+    @Operation(
+            summary = "Get many credit cards by ID",
+            description = "Fetches up to batch-get.max-ids credit cards in one request; returns partial results with per-ID errors."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Credit cards fetched (possibly partially)"),
+            @ApiResponse(responseCode = "400", description = "No IDs or too many IDs"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @PostMapping("/batch-get")
+    public ResponseEntity<ResponseStructure<BatchGetResultDto<CreditCardDto>>> batchGetCreditCards(
+            Principal principal,
+            @RequestBody BatchGetRequest request) {
+
+        LOGGER.info("Batch fetching credit cards: {}", request.getIds());
+        return cardService.getCardsByIds(request.getIds(), principal);
+    }
+
+
     /**
      * 📋 API: Get all credit cards for a specific customer
      *
@@ -119,6 +260,40 @@ public class CreditCardController {
     }
 
 
+    /**
+     * 📋 API: Get selected fields of all credit cards for a customer
+     *
+     * Endpoint: GET /api/creditcards/customer/{customerId}?fields=id,cardHolderName,totalBalance
+     * Description: Same as above but returns only the requested fields. The encrypted card
+     *              number is only read and decrypted when "cardNumber" is requested.
+     * Path Variable: customerId (Long)
+     * Request Parameter: fields (comma separated)
+     * Response: Returns a list of field maps.
+     */
+
+    // 📋 GET ALL CARDS FOR A CUSTOMER (SPARSE FIELDS)
+    @Operation(
+            summary = "Get selected fields of all credit cards for a customer",
+            description = "Returns only the requested card fields; the card number is decrypted only when requested."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Credit cards fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+            @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping(value = "/customer/{customerId}", params = "fields")
+    public ResponseEntity<ResponseStructure<List<Map<String, Object>>>> getCreditCardFieldsByCustomer(
+            @Parameter(description = "Customer ID for which to retrieve credit cards") @PathVariable Long customerId,
+            @Parameter(description = "Comma separated fields: id, cardNumber, cardHolderName, cardType, active, totalBalance, issueDate, expiryDate")
+            @RequestParam String fields) {
+
+        LOGGER.info("Fetching credit cards for customerId: {} with fields: {}", customerId, fields);
+        return cardService.getCardsByCustomer(customerId, fields);
+    }
+
+
     /**
      * ✏️ API: Update credit card details (whole card, not just balance)
      *
@@ -189,6 +364,7 @@ public class CreditCardController {
      *      - customerId (Long)
      *      - cardNumber (String)
      *      - amount (double)
+     * Header: Idempotency-Key (optional) - a repeat with the same key returns the original response
      * Response: Returns updated CreditCardDto with new balance.
      */
 
@@ -201,17 +377,22 @@ public class CreditCardController {
             @ApiResponse(responseCode = "200", description = "Amount debited successfully"),
             @ApiResponse(responseCode = "400", description = "Insufficient balance or invalid amount"),
             @ApiResponse(responseCode = "404", description = "Credit card not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PreAuthorize("hasRole('USER')")
     @PostMapping("/debit")
     public ResponseEntity<ResponseStructure<CreditCardDto>> debitCreditCard(
+            Principal principal,
+            @Parameter(description = "Client-generated key; retries with the same key are not applied twice")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Parameter(description = "ID of the customer performing the transaction") @RequestParam Long customerId,
             @Parameter(description = "Credit card number from which to debit the amount") @RequestParam String cardNumber,
             @Parameter(description = "Amount to be debited") @RequestParam double amount) {
 
         LOGGER.info("Debiting ₹{} from cardNumber: {}, for customerId: {}", amount, cardNumber, customerId);
-        return cardService.debitCard(customerId, cardNumber, amount);
+        return idempotencyService.execute("debit", idempotencyKey, principal, List.of(customerId, cardNumber, amount),
+                () -> cardService.debitCard(customerId, cardNumber, amount));
     }
 
 
@@ -224,6 +405,7 @@ public class CreditCardController {
      *      - customerId (Long)
      *      - cardNumber (String)
      *      - amount (double)
+     * Header: Idempotency-Key (optional) - a repeat with the same key returns the original response
      * Response: Returns updated CreditCardDto with new balance.
      */
 
@@ -236,16 +418,204 @@ public class CreditCardController {
             @ApiResponse(responseCode = "200", description = "Amount credited successfully"),
             @ApiResponse(responseCode = "404", description = "Credit card not found"),
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PreAuthorize("hasRole('USER')")
     @PostMapping("/credit")
     public ResponseEntity<ResponseStructure<CreditCardDto>> creditCreditCard(
+            Principal principal,
+            @Parameter(description = "Client-generated key; retries with the same key are not applied twice")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Parameter(description = "ID of the customer performing the transaction") @RequestParam Long customerId,
             @Parameter(description = "Credit card number to which the amount will be credited") @RequestParam String cardNumber,
             @Parameter(description = "Amount to be credited") @RequestParam double amount) {
 
         LOGGER.info("Crediting ₹{} to cardNumber: {}, for customerId: {}", amount, cardNumber, customerId);
-        return cardService.creditCard(customerId, cardNumber, amount);
+        return idempotencyService.execute("credit", idempotencyKey, principal, List.of(customerId, cardNumber, amount),
+                () -> cardService.creditCard(customerId, cardNumber, amount));
+    }
+
+
+    /**
+     * 🔁 API: Transfer an amount between two cards of a customer
+     *
+     * Endpoint: POST /api/creditcards/transfer
+     * Description: Debits one card and credits the other in a single DB transaction, so the money is
+     *              never lost or created if one side fails. Both cards are locked in card id order.
+     * Request Body: { "customerId": 1, "fromCardNumber": "...", "toCardNumber": "...", "amount": 100 }
+     * Header: Idempotency-Key (optional) - a repeat with the same key returns the original response
+     * Response: Both card ids with their balances after the transfer.
+     */
+
+    // 🔁 TRANSFER BETWEEN CARDS
+    @Operation(
+            summary = "Transfer an amount between two cards",
+            description = "Atomically debits the source card and credits the target card of the same customer."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Amount transferred successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid input, insufficient balance or limit exceeded"),
+            @ApiResponse(responseCode = "404", description = "Credit card not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/transfer")
+    public ResponseEntity<ResponseStructure<TransferResultDto>> transfer(
+            Principal principal,
+            @Parameter(description = "Client-generated key; retries with the same key are not applied twice")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody TransferRequest request) {
+
+        LOGGER.info("Transferring ₹{} from cardNumber: {} to cardNumber: {}, for customerId: {}",
+                request.getAmount(), request.getFromCardNumber(), request.getToCardNumber(), request.getCustomerId());
+        return idempotencyService.execute("transfer", idempotencyKey, principal, request,
+                () -> cardTransferService.transfer(request, principal));
+    }
+
+
+    /**
+     * 🔒 API: Authorize (hold) an amount on a credit card
+     *
+     * Endpoint: POST /api/creditcards/holds
+     * Description: Reserves an amount on the card without debiting it. The hold lowers the available
+     *              balance until it is captured, voided or expires (expiresInMinutes, default holds.default-expiry-minutes).
+     * Request Body: { "customerId": 1, "cardNumber": "...", "amount": 100, "expiresInMinutes": 60 }
+     * Header: Idempotency-Key (optional) - a repeat with the same key returns the original response
+     * Response: The hold with its id, expiry and the card's available balance.
+     */
+
+    // 🔒 AUTHORIZE HOLD
+    @Operation(
+            summary = "Authorize (hold) an amount on a credit card",
+            description = "Reserves funds on the card; no transaction is recorded until the hold is captured."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Amount held"),
+            @ApiResponse(responseCode = "400", description = "Invalid input, insufficient available balance or limit exceeded"),
+            @ApiResponse(responseCode = "404", description = "Credit card not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/holds")
+    public ResponseEntity<ResponseStructure<HoldDto>> authorizeHold(
+            Principal principal,
+            @Parameter(description = "Client-generated key; retries with the same key are not applied twice")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody AuthorizeRequest request) {
+
+        LOGGER.info("Authorizing hold of ₹{} on cardNumber: {}, for customerId: {}",
+                request.getAmount(), request.getCardNumber(), request.getCustomerId());
+        return idempotencyService.execute("holds", idempotencyKey, principal, request,
+                () -> authorizationHoldService.authorize(request, principal));
+    }
+
+
+    /**
+     * ✅ API: Capture an authorization hold
+     *
+     * Endpoint: POST /api/creditcards/holds/{holdId}/capture?amount={amount}
+     * Description: Debits the held amount (or a smaller amount, releasing the rest) and records the transaction.
+     * Path Variable: holdId (Long)
+     * Request Parameter: amount (optional, defaults to the full held amount)
+     * Header: Idempotency-Key (optional) - a repeat with the same key returns the original response
+     * Response: The captured hold and the card's available balance.
+     */
+
+    // ✅ CAPTURE HOLD
+    @Operation(
+            summary = "Capture an authorization hold",
+            description = "Turns an active hold into a debit of up to the held amount."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Hold captured"),
+            @ApiResponse(responseCode = "400", description = "Hold not active, expired or amount above the held amount"),
+            @ApiResponse(responseCode = "404", description = "Hold not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<ResponseStructure<HoldDto>> captureHold(
+            Principal principal,
+            @Parameter(description = "Client-generated key; retries with the same key are not applied twice")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Parameter(description = "ID of the hold to capture") @PathVariable Long holdId,
+            @Parameter(description = "Amount to capture, at most the held amount") @RequestParam(required = false) Double amount) {
+
+        LOGGER.info("Capturing hold ID: {}, amount: {}", holdId, amount);
+        return idempotencyService.execute("holds/capture", idempotencyKey, principal, Arrays.asList(holdId, amount),
+                () -> authorizationHoldService.capture(holdId, amount, principal));
+    }
+
+
+    /**
+     * ↩️ API: Void an authorization hold
+     *
+     * Endpoint: POST /api/creditcards/holds/{holdId}/void
+     * Description: Releases an active hold; the held amount becomes available again.
+     * Path Variable: holdId (Long)
+     * Response: The voided hold and the card's available balance.
+     */
+
+    // ↩️ VOID HOLD
+    @Operation(
+            summary = "Void an authorization hold",
+            description = "Releases the funds reserved by an active hold."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Hold released"),
+            @ApiResponse(responseCode = "400", description = "Hold is not active"),
+            @ApiResponse(responseCode = "404", description = "Hold not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/holds/{holdId}/void")
+    public ResponseEntity<ResponseStructure<HoldDto>> voidHold(
+            Principal principal,
+            @Parameter(description = "ID of the hold to void") @PathVariable Long holdId) {
+
+        LOGGER.info("Voiding hold ID: {}", holdId);
+        return authorizationHoldService.voidHold(holdId, principal);
+    }
+
+
+    /**
+     * 📦 API: Apply a batch of debits and credits
+     *
+     * Endpoint: POST /api/creditcards/transactions/batch
+     * Description: Applies up to batch-transactions.max-operations debit/credit operations in one call.
+     *              Operations are grouped per card and checked against the card limits in request order;
+     *              each chunk of cards is one DB transaction with the transaction rows JDBC-batched.
+     * Request Body: { "operations": [ { "customerId": 1, "cardNumber": "...", "type": "DEBIT", "amount": 100 } ] }
+     * Header: Idempotency-Key (optional) - a repeat with the same key returns the original response
+     * Response: Per-operation result (status, message, balance after the operation) in request order.
+     */
+
+    // 📦 BATCH DEBIT / CREDIT
+    @Operation(
+            summary = "Apply a batch of debits and credits",
+            description = "Applies many debit/credit operations in one request and returns a result per operation."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed (individual operations may have failed)"),
+            @ApiResponse(responseCode = "400", description = "No operations or too many operations"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/transactions/batch")
+    public ResponseEntity<ResponseStructure<BatchTransactionResultDto>> batchTransactions(
+            Principal principal,
+            @Parameter(description = "Client-generated key; retries with the same key are not applied twice")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody BatchTransactionRequest request) {
+
+        LOGGER.info("Processing batch of {} card operations",
+                request.getOperations() == null ? 0 : request.getOperations().size());
+        return idempotencyService.execute("transactions/batch", idempotencyKey, principal, request,
+                () -> cardBatchTransactionService.process(request.getOperations(), principal));
     }
 }
@@ -1,8 +1,11 @@
 package com.Nikhil.CreditCardSystem.controller;
 
 import com.Nikhil.CreditCardSystem.Entity.Customer;
+import com.Nikhil.CreditCardSystem.dto.BatchGetRequest;
+import com.Nikhil.CreditCardSystem.dto.BatchGetResultDto;
 import com.Nikhil.CreditCardSystem.dto.CreditCardDto;
 import com.Nikhil.CreditCardSystem.dto.CustomerDto;
+import com.Nikhil.CreditCardSystem.dto.CustomerOverviewDto;
 import com.Nikhil.CreditCardSystem.model.CustomerModel;
 import com.Nikhil.CreditCardSystem.service.CustomerService;
 import com.Nikhil.CreditCardSystem.util.ResponseStructure;
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 import java.security.Principal;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -53,6 +57,35 @@ public class CustomerController {
     }
 
 
+    /**
+     * 📋 API: Fetch all customers, selected fields only
+     *
+     * Endpoint: GET /api/customers/all?fields=id,name
+     * Description: Same as /all but returns only the requested fields. Encrypted fields
+     *              (username, email, phoneNumber) are only read and decrypted when requested.
+     * Request Parameter: fields (comma separated: id, username, name, phoneNumber, email, role)
+     * Response: Returns a list of field maps.
+     */
+
+    // 📋 FETCH ALL CUSTOMERS (SPARSE FIELDS)
+    @Operation(
+            summary = "Fetch all customers with selected fields",
+            description = "Returns only the requested fields for every customer; unrequested encrypted fields are never decrypted."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Customers fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/all", params = "fields")
+    public ResponseEntity<ResponseStructure<List<Map<String, Object>>>> fetchAllCustomerFields(
+            Principal principal,
+            @Parameter(description = "Comma separated fields: id, username, name, phoneNumber, email, role") @RequestParam String fields) {
+        LOGGER.info("Fetching all customers with fields: {}", fields);
+        return customerService.getAllCustomers(principal, fields);
+    }
+
+
     /**
      * 🔍 API: Get customer by ID
      *
@@ -80,6 +113,67 @@ public class CustomerController {
         return customerService.getCustomerById(id);
     }
 
+    /**
+     * 🧾 API: Customer overview
+     *
+     * Endpoint: GET /api/customers/{id}/overview?recent=10&days=30
+     * Description: Profile, cards, the most recent transactions and per-card debit/credit totals
+     *              for the last {days} days in one response. The four reads run in parallel under
+     *              a shared deadline (overview.timeout-ms); if one fails the others are cancelled.
+     * Path Variable: id (Long)
+     * Response: Returns CustomerOverviewDto.
+     */
+
+    // 🧾 CUSTOMER OVERVIEW
+    @Operation(
+            summary = "Customer overview",
+            description = "Returns profile, cards, recent transactions and per-card period totals in a single response."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Overview fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid recent/days parameters"),
+            @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "504", description = "Overview could not be assembled within the deadline")
+    })
+    @GetMapping("/{id}/overview")
+    public ResponseEntity<ResponseStructure<CustomerOverviewDto>> fetchCustomerOverview(
+            @Parameter(description = "Unique ID of the customer") @PathVariable Long id,
+            @Parameter(description = "Number of most recent transactions to include") @RequestParam(defaultValue = "10") int recent,
+            @Parameter(description = "Length in days of the period the card totals cover") @RequestParam(defaultValue = "30") int days) {
+
+        LOGGER.info("Fetching overview for customer ID: {}", id);
+        return customerService.getCustomerOverview(id, recent, days);
+    }
+
+    /**
+     * 📦 API: Get many customers by ID
+     *
+     * Endpoint: POST /api/customers/batch-get
+     * Description: Resolves up to batch-get.max-ids customers (with their cards) in one call,
+     *              using one IN query for customers and one for their cards.
+     * Request Body: { "ids": [1, 2, 3] }
+     * Response: Customers found, plus a per-ID error for IDs that are invalid or not found.
+     */
+
+    // 📦 BATCH GET CUSTOMERS
+    @Operation(
+            summary = "Get many customers by ID",
+            description = "Fetches up to batch-get.max-ids customers in one request; returns partial results with per-ID errors."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Customers fetched (possibly partially)"),
+            @ApiResponse(responseCode = "400", description = "No IDs or too many IDs"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/batch-get")
+    public ResponseEntity<ResponseStructure<BatchGetResultDto<CustomerDto>>> batchGetCustomers(
+            Principal principal,
+            @RequestBody BatchGetRequest request) {
+
+        LOGGER.info("Batch fetching customers: {}", request.getIds());
+        return customerService.getCustomersByIds(request.getIds(), principal);
+    }
+
     /**
      * ✏️ API: Update customer details
      *
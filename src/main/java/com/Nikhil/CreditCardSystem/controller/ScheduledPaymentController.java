@@ -0,0 +1,146 @@
+package com.Nikhil.CreditCardSystem.controller;
+
+import com.Nikhil.CreditCardSystem.dto.ScheduledPaymentDto;
+import com.Nikhil.CreditCardSystem.dto.ScheduledPaymentRequest;
+import com.Nikhil.CreditCardSystem.dto.ScheduledPaymentRunDto;
+import com.Nikhil.CreditCardSystem.service.ScheduledPaymentService;
+import com.Nikhil.CreditCardSystem.util.ResponseStructure;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/creditcards/scheduled-payments")
+public class ScheduledPaymentController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScheduledPaymentController.class);
+
+    @Autowired
+    private ScheduledPaymentService scheduledPaymentService;
+
+    /**
+     * 🗓️ API: Schedule a one-off or recurring payment
+     *
+     * Endpoint: POST /api/creditcards/scheduled-payments
+     * Description: Schedules a debit or credit on a card, once or DAILY / WEEKLY / MONTHLY from startAt
+     *              until endAt (optional). Due payments are executed by the scheduler with the normal limit checks.
+     * Request Body: { "customerId": 1, "cardNumber": "...", "type": "DEBIT", "amount": 100,
+     *                 "frequency": "MONTHLY", "startAt": "2026-11-01T09:00:00", "endAt": null }
+     * Response: The scheduled payment with its next run time.
+     */
+
+    // 🗓️ CREATE SCHEDULED PAYMENT
+    @Operation(
+            summary = "Schedule a one-off or recurring payment",
+            description = "Schedules a debit or credit on a card, executed by the payment scheduler when due."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Payment scheduled"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "404", description = "Credit card not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping
+    public ResponseEntity<ResponseStructure<ScheduledPaymentDto>> createScheduledPayment(
+            Principal principal,
+            @RequestBody ScheduledPaymentRequest request) {
+
+        LOGGER.info("Scheduling {} {} of ₹{} on cardNumber: {}, for customerId: {}",
+                request.getFrequency(), request.getType(), request.getAmount(), request.getCardNumber(), request.getCustomerId());
+        return scheduledPaymentService.create(request, principal);
+    }
+
+    /**
+     * 📋 API: Get all scheduled payments of a customer
+     *
+     * Endpoint: GET /api/creditcards/scheduled-payments/customer/{customerId}
+     * Path Variable: customerId (Long)
+     * Response: List of ScheduledPaymentDto.
+     */
+
+    // 📋 GET SCHEDULED PAYMENTS FOR A CUSTOMER
+    @Operation(
+            summary = "Get all scheduled payments of a customer",
+            description = "Lists active, completed and cancelled scheduled payments across the customer's cards."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Scheduled payments fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid customer ID"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/customer/{customerId}")
+    public ResponseEntity<ResponseStructure<List<ScheduledPaymentDto>>> getScheduledPaymentsByCustomer(
+            @Parameter(description = "Customer ID") @PathVariable Long customerId) {
+
+        LOGGER.info("Fetching scheduled payments for customerId: {}", customerId);
+        return scheduledPaymentService.getByCustomer(customerId);
+    }
+
+    /**
+     * 🧾 API: Get the execution outcomes of a scheduled payment
+     *
+     * Endpoint: GET /api/creditcards/scheduled-payments/{paymentId}/runs
+     * Path Variable: paymentId (Long)
+     * Response: Latest runs (newest first) with status SUCCESS / FAILED / PENDING and a message.
+     */
+
+    // 🧾 GET SCHEDULED PAYMENT RUNS
+    @Operation(
+            summary = "Get the execution outcomes of a scheduled payment",
+            description = "Returns the latest executions of a scheduled payment, newest first."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Runs fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Scheduled payment not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/{paymentId}/runs")
+    public ResponseEntity<ResponseStructure<List<ScheduledPaymentRunDto>>> getScheduledPaymentRuns(
+            @Parameter(description = "ID of the scheduled payment") @PathVariable Long paymentId) {
+
+        LOGGER.info("Fetching runs of scheduled payment ID: {}", paymentId);
+        return scheduledPaymentService.getRuns(paymentId);
+    }
+
+    /**
+     * ❌ API: Cancel a scheduled payment
+     *
+     * Endpoint: DELETE /api/creditcards/scheduled-payments/{paymentId}
+     * Path Variable: paymentId (Long)
+     * Response: The cancelled scheduled payment.
+     */
+
+    // ❌ CANCEL SCHEDULED PAYMENT
+    @Operation(
+            summary = "Cancel a scheduled payment",
+            description = "Stops all future occurrences of a scheduled payment."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Scheduled payment cancelled"),
+            @ApiResponse(responseCode = "400", description = "Scheduled payment is not active"),
+            @ApiResponse(responseCode = "404", description = "Scheduled payment not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @DeleteMapping("/{paymentId}")
+    public ResponseEntity<ResponseStructure<ScheduledPaymentDto>> cancelScheduledPayment(
+            Principal principal,
+            @Parameter(description = "ID of the scheduled payment to cancel") @PathVariable Long paymentId) {
+
+        LOGGER.info("Cancelling scheduled payment ID: {}", paymentId);
+        return scheduledPaymentService.cancel(paymentId, principal);
+    }
+}
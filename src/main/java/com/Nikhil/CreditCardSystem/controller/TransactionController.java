@@ -4,10 +4,14 @@ package com.Nikhil.CreditCardSystem.controller;
 import com.Nikhil.CreditCardSystem.Entity.CreditCard;
 import com.Nikhil.CreditCardSystem.Entity.Customer;
 import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.dto.CardRollupDto;
 import com.Nikhil.CreditCardSystem.dto.TransactionDto;
 import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
 import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
 import com.Nikhil.CreditCardSystem.repo.CustomerRepository;
+import com.Nikhil.CreditCardSystem.service.RequestCoalescingService;
+import com.Nikhil.CreditCardSystem.service.TransactionExportService;
+import com.Nikhil.CreditCardSystem.service.TransactionRollupService;
 import com.Nikhil.CreditCardSystem.service.TransactionService;
 import com.Nikhil.CreditCardSystem.service.UserActionLogService;
 import com.Nikhil.CreditCardSystem.util.ResponseStructure;
@@ -18,15 +22,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 
@@ -42,6 +56,22 @@ public class TransactionController {
     private final CreditCardRepository creditCardRepository;
     private final TransactionService transactionService;
 
+    @Autowired
+    private RequestCoalescingService requestCoalescingService;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Value("${coalescing.transactions-by-user.timeout-ms:5000}")
+    private long transactionsByUserTimeoutMs;
+
+    // Result shared between coalesced callers of getAllTransactionsByUser
+    private record UserTransactions(String customerName, List<TransactionDto> transactions) {
+    }
+
     public TransactionController(CustomerRepository customerRepository,
                                  CreditCardRepository creditCardRepository,
                                  TransactionService transactionService) {
@@ -79,12 +109,18 @@ public class TransactionController {
 
         ResponseStructure<List<TransactionDto>> response = new ResponseStructure<>();
         try {
-            Customer customer = customerRepository.findById(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-            List<TransactionDto> transactionDtos = customer.getCreditCards().stream()
-                    .flatMap(card -> card.getTransactions().stream())
-                    .map(transactionService::toDto)
-                    .collect(Collectors.toList());
+            // ✅ Concurrent requests for the same user share one load of cards and transactions
+            UserTransactions loaded = requestCoalescingService.execute(
+                    "transactions-by-user", userId, Duration.ofMillis(transactionsByUserTimeoutMs),
+                    () -> {
+                        Customer customer = customerRepository.findById(userId)
+                                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+                        return new UserTransactions(customer.getName(), customer.getCreditCards().stream()
+                                .flatMap(card -> card.getTransactions().stream())
+                                .map(transactionService::toDto)
+                                .collect(Collectors.toList()));
+                    });
+            List<TransactionDto> transactionDtos = loaded.transactions();
 
             String message = transactionDtos.isEmpty()
                     ? "No transactions found for user ID: " + userId
@@ -95,7 +131,7 @@ public class TransactionController {
             response.setData(transactionDtos);
 
             // Use username from fetched customer entity
-            userActionLogService.logAction(customer.getName(), "Fetch all transactions for userId " + userId, "SUCCESS");
+            userActionLogService.logAction(loaded.customerName(), "Fetch all transactions for userId " + userId, "SUCCESS");
 
         } catch (Exception e) {
             // Attempt to log failed action with userId as fallback
@@ -109,6 +145,121 @@ public class TransactionController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 📄 API: Get selected fields of all transactions for a user
+     *
+     * Endpoint: GET /api/transactions/user/{userId}?fields=id,amount,transactionType
+     * Description: Same as above but returns only the requested fields. The card is only joined
+     *              and its number decrypted when "cardNumber" is requested.
+     * Path Variable:
+     *      - userId (Long): ID of the user
+     * Request Parameter:
+     *      - fields (String): comma separated field names
+     * Response: List of field maps.
+     */
+
+    // ✅ 1️⃣ Get selected fields of all transactions for a user
+    @Operation(
+            summary = "Get selected fields of all transactions for a user",
+            description = "Returns only the requested transaction fields across all of the user's credit cards."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transactions fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping(value = "/user/{userId}", params = "fields")
+    public ResponseEntity<ResponseStructure<List<Map<String, Object>>>> getTransactionFieldsByUser(
+            @Parameter(description = "User ID for which to fetch transactions", example = "1")
+            @PathVariable Long userId,
+            @Parameter(description = "Comma separated fields: id, amount, transactionType, cardType, description, timestamp, cardNumber")
+            @RequestParam String fields) {
+
+        LOGGER.info("Fetching transactions for user ID: {} with fields: {}", userId, fields);
+
+        ResponseStructure<List<Map<String, Object>>> response = new ResponseStructure<>();
+        try {
+            String customerName = customerRepository.findNameById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            List<Map<String, Object>> rows = transactionService.findFieldsByUser(userId, fields);
+
+            response.setMessage(rows.isEmpty()
+                    ? "No transactions found for user ID: " + userId
+                    : "Found " + rows.size() + " transactions for user ID: " + userId);
+            response.setHttpstatus("SUCCESS");
+            response.setData(rows);
+
+            userActionLogService.logAction(customerName, "Fetch all transactions for userId " + userId + " (fields=" + fields + ")", "SUCCESS");
+
+        } catch (Exception e) {
+            String username = customerRepository.findNameById(userId).orElse("Unknown");
+            userActionLogService.logAction(username, "Fetch all transactions for userId " + userId + " (fields=" + fields + ")", "FAILED");
+            throw e;
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 📄 API: Get transactions of a user in a date range
+     *
+     * Endpoint: GET /api/transactions/user/{userId}?from=2023-01-01&to=2025-01-31
+     * Description: Transactions across all of the user's cards between two days (inclusive), newest
+     *              first. Ranges reaching into archived months are read from the cold store too.
+     * Path Variable:
+     *      - userId (Long): ID of the user
+     * Request Parameters:
+     *      - from, to (LocalDate): first and last day
+     * Response: List of TransactionDto objects.
+     */
+
+    // ✅ 1️⃣ Get transactions of a user in a date range
+    @Operation(
+            summary = "Get transactions of a user in a date range",
+            description = "Transactions across the user's cards between two days, merged from the database and the archive."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transactions fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "'from' after 'to'"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping(value = "/user/{userId}", params = {"from", "to"})
+    public ResponseEntity<ResponseStructure<List<TransactionDto>>> getTransactionHistoryByUser(
+            @Parameter(description = "User ID for which to fetch transactions", example = "1")
+            @PathVariable Long userId,
+            @Parameter(description = "First day (yyyy-MM-dd), inclusive", example = "2023-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (yyyy-MM-dd), inclusive", example = "2025-01-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        LOGGER.info("Fetching transactions for user ID: {} from {} to {}", userId, from, to);
+        String action = "Fetch transactions for userId " + userId + " from " + from + " to " + to;
+
+        ResponseStructure<List<TransactionDto>> response = new ResponseStructure<>();
+        try {
+            Customer customer = customerRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            List<TransactionDto> transactionDtos = transactionService.findHistory(customer.getCreditCards(), from, to);
+
+            response.setMessage(transactionDtos.isEmpty()
+                    ? "No transactions found for user ID: " + userId
+                    : "Found " + transactionDtos.size() + " transactions for user ID: " + userId);
+            response.setHttpstatus("SUCCESS");
+            response.setData(transactionDtos);
+
+            userActionLogService.logAction(customer.getName(), action, "SUCCESS");
+
+        } catch (Exception e) {
+            String username = customerRepository.findNameById(userId).orElse("Unknown");
+            userActionLogService.logAction(username, action, "FAILED");
+            throw e;
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * 📄 API: Get all transactions for a specific credit card
      *
@@ -165,6 +316,119 @@ public class TransactionController {
     }
 
 
+    /**
+     * 📄 API: Get selected fields of all transactions for a credit card
+     *
+     * Endpoint: GET /api/transactions/card/{cardId}?fields=id,amount,timestamp
+     * Description: Same as above but returns only the requested fields.
+     * Path Variable:
+     *      - cardId (Long): ID of the credit card
+     * Request Parameter:
+     *      - fields (String): comma separated field names
+     * Response: List of field maps.
+     */
+
+    // ✅ 2️⃣ Get selected fields of all transactions for a credit card
+    @Operation(
+            summary = "Get selected fields of all transactions for a credit card",
+            description = "Returns only the requested transaction fields for one credit card."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transactions fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+            @ApiResponse(responseCode = "404", description = "Credit card not found")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping(value = "/card/{cardId}", params = "fields")
+    public ResponseEntity<ResponseStructure<List<Map<String, Object>>>> getTransactionFieldsByCard(
+            @Parameter(description = "Credit card ID to fetch transactions for", example = "101")
+            @PathVariable Long cardId,
+            @Parameter(description = "Comma separated fields: id, amount, transactionType, cardType, description, timestamp, cardNumber")
+            @RequestParam String fields) {
+
+        LOGGER.info("Fetching transactions for card ID: {} with fields: {}", cardId, fields);
+        ResponseStructure<List<Map<String, Object>>> response = new ResponseStructure<>();
+        try {
+            String customerName = creditCardRepository.findCustomerNameById(cardId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
+            List<Map<String, Object>> rows = transactionService.findFieldsByCard(cardId, fields);
+
+            response.setMessage(rows.isEmpty()
+                    ? "No transactions found for card ID: " + cardId
+                    : "Found " + rows.size() + " transactions for card ID: " + cardId);
+            response.setHttpstatus("SUCCESS");
+            response.setData(rows);
+
+            userActionLogService.logAction(customerName, "Fetch transactions for cardId " + cardId + " (fields=" + fields + ")", "SUCCESS");
+
+        } catch (Exception e) {
+            creditCardRepository.findCustomerNameById(cardId).ifPresent(name ->
+                    userActionLogService.logAction(name, "Fetch transactions for cardId " + cardId + " (fields=" + fields + ")", "FAILED"));
+            throw e;
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 📄 API: Get transactions of a credit card in a date range
+     *
+     * Endpoint: GET /api/transactions/card/{cardId}?from=2023-01-01&to=2025-01-31
+     * Description: Transactions of one card between two days (inclusive), newest first. Ranges
+     *              reaching into archived months are read from the cold store too.
+     * Path Variable:
+     *      - cardId (Long): ID of the credit card
+     * Request Parameters:
+     *      - from, to (LocalDate): first and last day
+     * Response: List of TransactionDto objects.
+     */
+
+    // ✅ 2️⃣ Get transactions of a credit card in a date range
+    @Operation(
+            summary = "Get transactions of a credit card in a date range",
+            description = "Transactions of one card between two days, merged from the database and the archive."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transactions fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "'from' after 'to'"),
+            @ApiResponse(responseCode = "404", description = "Credit card not found")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping(value = "/card/{cardId}", params = {"from", "to"})
+    public ResponseEntity<ResponseStructure<List<TransactionDto>>> getTransactionHistoryByCard(
+            @Parameter(description = "Credit card ID to fetch transactions for", example = "101")
+            @PathVariable Long cardId,
+            @Parameter(description = "First day (yyyy-MM-dd), inclusive", example = "2023-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (yyyy-MM-dd), inclusive", example = "2025-01-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        LOGGER.info("Fetching transactions for card ID: {} from {} to {}", cardId, from, to);
+        String action = "Fetch transactions for cardId " + cardId + " from " + from + " to " + to;
+
+        ResponseStructure<List<TransactionDto>> response = new ResponseStructure<>();
+        try {
+            CreditCard card = creditCardRepository.findById(cardId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
+            List<TransactionDto> transactionDtos = transactionService.findHistory(List.of(card), from, to);
+
+            response.setMessage(transactionDtos.isEmpty()
+                    ? "No transactions found for card ID: " + cardId
+                    : "Found " + transactionDtos.size() + " transactions for card ID: " + cardId);
+            response.setHttpstatus("SUCCESS");
+            response.setData(transactionDtos);
+
+            userActionLogService.logAction(card.getCustomer().getName(), action, "SUCCESS");
+
+        } catch (Exception e) {
+            creditCardRepository.findCustomerNameById(cardId).ifPresent(name ->
+                    userActionLogService.logAction(name, action, "FAILED"));
+            throw e;
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * 📄 API: Get all CREDIT transactions for a specific user (across all their credit cards)
      *
@@ -281,4 +545,150 @@ public class TransactionController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 📊 API: Monthly summary of a credit card
+     *
+     * Endpoint: GET /api/transactions/card/{cardId}/summary/monthly?month=2025-01
+     * Description: Transaction count, debit and credit totals and min/max amount of one month,
+     *              read from the card's monthly rollup instead of its transaction history.
+     * Path Variable:
+     *      - cardId (Long): ID of the credit card
+     * Request Parameter:
+     *      - month (YearMonth, optional): defaults to the current month
+     * Response: CardRollupDto (zero totals if the card had no transactions that month).
+     */
+
+    // ✅ 5️⃣ Monthly summary of a credit card
+    @Operation(
+            summary = "Monthly summary of a credit card",
+            description = "Returns count, debit/credit totals and min/max amount of one month from the monthly rollup."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Summary fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Credit card not found")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/card/{cardId}/summary/monthly")
+    public ResponseEntity<ResponseStructure<CardRollupDto>> getMonthlySummary(
+            @Parameter(description = "Credit card ID", example = "101")
+            @PathVariable Long cardId,
+            @Parameter(description = "Month (yyyy-MM), defaults to the current month", example = "2025-01")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+
+        YearMonth period = month != null ? month : YearMonth.now();
+        LOGGER.info("Fetching monthly summary {} for card ID: {}", period, cardId);
+        return summary(cardId, TransactionRollupService.MONTH, period.atDay(1));
+    }
+
+    /**
+     * 📊 API: Daily summary of a credit card
+     *
+     * Endpoint: GET /api/transactions/card/{cardId}/summary/daily?date=2025-01-31
+     * Description: Same as the monthly summary, for a single day.
+     * Path Variable:
+     *      - cardId (Long): ID of the credit card
+     * Request Parameter:
+     *      - date (LocalDate, optional): defaults to today
+     * Response: CardRollupDto.
+     */
+
+    // ✅ 6️⃣ Daily summary of a credit card
+    @Operation(
+            summary = "Daily summary of a credit card",
+            description = "Returns count, debit/credit totals and min/max amount of one day from the daily rollup."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Summary fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Credit card not found")
+    })
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/card/{cardId}/summary/daily")
+    public ResponseEntity<ResponseStructure<CardRollupDto>> getDailySummary(
+            @Parameter(description = "Credit card ID", example = "101")
+            @PathVariable Long cardId,
+            @Parameter(description = "Day (yyyy-MM-dd), defaults to today", example = "2025-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        LocalDate day = date != null ? date : LocalDate.now();
+        LOGGER.info("Fetching daily summary {} for card ID: {}", day, cardId);
+        return summary(cardId, TransactionRollupService.DAY, day);
+    }
+
+    /**
+     * 📤 API: Export transactions
+     *
+     * Endpoint: GET /api/transactions/export?customerId=1&from=2025-01-01&to=2025-01-31&format=csv&gzip=true
+     * Description: Streams every matching transaction straight from the database to the response,
+     *              as NDJSON (one JSON object per line) or CSV, optionally gzip-compressed.
+     *              Nothing is collected in memory, so exports of any size are allowed.
+     * Request Parameters (all optional):
+     *      - customerId, cardId (Long), type (DEBIT/CREDIT), from/to (LocalDate, inclusive)
+     *      - format (ndjson | csv, default ndjson), gzip (boolean, default false)
+     * Response: File download (not wrapped in ResponseStructure).
+     */
+
+    // ✅ 7️⃣ Export transactions
+    @Operation(
+            summary = "Export transactions",
+            description = "Streams filtered transactions as NDJSON or CSV (optionally gzip) from a database cursor, with constant memory per request."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or format")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "Only transactions of this customer's cards", example = "1")
+            @RequestParam(required = false) Long customerId,
+            @Parameter(description = "Only transactions of this card", example = "101")
+            @RequestParam(required = false) Long cardId,
+            @Parameter(description = "DEBIT or CREDIT", example = "DEBIT")
+            @RequestParam(required = false) String type,
+            @Parameter(description = "First day (yyyy-MM-dd), inclusive", example = "2025-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (yyyy-MM-dd), inclusive", example = "2025-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "ndjson or csv", example = "ndjson")
+            @RequestParam(defaultValue = TransactionExportService.NDJSON) String format,
+            @Parameter(description = "Gzip-compress the file", example = "false")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        TransactionExportService.Filter filter = new TransactionExportService.Filter(customerId, cardId, type, from, to);
+        // ✅ Validate before streaming: once the body starts, errors can no longer change the status
+        String exportFormat = transactionExportService.validate(filter, format);
+        LOGGER.info("Exporting transactions as {} (gzip={}) with filter {}", exportFormat, gzip, filter);
+
+        String fileName = "transactions." + exportFormat + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : TransactionExportService.CSV.equals(exportFormat) ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+
+        StreamingResponseBody body = out -> transactionExportService.export(filter, exportFormat, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    private ResponseEntity<ResponseStructure<CardRollupDto>> summary(Long cardId, String period, LocalDate date) {
+        String action = "Fetch " + period + " summary " + date + " for cardId " + cardId;
+        try {
+            String customerName = creditCardRepository.findCustomerNameById(cardId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
+
+            ResponseStructure<CardRollupDto> response = new ResponseStructure<>();
+            response.setMessage("Summary fetched successfully");
+            response.setHttpstatus("SUCCESS");
+            response.setData(transactionRollupService.getSummary(cardId, period, date));
+
+            userActionLogService.logAction(customerName, action, "SUCCESS");
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            creditCardRepository.findCustomerNameById(cardId).ifPresent(name ->
+                    userActionLogService.logAction(name, action, "FAILED"));
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class AnalyticsGroupDto {
+    private Map<String, Object> key;   // group-by dimension -> value; empty without groupBy
+    private long count;
+    private double sum;
+    private double min;
+    private double max;
+    private double avg;
+}
@@ -0,0 +1,17 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class AnalyticsResultDto {
+    private List<String> groupBy;
+    private long rowsScanned;          // rows in segments that could match; others are skipped by their time range
+    private long rowsMatched;
+    private long tookMillis;
+    private boolean complete;          // false while the store is still loading
+    private LocalDateTime loadedAt;
+    private List<AnalyticsGroupDto> groups;
+}
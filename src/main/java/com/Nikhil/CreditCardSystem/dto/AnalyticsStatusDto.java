@@ -0,0 +1,17 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class AnalyticsStatusDto {
+    private boolean loading;
+    private long rows;
+    private int segments;
+    private long memoryBytes;          // column arrays only
+    private long appendedSinceLoad;    // rows added from the write path since the last (re)load
+    private LocalDateTime windowStart; // oldest transaction time loaded
+    private LocalDateTime loadedAt;
+    private String lastError;
+}
@@ -0,0 +1,11 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+@Data
+public class AuthorizeRequest {
+    private Long customerId;
+    private String cardNumber;
+    private double amount;
+    private Integer expiresInMinutes; // optional, defaults to holds.default-expiry-minutes
+}
@@ -0,0 +1,15 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BalanceAsOfDto {
+    private Long cardId;
+    private LocalDateTime asOf;
+    private double balance;              // after every transaction before asOf
+    private String anchor;               // SNAPSHOT or CURRENT: where the replay started
+    private LocalDateTime anchorTime;    // end of the snapshot day, or now
+    private int transactionsApplied;     // transactions between the anchor and asOf
+}
@@ -0,0 +1,14 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class BatchGetResultDto<T> {
+    private List<T> found = new ArrayList<>();            // in request order
+    private Map<String, String> errors = new LinkedHashMap<>(); // id ("null" for a null id) -> reason it could not be returned
+}
@@ -0,0 +1,10 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransactionRequest {
+    private List<CardOperationRequest> operations;
+}
@@ -0,0 +1,12 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransactionResultDto {
+    private int succeeded;
+    private int failed;
+    private List<CardOperationResultDto> results; // one per operation, in request order
+}
@@ -0,0 +1,13 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CardIssuanceRequest {
+    private List<Long> customerIds;  // one card per distinct customer
+    private String cardType;
+    private double balance;          // initial balance of every card
+    private boolean active = true;
+}
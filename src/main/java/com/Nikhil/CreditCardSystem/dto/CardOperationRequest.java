@@ -0,0 +1,11 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+@Data
+public class CardOperationRequest {
+    private Long customerId;
+    private String cardNumber;
+    private String type;   // "DEBIT" or "CREDIT"
+    private double amount;
+}
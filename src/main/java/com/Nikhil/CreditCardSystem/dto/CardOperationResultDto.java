@@ -0,0 +1,11 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+@Data
+public class CardOperationResultDto {
+    private int index;            // position of the operation in the request
+    private String status;        // "SUCCESS" or "FAILED"
+    private String message;
+    private Double balanceAfter;  // card balance right after this operation, null when it failed
+}
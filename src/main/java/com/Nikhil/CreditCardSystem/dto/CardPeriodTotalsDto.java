@@ -0,0 +1,15 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardPeriodTotalsDto {
+    private Long cardId;
+    private Double debitTotal;
+    private Double creditTotal;
+    private Long transactionCount;
+}
@@ -0,0 +1,17 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class CardRollupDto {
+    private Long cardId;
+    private String period;          // DAY / MONTH
+    private LocalDate periodStart;
+    private long transactionCount;
+    private double debitTotal;
+    private double creditTotal;
+    private Double minAmount;       // null when there were no transactions
+    private Double maxAmount;
+}
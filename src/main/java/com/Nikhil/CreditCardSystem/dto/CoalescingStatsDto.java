@@ -0,0 +1,12 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+@Data
+public class CoalescingStatsDto {
+    private long executions;      // loads that actually hit the database
+    private long coalescedCalls;  // calls served from another request's in-flight load
+    private long timeouts;        // followers that gave up waiting and loaded on their own
+    private long failures;
+    private long inFlight;
+}
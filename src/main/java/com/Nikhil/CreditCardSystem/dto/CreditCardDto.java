@@ -6,6 +6,7 @@ import java.time.LocalDate;
 
 @Data
 public class CreditCardDto {
+    private Long id;
     private String cardNumber;
     private double totalBalance;
     private String cardHolderName;
@@ -0,0 +1,14 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class CustomerOverviewDto {
+    private CustomerDto customer;                     // profile with all cards
+    private List<TransactionDto> recentTransactions;  // newest first, across all cards
+    private LocalDateTime periodStart;                // start of the window the totals cover
+    private List<CardPeriodTotalsDto> cardTotals;     // one entry per card, zero when no activity
+}
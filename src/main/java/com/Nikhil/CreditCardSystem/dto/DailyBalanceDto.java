@@ -0,0 +1,13 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class DailyBalanceDto {
+    private LocalDate date;
+    private double balance;              // at the end of the day (today: so far)
+    private double netChange;            // credits minus debits of the day
+    private int transactionCount;
+}
@@ -0,0 +1,19 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class HoldDto {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long holdId;
+    private Long cardId;
+    private double amount;
+    private Double capturedAmount;
+    private String status;            // ACTIVE / CAPTURED / VOIDED / EXPIRED
+    private LocalDateTime expiresAt;
+    private double availableBalance;  // card balance minus all active holds, after this operation
+}
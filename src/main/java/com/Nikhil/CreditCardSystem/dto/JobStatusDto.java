@@ -0,0 +1,18 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class JobStatusDto {
+    private String job;
+    private boolean running;
+    private Long total;        // items the job will process, when known up front
+    private long processed;
+    private long updated;
+    private long skipped;
+    private String lastError;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,15 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class LedgerDiscrepancyDto {
+    private Long cardId;
+    private double expectedBalance;  // opening balance + credits - debits
+    private double actualBalance;    // totalBalance of the card
+    private double difference;       // actual - expected
+    private long transactionCount;
+    private LocalDateTime verifiedAt;
+}
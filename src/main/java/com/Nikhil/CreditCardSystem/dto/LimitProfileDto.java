@@ -0,0 +1,14 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+@Data
+public class LimitProfileDto {
+    private Long id;
+    private String name;              // profiles are created or updated by name
+    private String cardType;          // optional: default profile of this card type
+    private double maxWithdrawalLimit;
+    private double dailyDebitLimit;
+    private double dailyCreditLimit;
+    private double maxCreditLimit;
+}
@@ -0,0 +1,15 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class PartitionDto {
+    private String table;
+    private String partition;
+    private LocalDateTime from;     // null: unbounded (legacy partition) or DEFAULT partition
+    private LocalDateTime to;       // exclusive; null for the DEFAULT partition
+    private boolean defaultPartition;
+    private long estimatedRows;     // planner estimate (pg_class.reltuples), not an exact count
+}
@@ -0,0 +1,18 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduledPaymentDto {
+    private Long id;
+    private Long cardId;
+    private String type;
+    private double amount;
+    private String frequency;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private LocalDateTime nextRunAt;
+    private String status;
+}
@@ -0,0 +1,16 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduledPaymentRequest {
+    private Long customerId;
+    private String cardNumber;
+    private String type;            // "DEBIT" or "CREDIT"
+    private double amount;
+    private String frequency;       // ONCE / DAILY / WEEKLY / MONTHLY
+    private LocalDateTime startAt;  // first (or only) execution
+    private LocalDateTime endAt;    // optional, recurring only
+}
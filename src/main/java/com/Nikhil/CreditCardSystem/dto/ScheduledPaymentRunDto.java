@@ -0,0 +1,17 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduledPaymentRunDto {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+    private LocalDateTime dueAt;
+    private LocalDateTime executedAt;
+    private String status;   // PENDING / SUCCESS / FAILED
+    private String message;
+}
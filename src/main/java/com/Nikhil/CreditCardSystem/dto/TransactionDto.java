@@ -1,11 +1,14 @@
 package com.Nikhil.CreditCardSystem.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Data
 public class TransactionDto {
+    @JsonSerialize(using = ToStringSerializer.class) // time-ordered ids exceed 2^53, JavaScript would round them as numbers
     private Long id;
     private double amount;
     private String transactionType;
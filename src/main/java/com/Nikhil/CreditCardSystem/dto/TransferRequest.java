@@ -0,0 +1,11 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+@Data
+public class TransferRequest {
+    private Long customerId;
+    private String fromCardNumber;
+    private String toCardNumber;
+    private double amount;
+}
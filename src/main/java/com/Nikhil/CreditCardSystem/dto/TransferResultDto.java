@@ -0,0 +1,12 @@
+package com.Nikhil.CreditCardSystem.dto;
+
+import lombok.Data;
+
+@Data
+public class TransferResultDto {
+    private Long fromCardId;
+    private Long toCardId;
+    private double amount;
+    private double fromBalanceAfter;
+    private double toBalanceAfter;
+}
@@ -49,6 +49,28 @@ public class GlobalExceptionHandler {
     }
 
 
+    @ExceptionHandler(ServiceTimeoutException.class)
+    public ResponseEntity<ResponseStructure<String>> handleTimeout(ServiceTimeoutException ex) {
+        LOGGER.warn("Request timed out: {}", ex.getMessage());
+        ResponseStructure<String> structure = new ResponseStructure<>();
+        structure.setMessage("Request timed out");
+        structure.setHttpstatus("ERROR");
+        structure.setData(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(structure);
+    }
+
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ResponseStructure<String>> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        LOGGER.warn("Idempotency conflict: {}", ex.getMessage());
+        ResponseStructure<String> structure = new ResponseStructure<>();
+        structure.setMessage("Duplicate request");
+        structure.setHttpstatus("ERROR");
+        structure.setData(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(structure);
+    }
+
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ResponseStructure<String>> handleAccessDenied(AccessDeniedException ex) {
         ResponseStructure<String> structure = new ResponseStructure<>();
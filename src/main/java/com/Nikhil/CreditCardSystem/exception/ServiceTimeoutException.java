@@ -0,0 +1,7 @@
+package com.Nikhil.CreditCardSystem.exception;
+
+public class ServiceTimeoutException extends RuntimeException {
+    public ServiceTimeoutException(String message) {
+        super(message);
+    }
+}
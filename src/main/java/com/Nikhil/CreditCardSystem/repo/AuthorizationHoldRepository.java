@@ -0,0 +1,42 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import com.Nikhil.CreditCardSystem.Entity.AuthorizationHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AuthorizationHoldRepository extends JpaRepository<AuthorizationHold, Long> {
+
+    // Card and status without loading the hold, so a later locking read is not served a stale entity
+    @Query("select h.creditCard.id from AuthorizationHold h where h.id = :id")
+    Optional<Long> findCardIdById(@Param("id") Long id);
+
+    @Query("select h.status from AuthorizationHold h where h.id = :id")
+    Optional<String> findStatusById(@Param("id") Long id);
+
+    // Cards of the still active holds among the ids, to lock them (in id order) before the holds
+    @Query("select distinct h.creditCard.id from AuthorizationHold h where h.id in :ids and h.status = 'ACTIVE'")
+    List<Long> findActiveCardIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from AuthorizationHold h where h.id in :ids and h.status = 'ACTIVE' order by h.id")
+    List<AuthorizationHold> findActiveByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Keyset page of active holds for rebuilding the expiry wheel on startup
+    @Query("select h.id as id, h.expiresAt as expiresAt from AuthorizationHold h where h.status = 'ACTIVE' and h.id > :afterId order by h.id")
+    List<HoldExpiryRef> findActiveExpiriesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    interface HoldExpiryRef {
+        Long getId();
+
+        LocalDateTime getExpiresAt();
+    }
+}
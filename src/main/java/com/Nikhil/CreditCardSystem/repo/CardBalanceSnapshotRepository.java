@@ -0,0 +1,20 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import com.Nikhil.CreditCardSystem.Entity.CardBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface CardBalanceSnapshotRepository extends JpaRepository<CardBalanceSnapshot, CardBalanceSnapshot.Key> {
+
+    // Latest snapshot on or before the day (primary key range read)
+    Optional<CardBalanceSnapshot> findFirstByCardIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(Long cardId, LocalDate date);
+
+    // Earliest snapshot on or after the day
+    Optional<CardBalanceSnapshot> findFirstByCardIdAndSnapshotDateGreaterThanEqualOrderBySnapshotDateAsc(Long cardId, LocalDate date);
+
+    @Query("select max(s.snapshotDate) from CardBalanceSnapshot s")
+    Optional<LocalDate> findLatestSnapshotDate();
+}
@@ -0,0 +1,12 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import com.Nikhil.CreditCardSystem.Entity.CardIssuanceJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CardIssuanceJobRepository extends JpaRepository<CardIssuanceJob, Long> {
+
+    List<CardIssuanceJob> findAllByStatusInOrderById(Collection<String> statuses);
+}
@@ -0,0 +1,14 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import com.Nikhil.CreditCardSystem.Entity.CardLedgerChecksum;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CardLedgerChecksumRepository extends JpaRepository<CardLedgerChecksum, Long> {
+
+    List<CardLedgerChecksum> findByStatusOrderByCardId(String status, Pageable pageable);
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,13 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import com.Nikhil.CreditCardSystem.Entity.CardRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface CardRollupRepository extends JpaRepository<CardRollup, CardRollup.Key> {
+
+    // Primary key lookup: one row, whatever the card's history
+    Optional<CardRollup> findByCardIdAndPeriodAndPeriodStart(Long cardId, String period, LocalDate periodStart);
+}
@@ -2,14 +2,82 @@ package com.Nikhil.CreditCardSystem.repo;
 
 import com.Nikhil.CreditCardSystem.Entity.CreditCard;
 import com.Nikhil.CreditCardSystem.Entity.Customer;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CreditCardRepository extends JpaRepository<CreditCard, Long> {
-    Optional<CreditCard> findByCardNumberAndCustomerId(String cardNumber, Long customerId);
+    // cardNumber is encrypted: pass AESUtil#lookupCandidates so rows in either ciphertext format match
+    // (native queries bypass @SQLRestriction, so they filter soft-deleted rows themselves)
+    @Query(value = "select * from credit_card where card_number in (:cipherTexts) and customer_id = :customerId and deleted_at is null", nativeQuery = true)
+    Optional<CreditCard> findByCardNumberCipherTextsAndCustomerId(@Param("cipherTexts") List<String> cipherTexts,
+                                                                  @Param("customerId") Long customerId);
 
     List<CreditCard> findAllByCustomerId(Long customerId);
-    boolean existsByCardNumber(String cardNumber);
+
+    List<CreditCard> findAllByCustomerIdIn(Collection<Long> customerIds);
+
+    @Query("select c.id from CreditCard c where c.customer.id = :customerId")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId);
+
+    // One IN query for a batch of cards, owners fetched in the same select
+    @Query("select c from CreditCard c join fetch c.customer where c.id in :ids")
+    List<CreditCard> findAllWithCustomerByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Includes soft-deleted cards: their numbers stay taken (unique column) until the row is purged
+    @Query(value = "select count(*) > 0 from credit_card where card_number in (:cipherTexts)", nativeQuery = true)
+    boolean existsByCardNumberCipherTexts(@Param("cipherTexts") List<String> cipherTexts);
+
+    // Owner name only, for logging without loading (and decrypting) the card or customer
+    @Query("select c.customer.name from CreditCard c where c.id = :id")
+    Optional<String> findCustomerNameById(@Param("id") Long id);
+
+    // Id and owner of the cards whose (encrypted) number is in the list; nothing is decrypted
+    @Query(value = "select id, card_number as cardNumber, customer_id as customerId from credit_card "
+            + "where card_number in (:cipherTexts) and deleted_at is null", nativeQuery = true)
+    List<CardRef> findRefsByCardNumberCipherTexts(@Param("cipherTexts") Collection<String> cipherTexts);
+
+    // Row-locks the cards; callers pass ids of one batch and rely on the id order to avoid deadlocks
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from CreditCard c where c.id in :ids order by c.id")
+    List<CreditCard> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Returns 0 if the card does not exist or is already deleted
+    @Transactional
+    @Modifying
+    @Query(value = "update credit_card set deleted_at = :now where id = :id and deleted_at is null", nativeQuery = true)
+    int softDelete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update credit_card set deleted_at = :now where customer_id = :customerId and deleted_at is null", nativeQuery = true)
+    int softDeleteByCustomerId(@Param("customerId") Long customerId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update credit_card set limit_profile_id = :profileId where id = :id and deleted_at is null", nativeQuery = true)
+    int updateLimitProfileId(@Param("id") Long id, @Param("profileId") Long profileId);
+
+    // Only the holder name; the rest of the row belongs to the locked balance paths
+    @Transactional
+    @Modifying
+    @Query(value = "update credit_card set card_holder_name = :name where id = :id and deleted_at is null", nativeQuery = true)
+    int updateCardHolderName(@Param("id") Long id, @Param("name") String name);
+
+    interface CardRef {
+        Long getId();
+
+        String getCardNumber(); // ciphertext as stored
+
+        Long getCustomerId();
+    }
 }
@@ -0,0 +1,12 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import com.Nikhil.CreditCardSystem.Entity.CustomerImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CustomerImportJobRepository extends JpaRepository<CustomerImportJob, Long> {
+
+    List<CustomerImportJob> findAllByStatusInOrderById(Collection<String> statuses);
+}
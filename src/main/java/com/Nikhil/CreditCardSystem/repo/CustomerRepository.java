@@ -2,10 +2,31 @@ package com.Nikhil.CreditCardSystem.repo;
 
 import com.Nikhil.CreditCardSystem.Entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer
         , Long> {
 
 
-    Customer findByUsername(String username);
+    // username is encrypted: pass AESUtil#lookupCandidates so rows in either ciphertext format match
+    // (native queries bypass @SQLRestriction, so they filter soft-deleted rows themselves)
+    @Query(value = "select * from customer where username in (:cipherTexts) and deleted_at is null", nativeQuery = true)
+    Customer findByUsernameCipherTexts(@Param("cipherTexts") List<String> cipherTexts);
+
+    // Name only, so callers that just need it for logging don't decrypt the PII columns
+    @Query("select c.name from Customer c where c.id = :id")
+    Optional<String> findNameById(@Param("id") Long id);
+
+    // Returns 0 if the customer does not exist or is already deleted
+    @Transactional
+    @Modifying
+    @Query(value = "update customer set deleted_at = :now where id = :id and deleted_at is null", nativeQuery = true)
+    int softDelete(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,11 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import com.Nikhil.CreditCardSystem.Entity.LimitProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface LimitProfileRepository extends JpaRepository<LimitProfile, Long> {
+
+    Optional<LimitProfile> findByName(String name);
+}
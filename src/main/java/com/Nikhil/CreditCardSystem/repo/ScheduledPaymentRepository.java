@@ -0,0 +1,29 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import com.Nikhil.CreditCardSystem.Entity.ScheduledPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ScheduledPaymentRepository extends JpaRepository<ScheduledPayment, Long> {
+
+    // Locks a batch of due payments; rows locked by another instance are skipped, not waited on
+    @Query(value = "select * from scheduled_payment where status = 'ACTIVE' and next_run_at <= :now "
+            + "order by next_run_at limit :limit for update skip locked", nativeQuery = true)
+    List<ScheduledPayment> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("select p from ScheduledPayment p where p.creditCard.customer.id = :customerId order by p.id")
+    List<ScheduledPayment> findAllByCustomerId(@Param("customerId") Long customerId);
+
+    // Stops payments of cards that are being deleted; the rows themselves go with the card purge
+    @Transactional
+    @Modifying
+    @Query(value = "update scheduled_payment set status = 'CANCELLED' where status = 'ACTIVE' and card_id in (:cardIds)", nativeQuery = true)
+    int cancelActiveByCardIdIn(@Param("cardIds") Collection<Long> cardIds);
+}
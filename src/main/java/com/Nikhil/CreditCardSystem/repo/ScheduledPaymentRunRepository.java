@@ -0,0 +1,28 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import com.Nikhil.CreditCardSystem.Entity.ScheduledPaymentRun;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ScheduledPaymentRunRepository extends JpaRepository<ScheduledPaymentRun, Long> {
+
+    // PENDING runs whose executor died; same skip-locked claiming as for due payments
+    @Query(value = "select * from scheduled_payment_run where status = 'PENDING' and claimed_at < :staleBefore "
+            + "order by id limit :limit for update skip locked", nativeQuery = true)
+    List<ScheduledPaymentRun> claimStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("limit") int limit);
+
+    // Taken under the card lock: a run that is no longer PENDING was already executed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from ScheduledPaymentRun r where r.id in :ids and r.status = 'PENDING' order by r.dueAt, r.id")
+    List<ScheduledPaymentRun> findPendingByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    List<ScheduledPaymentRun> findAllByPaymentIdOrderByDueAtDesc(Long paymentId, Pageable pageable);
+}
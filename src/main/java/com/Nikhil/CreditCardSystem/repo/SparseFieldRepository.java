@@ -0,0 +1,67 @@
+package com.Nikhil.CreditCardSystem.repo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projection queries for {@code fields=} requests.
+ *
+ * Only the requested attributes are selected, so encrypted columns that were not asked for are
+ * never read from the database and never go through the AES converter.
+ */
+@Repository
+public class SparseFieldRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param entityType  entity to select from
+     * @param fields      response field name -> attribute path (dotted paths join, e.g. "creditCard.cardNumber")
+     * @param filterPath  attribute path to filter on, or null for no filter
+     * @param filterValue value the filter attribute must equal
+     */
+    public List<Map<String, Object>> findFields(Class<?> entityType, Map<String, String> fields,
+                                                String filterPath, Object filterValue) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entityType);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        fields.forEach((name, path) -> selections.add(resolve(root, path).alias(name)));
+        query.multiselect(selections);
+
+        if (filterPath != null) {
+            query.where(cb.equal(resolve(root, filterPath), filterValue));
+        }
+        query.orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    fields.keySet().forEach(name -> row.put(name, tuple.get(name)));
+                    return row;
+                })
+                .toList();
+    }
+
+    private Path<?> resolve(Root<?> root, String dottedPath) {
+        Path<?> path = root;
+        for (String attribute : dottedPath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+}
@@ -2,8 +2,36 @@ package com.Nikhil.CreditCardSystem.repo;
 
 
 import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.dto.CardPeriodTotalsDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-}
 
+    // Newest transactions across all of a customer's cards; limit via Pageable
+    @Query("select t from Transaction t join fetch t.creditCard c where c.customer.id = :customerId order by t.dateTime desc, t.id desc")
+    List<Transaction> findRecentByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    // Debit/credit sums per card since the given time, aggregated in the database
+    @Query("select new com.Nikhil.CreditCardSystem.dto.CardPeriodTotalsDto(t.creditCard.id, "
+            + "sum(case when t.transactionType = 'DEBIT' then t.amount else 0.0 end), "
+            + "sum(case when t.transactionType = 'CREDIT' then t.amount else 0.0 end), "
+            + "count(t)) "
+            + "from Transaction t where t.creditCard.customer.id = :customerId and t.dateTime >= :since "
+            + "group by t.creditCard.id")
+    List<CardPeriodTotalsDto> sumByCardSince(@Param("customerId") Long customerId, @Param("since") LocalDateTime since);
+
+    long countByCreditCardIdIn(Collection<Long> cardIds);
+
+    // Transactions of the cards with from <= dateTime < to, newest first; the range prunes month partitions
+    @Query("select t from Transaction t join fetch t.creditCard c where c.id in :cardIds and t.dateTime >= :from and t.dateTime < :to "
+            + "order by t.dateTime desc, t.id desc")
+    List<Transaction> findByCardIdsBetween(@Param("cardIds") Collection<Long> cardIds,
+                                           @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,348 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.AuthorizationHold;
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.dto.AuthorizeRequest;
+import com.Nikhil.CreditCardSystem.dto.HoldDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
+import com.Nikhil.CreditCardSystem.exception.ValidationException;
+import com.Nikhil.CreditCardSystem.repo.AuthorizationHoldRepository;
+import com.Nikhil.CreditCardSystem.repo.AuthorizationHoldRepository.HoldExpiryRef;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository.CardRef;
+import com.Nikhil.CreditCardSystem.repo.TransactionRepository;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import com.Nikhil.CreditCardSystem.util.HashedTimingWheel;
+import com.Nikhil.CreditCardSystem.util.ResponseStructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Authorization holds: authorize reserves an amount on a card, capture turns it into a debit,
+ * void releases it. An ACTIVE hold only raises the card's heldAmount (lowering the available
+ * balance); the DEBIT transaction is written on capture.
+ *
+ * Expiry runs off an in-memory {@link HashedTimingWheel}: every hold is scheduled when it is
+ * authorized, and on startup the wheel is rebuilt from the ACTIVE rows, which are the persisted
+ * state. Nothing polls the table. Expiry, capture and void all lock the card before the hold, and
+ * only act on holds that are still ACTIVE, so a hold is closed exactly once.
+ */
+@Service
+public class AuthorizationHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationHoldService.class);
+
+    static final String ACTIVE = "ACTIVE";
+    static final String CAPTURED = "CAPTURED";
+    static final String VOIDED = "VOIDED";
+    static final String EXPIRED = "EXPIRED";
+
+    @Autowired
+    private AuthorizationHoldRepository authorizationHoldRepository;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Autowired
+    private CardLimitValidator cardLimitValidator;
+
+    @Autowired
+    private UserActionLogService userActionLogService;
+
+    @Autowired
+    private AESUtil aesUtil;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${holds.default-expiry-minutes:10080}")
+    private int defaultExpiryMinutes;
+
+    @Value("${holds.max-expiry-minutes:43200}")
+    private int maxExpiryMinutes;
+
+    @Value("${holds.wheel.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${holds.wheel.size:4096}")
+    private int wheelSize;
+
+    @Value("${holds.expiry.batch-size:500}")
+    private int expiryBatchSize;
+
+    @Value("${holds.expiry.retry-delay-ms:30000}")
+    private long retryDelayMillis;
+
+    @Value("${holds.recovery.page-size:10000}")
+    private int recoveryPageSize;
+
+    private HashedTimingWheel expiryWheel;
+
+    @PostConstruct
+    void createWheel() {
+        expiryWheel = new HashedTimingWheel("hold-expiry", tickMillis, wheelSize, this::expire);
+    }
+
+    // ✅ Rebuild the wheel from the ACTIVE holds, then start ticking (overdue holds expire on the first tick)
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverAndStart() {
+        expiryWheel.start();
+        long afterId = Long.MIN_VALUE;
+        long recovered = 0;
+        List<HoldExpiryRef> page;
+        do {
+            page = authorizationHoldRepository.findActiveExpiriesAfter(afterId, PageRequest.of(0, recoveryPageSize));
+            for (HoldExpiryRef ref : page) {
+                expiryWheel.schedule(ref.getId(), toEpochMillis(ref.getExpiresAt()));
+                afterId = ref.getId();
+            }
+            recovered += page.size();
+        } while (page.size() == recoveryPageSize);
+        logger.info("Scheduled {} active authorization holds for expiry", recovered);
+    }
+
+    @PreDestroy
+    void stopWheel() {
+        expiryWheel.stop();
+    }
+
+    // ✅ Authorize: reserve the amount on the card
+    public ResponseEntity<ResponseStructure<HoldDto>> authorize(AuthorizeRequest request, Principal principal) {
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+        String action = request == null ? "Authorize hold"
+                : "Authorize hold ₹" + request.getAmount() + " on Card " + request.getCardNumber() + " (Customer ID " + request.getCustomerId() + ")";
+        try {
+            if (request == null) {
+                throw new InvalidInputException("Authorization request cannot be null");
+            }
+            if (request.getCustomerId() == null || request.getCustomerId() <= 0) {
+                throw new InvalidInputException("Customer ID must be valid and greater than zero");
+            }
+            if (request.getCardNumber() == null || request.getCardNumber().trim().isEmpty()) {
+                throw new InvalidInputException("Card number cannot be null or empty");
+            }
+            if (request.getAmount() <= 0) {
+                throw new InvalidInputException("Amount must be greater than zero");
+            }
+            int expiresIn = request.getExpiresInMinutes() == null ? defaultExpiryMinutes : request.getExpiresInMinutes();
+            if (expiresIn <= 0 || expiresIn > maxExpiryMinutes) {
+                throw new InvalidInputException("expiresInMinutes must be between 1 and " + maxExpiryMinutes);
+            }
+
+            Long cardId = creditCardRepository.findRefsByCardNumberCipherTexts(aesUtil.lookupCandidates(request.getCardNumber().trim()))
+                    .stream()
+                    .filter(ref -> ref.getCustomerId().equals(request.getCustomerId()))
+                    .map(CardRef::getId)
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("Card not found for customer"));
+
+            HoldDto hold = transactionTemplate.execute(status -> {
+                CreditCard card = lockCard(cardId);
+                cardLimitValidator.validateDebit(card, request.getAmount());
+                card.setHeldAmount(card.getHeldAmount() + request.getAmount());
+
+                AuthorizationHold entity = new AuthorizationHold();
+                entity.setCreditCard(card);
+                entity.setAmount(request.getAmount());
+                entity.setStatus(ACTIVE);
+                entity.setExpiresAt(LocalDateTime.now().plusMinutes(expiresIn));
+                return toDto(authorizationHoldRepository.save(entity), card);
+            });
+
+            // Only committed holds go on the wheel
+            expiryWheel.schedule(hold.getHoldId(), toEpochMillis(hold.getExpiresAt()));
+
+            logger.info("Authorized hold {} of ₹{} on card ID {}", hold.getHoldId(), request.getAmount(), cardId);
+            userActionLogService.logAction(username, action, "SUCCESS");
+
+            ResponseStructure<HoldDto> structure = new ResponseStructure<>();
+            structure.setMessage("Amount authorized and held");
+            structure.setHttpstatus("SUCCESS");
+            structure.setData(hold);
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(structure);
+
+        } catch (Exception ex) {
+            logger.error("Error while authorizing hold: {}", ex.getMessage());
+            userActionLogService.logAction(username, action, "FAILED: " + ex.getMessage());
+            throw ex;
+        }
+    }
+
+    // ✅ Capture: debit up to the held amount and release the rest
+    public ResponseEntity<ResponseStructure<HoldDto>> capture(Long holdId, Double amount, Principal principal) {
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+        String action = "Capture hold ID " + holdId + (amount != null ? " (₹" + amount + ")" : "");
+        try {
+            if (amount != null && amount <= 0) {
+                throw new InvalidInputException("Amount must be greater than zero");
+            }
+
+            HoldDto hold = closeActiveHold(holdId, (entity, card) -> {
+                double captured = amount != null ? amount : entity.getAmount();
+                if (captured > entity.getAmount()) {
+                    throw new ValidationException("Capture amount exceeds the held amount of ₹" + entity.getAmount());
+                }
+                if (!entity.getExpiresAt().isAfter(LocalDateTime.now())) {
+                    throw new ValidationException("Hold has expired");
+                }
+                card.setHeldAmount(card.getHeldAmount() - entity.getAmount());
+                card.setTotalBalance(card.getTotalBalance() - captured);
+                card.setDailyDebitedAmount(card.getDailyDebitedAmount() + captured);
+                entity.setCapturedAmount(captured);
+                entity.setStatus(CAPTURED);
+
+                Transaction transaction = new Transaction();
+                transaction.setAmount(captured);
+                transaction.setTransactionType("DEBIT");
+                transaction.setCardType(card.getCardType());
+                transaction.setDescription("Debited ₹" + captured + " (captured hold ID " + holdId + ")");
+                transaction.setCreditCard(card);
+                transactionRepository.save(transaction);
+                transactionRollupService.record(List.of(transaction));
+            });
+
+            logger.info("Captured hold {} for ₹{}", holdId, hold.getCapturedAmount());
+            userActionLogService.logAction(username, action, "SUCCESS");
+
+            ResponseStructure<HoldDto> structure = new ResponseStructure<>();
+            structure.setMessage("Hold captured and transaction recorded");
+            structure.setHttpstatus("SUCCESS");
+            structure.setData(hold);
+
+            return ResponseEntity.ok(structure);
+
+        } catch (Exception ex) {
+            logger.error("Error while capturing hold {}: {}", holdId, ex.getMessage());
+            userActionLogService.logAction(username, action, "FAILED: " + ex.getMessage());
+            throw ex;
+        }
+    }
+
+    // ✅ Void: release the held amount
+    public ResponseEntity<ResponseStructure<HoldDto>> voidHold(Long holdId, Principal principal) {
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+        try {
+            HoldDto hold = closeActiveHold(holdId, (entity, card) -> {
+                card.setHeldAmount(card.getHeldAmount() - entity.getAmount());
+                entity.setStatus(VOIDED);
+            });
+
+            logger.info("Voided hold {}", holdId);
+            userActionLogService.logAction(username, "Void hold ID " + holdId, "SUCCESS");
+
+            ResponseStructure<HoldDto> structure = new ResponseStructure<>();
+            structure.setMessage("Hold released");
+            structure.setHttpstatus("SUCCESS");
+            structure.setData(hold);
+
+            return ResponseEntity.ok(structure);
+
+        } catch (Exception ex) {
+            logger.error("Error while voiding hold {}: {}", holdId, ex.getMessage());
+            userActionLogService.logAction(username, "Void hold ID " + holdId, "FAILED: " + ex.getMessage());
+            throw ex;
+        }
+    }
+
+    // Wheel callback (ticker thread): expire due holds in chunks, one DB transaction per chunk
+    void expire(List<Long> holdIds) {
+        for (int from = 0; from < holdIds.size(); from += expiryBatchSize) {
+            List<Long> chunk = holdIds.subList(from, Math.min(from + expiryBatchSize, holdIds.size()));
+            try {
+                Integer expired = transactionTemplate.execute(status -> {
+                    List<Long> cardIds = authorizationHoldRepository.findActiveCardIdsByIdIn(chunk);
+                    if (cardIds.isEmpty()) {
+                        return 0; // all captured or voided meanwhile
+                    }
+                    creditCardRepository.findAllByIdInForUpdate(cardIds);
+                    LocalDateTime now = LocalDateTime.now();
+                    int count = 0;
+                    for (AuthorizationHold hold : authorizationHoldRepository.findActiveByIdInForUpdate(chunk)) {
+                        CreditCard card = hold.getCreditCard(); // locked instance from this persistence context
+                        card.setHeldAmount(card.getHeldAmount() - hold.getAmount());
+                        hold.setStatus(EXPIRED);
+                        hold.setClosedAt(now);
+                        count++;
+                    }
+                    return count;
+                });
+                if (expired != null && expired > 0) {
+                    logger.info("Expired {} authorization holds", expired);
+                }
+            } catch (RuntimeException ex) {
+                logger.error("Expiring {} holds failed, retrying in {} ms: {}", chunk.size(), retryDelayMillis, ex.getMessage());
+                long retryAt = System.currentTimeMillis() + retryDelayMillis;
+                chunk.forEach(id -> expiryWheel.schedule(id, retryAt));
+            }
+        }
+    }
+
+    // Card first, then hold (same order as expiry); the action only runs on a hold that is still ACTIVE
+    private HoldDto closeActiveHold(Long holdId, HoldAction holdAction) {
+        Long cardId = authorizationHoldRepository.findCardIdById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found with ID: " + holdId));
+
+        return transactionTemplate.execute(status -> {
+            CreditCard card = lockCard(cardId);
+            AuthorizationHold hold = authorizationHoldRepository.findActiveByIdInForUpdate(List.of(holdId)).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ValidationException("Hold is already "
+                            + authorizationHoldRepository.findStatusById(holdId).orElse("closed")));
+            holdAction.apply(hold, card);
+            hold.setClosedAt(LocalDateTime.now());
+            return toDto(hold, card);
+        });
+    }
+
+    private CreditCard lockCard(Long cardId) {
+        return creditCardRepository.findAllByIdInForUpdate(List.of(cardId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found with ID: " + cardId));
+    }
+
+    private HoldDto toDto(AuthorizationHold hold, CreditCard card) {
+        HoldDto dto = new HoldDto();
+        dto.setHoldId(hold.getId());
+        dto.setCardId(card.getId());
+        dto.setAmount(hold.getAmount());
+        dto.setCapturedAmount(hold.getCapturedAmount());
+        dto.setStatus(hold.getStatus());
+        dto.setExpiresAt(hold.getExpiresAt());
+        dto.setAvailableBalance(card.getTotalBalance() - card.getHeldAmount());
+        return dto;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @FunctionalInterface
+    private interface HoldAction {
+        void apply(AuthorizationHold hold, CreditCard card);
+    }
+}
@@ -0,0 +1,152 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes end-of-day balances into card_balance_snapshot, the anchors of CardBalanceService.
+ *
+ * Runs shortly after midnight for every day since the newest snapshot up to yesterday (at most
+ * {@code balances.snapshot.catch-up-days} of them). A card gets a row for a day only if it had
+ * transactions that day, or has no snapshot at all yet; on the other days its balance is that of its
+ * previous snapshot. The balance of day D is computed from the current balance minus everything
+ * booked since D + 1, in one statement per chunk of cards, so it is consistent with concurrent
+ * debits and credits. Existing rows are kept: a rerun only fills gaps.
+ */
+@Service
+public class BalanceSnapshotJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotJob.class);
+
+    private static final String SNAPSHOT_SQL =
+            "insert into card_balance_snapshot (card_id, snapshot_date, balance) "
+                    + "select c.id, ?, c.total_balance - coalesce((select sum(case when upper(t.transaction_type) = 'DEBIT' "
+                    + "then -t.amount else t.amount end) from transaction t where t.card_id = c.id and t.date_time >= ?), 0) "
+                    + "from credit_card c where c.id = any(?) and c.deleted_at is null "
+                    + "and (c.issue_date is null or c.issue_date <= ?) "
+                    + "and (exists (select 1 from transaction t where t.card_id = c.id and t.date_time >= ? and t.date_time < ?) "
+                    + "or not exists (select 1 from card_balance_snapshot s where s.card_id = c.id)) "
+                    + "on conflict do nothing";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${balances.snapshot.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${balances.snapshot.catch-up-days:31}")
+    private int catchUpDays;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "balance-snapshot"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private volatile String lastError;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    // Catches up on the days missed while the application was down
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${balances.snapshot.cron:0 5 0 * * *}")
+    public void scheduledRun() {
+        start();
+    }
+
+    // ✅ Returns false if a run is already in progress
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        total.set(0);
+        processed.set(0);
+        updated.set(0);
+        lastError = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        executor.submit(this::run);
+        return true;
+    }
+
+    public JobStatusDto getStatus() {
+        JobStatusDto dto = new JobStatusDto();
+        dto.setJob("balance-snapshot");
+        dto.setRunning(running.get());
+        dto.setTotal(total.get());
+        dto.setProcessed(processed.get());
+        dto.setUpdated(updated.get());
+        dto.setLastError(lastError);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        return dto;
+    }
+
+    private void run() {
+        try {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            LocalDate latest = jdbcTemplate.queryForObject("select max(snapshot_date) from card_balance_snapshot", LocalDate.class);
+            LocalDate first = latest != null ? latest.plusDays(1) : yesterday;
+            if (first.isBefore(yesterday.minusDays(catchUpDays - 1L))) {
+                first = yesterday.minusDays(catchUpDays - 1L);
+            }
+            if (first.isAfter(yesterday)) {
+                return;
+            }
+            total.set(first.datesUntil(yesterday.plusDays(1)).count());
+
+            // Oldest day first: a card's first snapshot is the earliest day, later days only add its active days
+            for (LocalDate day = first; !day.isAfter(yesterday); day = day.plusDays(1)) {
+                snapshot(day);
+                processed.incrementAndGet();
+            }
+            logger.info("Balance snapshots finished: {} days, {} snapshots written", processed.get(), updated.get());
+        } catch (Exception ex) {
+            lastError = ex.getMessage();
+            logger.error("Balance snapshots failed: {}", ex.getMessage(), ex);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    // One statement per chunk of cards
+    private void snapshot(LocalDate day) {
+        Date date = Date.valueOf(day);
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        long lastId = 0;
+        while (true) {
+            List<Long> cardIds = jdbcTemplate.queryForList(
+                    "select id from credit_card where id > ? and deleted_at is null order by id limit ?", Long.class, lastId, chunkSize);
+            if (cardIds.isEmpty()) {
+                break;
+            }
+            updated.addAndGet(jdbcTemplate.update(SNAPSHOT_SQL, date, end, cardIds.toArray(new Long[0]), date, start, end));
+            lastId = cardIds.get(cardIds.size() - 1);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,182 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CardBalanceSnapshot;
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.dto.BalanceAsOfDto;
+import com.Nikhil.CreditCardSystem.dto.DailyBalanceDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
+import com.Nikhil.CreditCardSystem.repo.CardBalanceSnapshotRepository;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
+import com.Nikhil.CreditCardSystem.util.ColumnarTransactionFile.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Balance of a card at any point in time.
+ *
+ * The balance as of T counts every transaction before T. It is derived from the nearest anchor: the
+ * latest end-of-day snapshot before T's day (BalanceSnapshotJob) plus what was booked since, or, when
+ * there is none, the earliest snapshot from T's day on (or the current balance) minus what was booked
+ * after T. Since a snapshot is written for every day a card had transactions, only the transactions of
+ * a day or so are replayed, whatever the age of the card. Transactions already moved to the cold
+ * store are read from there.
+ */
+@Service
+public class CardBalanceService {
+
+    private static final String MOVEMENTS_SQL =
+            "select id, date_time, case when upper(transaction_type) = 'DEBIT' then -amount else amount end as amount "
+                    + "from transaction where card_id = ? and date_time >= ? "
+                    + "and date_time < coalesce(cast(? as timestamp), 'infinity'::timestamp)";
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private CardBalanceSnapshotRepository cardBalanceSnapshotRepository;
+
+    @Autowired
+    private ColdTransactionStore coldTransactionStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${balances.series-max-days:366}")
+    private int seriesMaxDays;
+
+    // One booked transaction: credits positive, debits negative
+    private record Movement(long id, LocalDateTime dateTime, double amount) {
+    }
+
+    // ✅ Balance of the card after every transaction before asOf
+    public BalanceAsOfDto balanceAt(Long cardId, LocalDateTime asOf) {
+        CreditCard card = findCard(cardId);
+        if (asOf.isAfter(LocalDateTime.now())) {
+            throw new InvalidInputException("'asOf' must not be in the future");
+        }
+        if (card.getIssueDate() != null && asOf.isBefore(card.getIssueDate().atStartOfDay())) {
+            throw new InvalidInputException("Card " + cardId + " was issued on " + card.getIssueDate());
+        }
+        return balanceAt(card, asOf);
+    }
+
+    // ✅ End-of-day balances between two days (inclusive); days before the card was issued are left out
+    public List<DailyBalanceDto> dailyBalances(Long cardId, LocalDate from, LocalDate to) {
+        CreditCard card = findCard(cardId);
+        if (from.isAfter(to)) {
+            throw new InvalidInputException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= seriesMaxDays) {
+            throw new InvalidInputException("At most " + seriesMaxDays + " days can be requested at once");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate first = card.getIssueDate() != null && card.getIssueDate().isAfter(from) ? card.getIssueDate() : from;
+        LocalDate last = to.isAfter(today) ? today : to;
+        List<DailyBalanceDto> series = new ArrayList<>();
+        if (first.isAfter(last)) {
+            return series;
+        }
+
+        double balance = balanceAt(card, first.atStartOfDay()).getBalance();
+        int days = (int) ChronoUnit.DAYS.between(first, last) + 1;
+        double[] net = new double[days];
+        int[] count = new int[days];
+        for (Movement movement : movements(cardId, first.atStartOfDay(), last.plusDays(1).atStartOfDay())) {
+            int day = (int) ChronoUnit.DAYS.between(first, movement.dateTime().toLocalDate());
+            net[day] += movement.amount();
+            count[day]++;
+        }
+        for (int day = 0; day < days; day++) {
+            balance += net[day];
+            DailyBalanceDto dto = new DailyBalanceDto();
+            dto.setDate(first.plusDays(day));
+            dto.setBalance(balance);
+            dto.setNetChange(net[day]);
+            dto.setTransactionCount(count[day]);
+            series.add(dto);
+        }
+        return series;
+    }
+
+    private BalanceAsOfDto balanceAt(CreditCard card, LocalDateTime asOf) {
+        Long cardId = card.getId();
+        BalanceAsOfDto dto = new BalanceAsOfDto();
+        dto.setCardId(cardId);
+        dto.setAsOf(asOf);
+
+        // A snapshot of day D holds everything before D + 1 at 00:00
+        Optional<CardBalanceSnapshot> before = cardBalanceSnapshotRepository
+                .findFirstByCardIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(cardId, asOf.toLocalDate().minusDays(1));
+        if (before.isPresent()) {
+            LocalDateTime anchorTime = before.get().getSnapshotDate().plusDays(1).atStartOfDay();
+            List<Movement> movements = movements(cardId, anchorTime, asOf);
+            dto.setAnchor("SNAPSHOT");
+            dto.setAnchorTime(anchorTime);
+            dto.setBalance(before.get().getBalance() + sum(movements));
+            dto.setTransactionsApplied(movements.size());
+            return dto;
+        }
+
+        Optional<CardBalanceSnapshot> after = cardBalanceSnapshotRepository
+                .findFirstByCardIdAndSnapshotDateGreaterThanEqualOrderBySnapshotDateAsc(cardId, asOf.toLocalDate());
+        LocalDateTime anchorTime = after.map(snapshot -> snapshot.getSnapshotDate().plusDays(1).atStartOfDay()).orElse(null);
+        List<Movement> movements = movements(cardId, asOf, anchorTime);
+        dto.setAnchor(after.isPresent() ? "SNAPSHOT" : "CURRENT");
+        dto.setAnchorTime(anchorTime != null ? anchorTime : LocalDateTime.now());
+        dto.setBalance(after.map(CardBalanceSnapshot::getBalance).orElse(card.getTotalBalance()) - sum(movements));
+        dto.setTransactionsApplied(movements.size());
+        return dto;
+    }
+
+    // Transactions of the card with from <= dateTime < to (to == null: no upper bound), each once
+    private List<Movement> movements(Long cardId, LocalDateTime from, LocalDateTime to) {
+        List<Movement> movements = new ArrayList<>();
+        if (to != null && !from.isBefore(to)) {
+            return movements;
+        }
+        Set<Long> seen = new HashSet<>();
+        jdbcTemplate.query(MOVEMENTS_SQL, rs -> {
+            long id = rs.getLong("id");
+            seen.add(id);
+            movements.add(new Movement(id, rs.getTimestamp("date_time").toLocalDateTime(), rs.getDouble("amount")));
+        }, cardId, Timestamp.valueOf(from), to != null ? Timestamp.valueOf(to) : null);
+
+        LocalDateTime horizon = coldTransactionStore.horizon();
+        if (horizon != null && from.isBefore(horizon)) {
+            LocalDateTime coldEnd = to == null || horizon.isBefore(to) ? horizon : to;
+            for (Row row : coldTransactionStore.scan(Set.of(cardId), from, coldEnd)) {
+                if (seen.add(row.id())) {
+                    double amount = "DEBIT".equalsIgnoreCase(row.transactionType()) ? -row.amount() : row.amount();
+                    movements.add(new Movement(row.id(), row.dateTime(), amount));
+                }
+            }
+        }
+        return movements;
+    }
+
+    private static double sum(List<Movement> movements) {
+        double sum = 0;
+        for (Movement movement : movements) {
+            sum += movement.amount();
+        }
+        return sum;
+    }
+
+    private CreditCard findCard(Long cardId) {
+        return creditCardRepository.findById(cardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found with ID: " + cardId));
+    }
+}
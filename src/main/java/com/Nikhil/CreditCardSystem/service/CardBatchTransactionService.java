@@ -0,0 +1,289 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.dto.BatchTransactionResultDto;
+import com.Nikhil.CreditCardSystem.dto.CardOperationRequest;
+import com.Nikhil.CreditCardSystem.dto.CardOperationResultDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ValidationException;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository.CardRef;
+import com.Nikhil.CreditCardSystem.repo.TransactionRepository;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import com.Nikhil.CreditCardSystem.util.ResponseStructure;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Applies many debit/credit operations in one request.
+ *
+ * Operations are validated individually, their cards resolved with IN queries, and then grouped
+ * per card (request order is kept within a card). Cards are processed in ascending id order, in
+ * chunks of roughly {@code batch-transactions.chunk-size} operations; every chunk is one DB
+ * transaction that row-locks its cards, applies the limit checks in order and persists all
+ * transaction rows, which Hibernate writes as JDBC batches (sequence ids, hibernate.jdbc.batch_size).
+ * A failed operation does not affect the others.
+ */
+@Service
+public class CardBatchTransactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardBatchTransactionService.class);
+
+    private static final int CARD_LOOKUP_CHUNK = 1000;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private CardLimitValidator cardLimitValidator;
+
+    @Autowired
+    private UserActionLogService userActionLogService;
+
+    @Autowired
+    private AESUtil aesUtil;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${batch-transactions.max-operations:10000}")
+    private int maxOperations;
+
+    @Value("${batch-transactions.chunk-size:500}")
+    private int chunkSize;
+
+    public ResponseEntity<ResponseStructure<BatchTransactionResultDto>> process(List<CardOperationRequest> operations, Principal principal) {
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+
+        try {
+            if (operations == null || operations.isEmpty()) {
+                throw new InvalidInputException("operations must contain at least one operation");
+            }
+            if (operations.size() > maxOperations) {
+                throw new InvalidInputException("At most " + maxOperations + " operations can be sent at once, got " + operations.size());
+            }
+            logger.info("Processing batch of {} card operations", operations.size());
+
+            CardOperationResultDto[] results = new CardOperationResultDto[operations.size()];
+
+            // ✅ 1. Input validation per operation
+            List<Integer> accepted = new ArrayList<>();
+            for (int i = 0; i < operations.size(); i++) {
+                String error = validateInput(operations.get(i));
+                if (error != null) {
+                    results[i] = failed(i, error);
+                } else {
+                    accepted.add(i);
+                }
+            }
+
+            // ✅ 2. Resolve every distinct card number in a few IN queries
+            Set<String> cardNumbers = new LinkedHashSet<>();
+            accepted.forEach(i -> cardNumbers.add(operations.get(i).getCardNumber().trim()));
+            Map<String, CardRef> cardsByNumber = resolveCards(cardNumbers);
+
+            // ✅ 3. Group by card, ascending card id (lock order), request order within a card
+            TreeMap<Long, List<Integer>> operationsByCard = new TreeMap<>();
+            for (int i : accepted) {
+                CardOperationRequest op = operations.get(i);
+                CardRef card = cardsByNumber.get(op.getCardNumber().trim());
+                if (card == null || !card.getCustomerId().equals(op.getCustomerId())) {
+                    results[i] = failed(i, "Card not found for customer");
+                } else {
+                    operationsByCard.computeIfAbsent(card.getId(), id -> new ArrayList<>()).add(i);
+                }
+            }
+
+            // ✅ 4. Apply chunk by chunk, each in its own DB transaction
+            List<Long> chunk = new ArrayList<>();
+            int chunkOperations = 0;
+            for (Map.Entry<Long, List<Integer>> entry : operationsByCard.entrySet()) {
+                chunk.add(entry.getKey());
+                chunkOperations += entry.getValue().size();
+                if (chunkOperations >= chunkSize) {
+                    applyChunk(chunk, operationsByCard, operations, results);
+                    chunk = new ArrayList<>();
+                    chunkOperations = 0;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                applyChunk(chunk, operationsByCard, operations, results);
+            }
+
+            BatchTransactionResultDto result = new BatchTransactionResultDto();
+            result.setResults(Arrays.asList(results));
+            result.setSucceeded((int) result.getResults().stream().filter(r -> "SUCCESS".equals(r.getStatus())).count());
+            result.setFailed(results.length - result.getSucceeded());
+
+            logger.info("Batch processed: {} succeeded, {} failed", result.getSucceeded(), result.getFailed());
+
+            // ✅ One summary log entry for the whole batch
+            userActionLogService.logAction(
+                    username,
+                    "Batch card transactions (" + results.length + " operations, " + result.getFailed() + " failed)",
+                    "SUCCESS"
+            );
+
+            ResponseStructure<BatchTransactionResultDto> structure = new ResponseStructure<>();
+            structure.setMessage(result.getSucceeded() + " of " + results.length + " operations applied");
+            structure.setHttpstatus(result.getFailed() == 0 ? "SUCCESS" : "PARTIAL");
+            structure.setData(result);
+
+            return ResponseEntity.ok(structure);
+
+        } catch (Exception ex) {
+            logger.error("Error while processing batch card transactions: {}", ex.getMessage());
+            userActionLogService.logAction(username, "Batch card transactions", "FAILED: " + ex.getMessage());
+            throw ex;
+        }
+    }
+
+    private void applyChunk(List<Long> cardIds, Map<Long, List<Integer>> operationsByCard,
+                            List<CardOperationRequest> operations, CardOperationResultDto[] results) {
+        CardOperationResultDto[] chunkResults = new CardOperationResultDto[results.length];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Transaction> rows = new ArrayList<>();
+
+                for (CreditCard card : creditCardRepository.findAllByIdInForUpdate(cardIds)) {
+                    for (int i : operationsByCard.get(card.getId())) {
+                        CardOperationRequest op = operations.get(i);
+                        double amount = op.getAmount();
+                        String type = op.getType().trim().toUpperCase(Locale.ROOT);
+                        try {
+                            if ("DEBIT".equals(type)) {
+                                cardLimitValidator.validateDebit(card, amount);
+                                card.setTotalBalance(card.getTotalBalance() - amount);
+                                card.setDailyDebitedAmount(card.getDailyDebitedAmount() + amount);
+                                rows.add(newTransaction(card, amount, type, "Debited ₹" + amount, now));
+                            } else {
+                                cardLimitValidator.validateCredit(card, amount);
+                                card.setTotalBalance(card.getTotalBalance() + amount);
+                                card.setDailyCreditedAmount(card.getDailyCreditedAmount() + amount);
+                                rows.add(newTransaction(card, amount, type, "Credited ₹" + amount, now));
+                            }
+                            chunkResults[i] = succeeded(i, card.getTotalBalance());
+                        } catch (ValidationException ex) {
+                            chunkResults[i] = failed(i, ex.getMessage());
+                        }
+                    }
+                }
+
+                // Inserts and card updates are flushed on commit as JDBC batches
+                transactionRepository.saveAll(rows);
+                transactionRollupService.record(rows);
+            });
+        } catch (RuntimeException ex) {
+            logger.error("Batch chunk of {} cards rolled back: {}", cardIds.size(), ex.getMessage());
+            for (Long cardId : cardIds) {
+                for (int i : operationsByCard.get(cardId)) {
+                    chunkResults[i] = failed(i, "Not applied, chunk rolled back: " + ex.getMessage());
+                }
+            }
+        } finally {
+            // The request-scoped persistence context would otherwise keep every chunk's entities
+            entityManager.clear();
+        }
+
+        for (Long cardId : cardIds) {
+            for (int i : operationsByCard.get(cardId)) {
+                // Card deleted between lookup and lock
+                results[i] = chunkResults[i] != null ? chunkResults[i] : failed(i, "Card not found for customer");
+            }
+        }
+    }
+
+    private Transaction newTransaction(CreditCard card, double amount, String type, String description, LocalDateTime now) {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(amount);
+        transaction.setTransactionType(type);
+        transaction.setCardType(card.getCardType());
+        transaction.setDescription(description);
+        transaction.setDateTime(now);
+        transaction.setCreditCard(card);
+        return transaction;
+    }
+
+    private Map<String, CardRef> resolveCards(Set<String> cardNumbers) {
+        Map<String, CardRef> cardsByNumber = new HashMap<>();
+        List<String> numbers = new ArrayList<>(cardNumbers);
+        for (int from = 0; from < numbers.size(); from += CARD_LOOKUP_CHUNK) {
+            // ciphertext -> plain number, for every format a stored row may be in
+            Map<String, String> numberByCipherText = new HashMap<>();
+            for (String number : numbers.subList(from, Math.min(from + CARD_LOOKUP_CHUNK, numbers.size()))) {
+                aesUtil.lookupCandidates(number).forEach(cipherText -> numberByCipherText.put(cipherText, number));
+            }
+            for (CardRef ref : creditCardRepository.findRefsByCardNumberCipherTexts(numberByCipherText.keySet())) {
+                cardsByNumber.put(numberByCipherText.get(ref.getCardNumber()), ref);
+            }
+        }
+        return cardsByNumber;
+    }
+
+    private String validateInput(CardOperationRequest op) {
+        if (op == null) {
+            return "Operation cannot be null";
+        }
+        if (op.getCustomerId() == null || op.getCustomerId() <= 0) {
+            return "Customer ID must be valid and greater than zero";
+        }
+        if (op.getCardNumber() == null || op.getCardNumber().trim().isEmpty()) {
+            return "Card number cannot be null or empty";
+        }
+        if (op.getAmount() <= 0) {
+            return "Amount must be greater than zero";
+        }
+        String type = op.getType() == null ? "" : op.getType().trim().toUpperCase(Locale.ROOT);
+        if (!"DEBIT".equals(type) && !"CREDIT".equals(type)) {
+            return "Type must be DEBIT or CREDIT";
+        }
+        return null;
+    }
+
+    private CardOperationResultDto succeeded(int index, double balanceAfter) {
+        CardOperationResultDto result = new CardOperationResultDto();
+        result.setIndex(index);
+        result.setStatus("SUCCESS");
+        result.setMessage("Applied");
+        result.setBalanceAfter(balanceAfter);
+        return result;
+    }
+
+    private CardOperationResultDto failed(int index, String message) {
+        CardOperationResultDto result = new CardOperationResultDto();
+        result.setIndex(index);
+        result.setStatus("FAILED");
+        result.setMessage(message);
+        return result;
+    }
+}
@@ -0,0 +1,336 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CardIssuanceJob;
+import com.Nikhil.CreditCardSystem.dto.CardIssuanceRequest;
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
+import com.Nikhil.CreditCardSystem.repo.CardIssuanceJobRepository;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository.CardRef;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk card issuance for onboarding campaigns.
+ *
+ * A job stores its customer ids as PENDING items and is processed in the background in chunks of
+ * {@code card-issuance.chunk-size} customers. Each chunk is one DB transaction that reads the
+ * customers' names, pre-allocates card ids (blocks of the credit_card_seq pooled sequence) and
+ * card numbers (checked for collisions with one IN query), inserts all cards with one JDBC batch
+ * and marks the items ISSUED, together with the job counters. No Customer or CreditCard entity is
+ * loaded. Because progress commits with the cards, an interrupted job resumes at the first
+ * PENDING item and never issues a customer twice.
+ */
+@Service
+public class CardIssuanceJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardIssuanceJobService.class);
+
+    // Must match the allocationSize of credit_card_seq on CreditCard
+    private static final int CARD_ID_BLOCK = 50;
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private static final String INSERT_CARD_SQL =
+            "insert into credit_card (id, card_number, card_holder_name, issue_date, expiry_date, card_type, is_active, "
+                    + "total_balance, opening_balance, daily_debited_amount, daily_credited_amount, held_amount, customer_id) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, ?)";
+
+    @Autowired
+    private CardIssuanceJobRepository cardIssuanceJobRepository;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AESUtil aesUtil;
+
+    @Value("${card-issuance.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${card-issuance.max-customers:500000}")
+    private int maxCustomers;
+
+    @Value("${card-issuance.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "card-issuance"));
+    private final Set<Long> submitted = ConcurrentHashMap.newKeySet();
+    private final SecureRandom random = new SecureRandom();
+
+    // ✅ Jobs interrupted by a shutdown continue where their last chunk committed
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnBoot() {
+        if (resumeOnStartup) {
+            cardIssuanceJobRepository.findAllByStatusInOrderById(List.of("QUEUED", "RUNNING"))
+                    .forEach(job -> submit(job.getId()));
+        }
+    }
+
+    // ✅ Stores the job and its customer ids, then queues it
+    public JobStatusDto create(CardIssuanceRequest request) {
+        if (request == null || request.getCustomerIds() == null || request.getCustomerIds().isEmpty()) {
+            throw new InvalidInputException("customerIds must contain at least one customer ID");
+        }
+        if (request.getCardType() == null || request.getCardType().trim().isEmpty()) {
+            throw new InvalidInputException("Card type must not be empty");
+        }
+        if (request.getBalance() <= 0) {
+            throw new InvalidInputException("Balance must be greater than 0");
+        }
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (Long id : request.getCustomerIds()) {
+            if (id == null || id <= 0) {
+                throw new InvalidInputException("Customer IDs must be positive numbers, got " + id);
+            }
+            customerIds.add(id);
+        }
+        if (customerIds.size() > maxCustomers) {
+            throw new InvalidInputException("At most " + maxCustomers + " customers per job, got " + customerIds.size());
+        }
+
+        CardIssuanceJob job = transactionTemplate.execute(status -> {
+            CardIssuanceJob entity = new CardIssuanceJob();
+            entity.setCardType(request.getCardType().trim());
+            entity.setInitialBalance(request.getBalance());
+            entity.setActive(request.isActive());
+            entity.setStatus("QUEUED");
+            entity.setTotal(customerIds.size());
+            CardIssuanceJob saved = cardIssuanceJobRepository.save(entity);
+
+            List<Object[]> items = customerIds.stream().map(id -> new Object[]{saved.getId(), id}).toList();
+            jdbcTemplate.batchUpdate("insert into card_issuance_item (job_id, customer_id, status) values (?, ?, 'PENDING')", items);
+            return saved;
+        });
+
+        logger.info("Created card issuance job {} for {} customers", job.getId(), customerIds.size());
+        submit(job.getId());
+        return toStatus(job);
+    }
+
+    public JobStatusDto getStatus(Long jobId) {
+        return toStatus(cardIssuanceJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Card issuance job not found with ID: " + jobId)));
+    }
+
+    // ✅ Re-queues a FAILED (or interrupted) job; returns false if it is already queued or done
+    public boolean resume(Long jobId) {
+        CardIssuanceJob job = cardIssuanceJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Card issuance job not found with ID: " + jobId));
+        if ("COMPLETED".equals(job.getStatus())) {
+            return false;
+        }
+        return submit(jobId);
+    }
+
+    private boolean submit(Long jobId) {
+        if (!submitted.add(jobId)) {
+            return false;
+        }
+        executor.submit(() -> {
+            try {
+                run(jobId);
+            } finally {
+                submitted.remove(jobId);
+            }
+        });
+        return true;
+    }
+
+    private void run(Long jobId) {
+        updateJob(jobId, job -> {
+            job.setStatus("RUNNING");
+            job.setLastError(null);
+            job.setFinishedAt(null);
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(LocalDateTime.now());
+            }
+        });
+        CardIssuanceJob template = cardIssuanceJobRepository.findById(jobId).orElseThrow();
+        try {
+            long afterCustomerId = 0;
+            while (true) {
+                List<Long> customerIds = jdbcTemplate.queryForList(
+                        "select customer_id from card_issuance_item where job_id = ? and status = 'PENDING' and customer_id > ? "
+                                + "order by customer_id limit ?", Long.class, jobId, afterCustomerId, chunkSize);
+                if (customerIds.isEmpty()) {
+                    break;
+                }
+                issueChunkWithRetry(template, customerIds);
+                afterCustomerId = customerIds.get(customerIds.size() - 1);
+            }
+            updateJob(jobId, job -> {
+                job.setStatus("COMPLETED");
+                job.setFinishedAt(LocalDateTime.now());
+            });
+            CardIssuanceJob done = cardIssuanceJobRepository.findById(jobId).orElseThrow();
+            logger.info("Card issuance job {} finished: {} issued, {} skipped", jobId, done.getIssued(), done.getSkipped());
+        } catch (Exception ex) {
+            logger.error("Card issuance job {} failed: {}", jobId, ex.getMessage(), ex);
+            updateJob(jobId, job -> {
+                job.setStatus("FAILED");
+                job.setLastError(ex.getMessage());
+                job.setFinishedAt(LocalDateTime.now());
+            });
+        }
+    }
+
+    // A concurrently issued card may take one of our numbers; the chunk then rolls back and retries with new numbers
+    private void issueChunkWithRetry(CardIssuanceJob job, List<Long> customerIds) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> issueChunk(job, customerIds));
+                return;
+            } catch (DuplicateKeyException ex) {
+                if (attempt == MAX_CHUNK_ATTEMPTS) {
+                    throw ex;
+                }
+                logger.warn("Card number collision in issuance job {}, retrying chunk", job.getId());
+            }
+        }
+    }
+
+    private void issueChunk(CardIssuanceJob job, List<Long> customerIds) {
+        // ✅ 1. Holder names of the customers that exist (one IN query, no entity loading)
+        Map<Long, String> names = new HashMap<>();
+        jdbcTemplate.query("select id, name from customer where deleted_at is null and id in (" + placeholders(customerIds.size()) + ")",
+                rs -> {
+                    names.put(rs.getLong("id"), rs.getString("name"));
+                },
+                customerIds.toArray());
+
+        List<Long> found = customerIds.stream().filter(names::containsKey).toList();
+        List<Long> missing = customerIds.stream().filter(id -> !names.containsKey(id)).toList();
+
+        // ✅ 2. Pre-allocate ids and numbers for the whole chunk
+        List<Long> cardIds = allocateCardIds(found.size());
+        List<String> cardNumbers = allocateCardNumbers(found.size());
+
+        // ✅ 3. One JDBC batch for the cards
+        Date issueDate = Date.valueOf(LocalDate.now());
+        Date expiryDate = Date.valueOf(LocalDate.now().plusYears(10));
+        List<Object[]> cards = new ArrayList<>(found.size());
+        List<Object[]> issuedItems = new ArrayList<>(found.size());
+        for (int i = 0; i < found.size(); i++) {
+            Long customerId = found.get(i);
+            cards.add(new Object[]{cardIds.get(i), aesUtil.encrypt(cardNumbers.get(i)), names.get(customerId), issueDate, expiryDate,
+                    job.getCardType(), job.isActive(), job.getInitialBalance(), job.getInitialBalance(), customerId});
+            issuedItems.add(new Object[]{cardIds.get(i), job.getId(), customerId});
+        }
+        if (!cards.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CARD_SQL, cards);
+            jdbcTemplate.batchUpdate("update card_issuance_item set status = 'ISSUED', card_id = ? where job_id = ? and customer_id = ?", issuedItems);
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate("update card_issuance_item set status = 'SKIPPED' where job_id = ? and customer_id = ?",
+                    missing.stream().map(id -> new Object[]{job.getId(), id}).toList());
+        }
+
+        // ✅ 4. Progress commits with the cards
+        jdbcTemplate.update("update card_issuance_job set processed = processed + ?, issued = issued + ?, skipped = skipped + ? where id = ?",
+                customerIds.size(), found.size(), missing.size(), job.getId());
+    }
+
+    // credit_card_seq increments by the block size; each value starts a block, as with Hibernate's pooled-lo optimizer
+    private List<Long> allocateCardIds(int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        int blocks = (count + CARD_ID_BLOCK - 1) / CARD_ID_BLOCK;
+        List<Long> starts = jdbcTemplate.queryForList("select nextval('credit_card_seq') from generate_series(1, ?)", Long.class, blocks);
+        List<Long> ids = new ArrayList<>(count);
+        for (Long start : starts) {
+            for (int i = 0; i < CARD_ID_BLOCK && ids.size() < count; i++) {
+                ids.add(start + i);
+            }
+        }
+        return ids;
+    }
+
+    // Random numbers, redrawn until none is taken (checked in one IN query per round)
+    private List<String> allocateCardNumbers(int count) {
+        Set<String> numbers = new LinkedHashSet<>();
+        while (numbers.size() < count) {
+            Set<String> drawn = new LinkedHashSet<>();
+            while (drawn.size() < count - numbers.size()) {
+                String number = String.valueOf(1_0000_0000_0000_000L + random.nextLong(9_0000_0000_0000_000L));
+                if (!numbers.contains(number)) {
+                    drawn.add(number);
+                }
+            }
+            Map<String, String> numberByCipherText = new LinkedHashMap<>();
+            drawn.forEach(number -> aesUtil.lookupCandidates(number).forEach(cipherText -> numberByCipherText.put(cipherText, number)));
+            Set<String> taken = creditCardRepository.findRefsByCardNumberCipherTexts(numberByCipherText.keySet()).stream()
+                    .map(CardRef::getCardNumber)
+                    .map(numberByCipherText::get)
+                    .collect(Collectors.toSet());
+            drawn.removeAll(taken);
+            numbers.addAll(drawn);
+        }
+        return new ArrayList<>(numbers);
+    }
+
+    private void updateJob(Long jobId, Consumer<CardIssuanceJob> change) {
+        transactionTemplate.executeWithoutResult(status -> {
+            CardIssuanceJob job = cardIssuanceJobRepository.findById(jobId).orElseThrow();
+            change.accept(job);
+        });
+    }
+
+    private JobStatusDto toStatus(CardIssuanceJob job) {
+        JobStatusDto dto = new JobStatusDto();
+        dto.setJob("card-issuance-" + job.getId());
+        dto.setRunning("RUNNING".equals(job.getStatus()) || "QUEUED".equals(job.getStatus()));
+        dto.setTotal(job.getTotal());
+        dto.setProcessed(job.getProcessed());
+        dto.setUpdated(job.getIssued());
+        dto.setSkipped(job.getSkipped());
+        dto.setLastError(job.getLastError());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
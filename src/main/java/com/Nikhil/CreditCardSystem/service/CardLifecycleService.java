@@ -0,0 +1,143 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.exception.ValidationException;
+import com.Nikhil.CreditCardSystem.util.CompactIdSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deactivates expired and dormant cards, and answers "may this card be used?" for the debit and
+ * credit paths.
+ *
+ * The sweep works with set-based UPDATEs in chunks of {@code card-lifecycle.chunk-size} rows, each
+ * its own short statement, so no card entity is loaded and row locks are held only briefly:
+ * - expired: cards past their expiry date, picked through the expiry_date index;
+ * - dormant: cards issued more than {@code card-lifecycle.dormant-after-days} ago without any
+ *   transaction since then, walked in id ranges (NOT EXISTS uses the (card_id, date_time) index).
+ * Rows locked by a running payment are skipped and picked up by the next sweep.
+ *
+ * Blocked card ids are kept in a {@link CompactIdSet}: loaded at startup, extended with the ids each
+ * sweep deactivates and reloaded periodically to pick up other instances' sweeps.
+ */
+@Service
+public class CardLifecycleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardLifecycleService.class);
+
+    private static final String DEACTIVATE_EXPIRED_SQL =
+            "update credit_card set is_active = false where id in ("
+                    + "select id from credit_card where expiry_date < ? and is_active order by expiry_date limit ? for update skip locked) "
+                    + "returning id";
+
+    private static final String DEACTIVATE_DORMANT_SQL =
+            "update credit_card c set is_active = false where c.id in ("
+                    + "select id from credit_card where id > ? and id <= ? and is_active and issue_date < ? for update skip locked) "
+                    + "and not exists (select 1 from transaction t where t.card_id = c.id and t.date_time >= ?) "
+                    + "returning c.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${card-lifecycle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${card-lifecycle.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${card-lifecycle.dormant-after-days:365}")
+    private int dormantAfterDays;
+
+    private final CompactIdSet blockedCards = new CompactIdSet();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    // ✅ Rejects operations on inactive or expired cards (blocked set first, then the row itself)
+    public void ensureUsable(CreditCard card) {
+        if ((card.getId() != null && blockedCards.contains(card.getId())) || !card.isActive()) {
+            throw new ValidationException("Card is inactive");
+        }
+        if (card.getExpiryDate() != null && card.getExpiryDate().isBefore(LocalDate.now())) {
+            throw new ValidationException("Card has expired");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${card-lifecycle.blocked-refresh-ms:300000}", initialDelayString = "${card-lifecycle.blocked-refresh-ms:300000}")
+    public void reloadBlockedCards() {
+        try {
+            long[][] ids = {new long[1024]};
+            int[] count = {0};
+            jdbcTemplate.query("select id from credit_card where not is_active or expiry_date < ?",
+                    rs -> {
+                        if (count[0] == ids[0].length) {
+                            ids[0] = Arrays.copyOf(ids[0], count[0] * 2);
+                        }
+                        ids[0][count[0]++] = rs.getLong(1);
+                    },
+                    Date.valueOf(LocalDate.now()));
+            blockedCards.replace(Arrays.copyOf(ids[0], count[0]));
+            logger.debug("Loaded {} blocked card ids", blockedCards.size());
+        } catch (RuntimeException ex) {
+            logger.error("Reloading blocked cards failed: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${card-lifecycle.cron:0 10 0 * * *}")
+    public void sweep() {
+        if (!enabled || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            int expired = deactivateExpired(today);
+            int dormant = dormantAfterDays > 0 ? deactivateDormant(today.minusDays(dormantAfterDays)) : 0;
+            logger.info("Card lifecycle sweep: {} expired and {} dormant cards deactivated", expired, dormant);
+        } catch (RuntimeException ex) {
+            logger.error("Card lifecycle sweep failed: {}", ex.getMessage(), ex);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    // Each chunk deactivates the rows it selects, so the next chunk simply selects again
+    private int deactivateExpired(LocalDate today) {
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(DEACTIVATE_EXPIRED_SQL, Long.class, Date.valueOf(today), chunkSize);
+            blockedCards.addAll(ids);
+            total += ids.size();
+        } while (ids.size() == chunkSize);
+        return total;
+    }
+
+    // Walks the id space in ranges of chunk-size ids; most cards in a range are not dormant
+    private int deactivateDormant(LocalDate inactiveSince) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from credit_card", Long.class);
+        if (maxId == null) {
+            return 0;
+        }
+        int total = 0;
+        for (long from = 0; from < maxId; from += chunkSize) {
+            List<Long> ids = jdbcTemplate.queryForList(DEACTIVATE_DORMANT_SQL, Long.class,
+                    from, from + chunkSize, Date.valueOf(inactiveSince), Timestamp.valueOf(inactiveSince.atStartOfDay()));
+            blockedCards.addAll(ids);
+            total += ids.size();
+        }
+        return total;
+    }
+}
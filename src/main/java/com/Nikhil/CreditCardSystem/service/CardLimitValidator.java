@@ -0,0 +1,48 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Balance and limit checks shared by the single debit/credit endpoints and the batch API,
+ * so both reject the same operations with the same messages. Debits are checked against the
+ * available balance, i.e. excluding amounts reserved by authorization holds. Inactive and expired
+ * cards are rejected for both (see CardLifecycleService). Limits come from the card's limit profile
+ * (see LimitProfileService).
+ */
+@Component
+public class CardLimitValidator {
+
+    @Autowired
+    private CardLifecycleService cardLifecycleService;
+
+    @Autowired
+    private LimitProfileService limitProfileService;
+
+    public void validateDebit(CreditCard card, double amount) {
+        cardLifecycleService.ensureUsable(card);
+        if (amount > card.getTotalBalance() - card.getHeldAmount()) {
+            throw new ValidationException("Insufficient balance");
+        }
+        LimitProfileService.Limits limits = limitProfileService.limitsFor(card);
+        if (amount > limits.maxWithdrawal()) {
+            throw new ValidationException("Max withdrawal limit exceeded");
+        }
+        if (card.getDailyDebitedAmount() + amount > limits.dailyDebit()) {
+            throw new ValidationException("Daily debit limit exceeded");
+        }
+    }
+
+    public void validateCredit(CreditCard card, double amount) {
+        cardLifecycleService.ensureUsable(card);
+        LimitProfileService.Limits limits = limitProfileService.limitsFor(card);
+        if (amount > limits.maxCredit()) {
+            throw new ValidationException("Amount exceeds max credit limit");
+        }
+        if (card.getDailyCreditedAmount() + amount > limits.dailyCredit()) {
+            throw new ValidationException("Daily credit limit exceeded");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.dto.TransferRequest;
+import com.Nikhil.CreditCardSystem.dto.TransferResultDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository.CardRef;
+import com.Nikhil.CreditCardSystem.repo.TransactionRepository;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import com.Nikhil.CreditCardSystem.util.ResponseStructure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves an amount between two cards of the same customer in one DB transaction.
+ *
+ * Both cards are row-locked with a single SELECT ... FOR UPDATE ordered by card id, the same
+ * order the batch API locks in, so concurrent transfers in opposite directions queue on the lower
+ * id instead of deadlocking. Limits are checked on the locked rows; the debit, the credit and both
+ * transaction rows commit together or not at all.
+ */
+@Service
+public class CardTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardTransferService.class);
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Autowired
+    private CardLimitValidator cardLimitValidator;
+
+    @Autowired
+    private UserActionLogService userActionLogService;
+
+    @Autowired
+    private AESUtil aesUtil;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public ResponseEntity<ResponseStructure<TransferResultDto>> transfer(TransferRequest request, Principal principal) {
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+        String action = request == null ? "Transfer"
+                : "Transfer ₹" + request.getAmount() + " from Card " + request.getFromCardNumber()
+                + " to Card " + request.getToCardNumber() + " (Customer ID " + request.getCustomerId() + ")";
+        try {
+            // ✅ Input validation
+            if (request == null) {
+                throw new InvalidInputException("Transfer request cannot be null");
+            }
+            if (request.getCustomerId() == null || request.getCustomerId() <= 0) {
+                throw new InvalidInputException("Customer ID must be valid and greater than zero");
+            }
+            if (isBlank(request.getFromCardNumber()) || isBlank(request.getToCardNumber())) {
+                throw new InvalidInputException("Source and target card numbers cannot be null or empty");
+            }
+            String fromNumber = request.getFromCardNumber().trim();
+            String toNumber = request.getToCardNumber().trim();
+            if (fromNumber.equals(toNumber)) {
+                throw new InvalidInputException("Source and target card must be different");
+            }
+            if (request.getAmount() <= 0) {
+                throw new InvalidInputException("Amount must be greater than zero");
+            }
+            logger.info("Transferring ₹{} from card {} to card {} for customer ID {}",
+                    request.getAmount(), fromNumber, toNumber, request.getCustomerId());
+
+            // ✅ Resolve both cards to ids without locking or decrypting
+            Long fromId = resolveCardId(fromNumber, request.getCustomerId());
+            Long toId = resolveCardId(toNumber, request.getCustomerId());
+
+            TransferResultDto result = applyTransfer(fromId, toId, request.getAmount());
+
+            logger.info("Transfer of ₹{} from card ID {} to card ID {} committed", request.getAmount(), fromId, toId);
+            userActionLogService.logAction(username, action, "SUCCESS");
+
+            ResponseStructure<TransferResultDto> structure = new ResponseStructure<>();
+            structure.setMessage("Amount transferred and transactions recorded successfully");
+            structure.setHttpstatus("SUCCESS");
+            structure.setData(result);
+
+            return ResponseEntity.ok(structure);
+
+        } catch (Exception ex) {
+            logger.error("Error while transferring: {}", ex.getMessage());
+            userActionLogService.logAction(username, action, "FAILED: " + ex.getMessage());
+            throw ex;
+        }
+    }
+
+    // Debit, credit and both transaction rows in one DB transaction; rows locked in ascending id order
+    TransferResultDto applyTransfer(Long fromId, Long toId, double amount) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, CreditCard> locked = creditCardRepository.findAllByIdInForUpdate(List.of(fromId, toId)).stream()
+                    .collect(Collectors.toMap(CreditCard::getId, Function.identity()));
+            CreditCard from = locked.get(fromId);
+            CreditCard to = locked.get(toId);
+            if (from == null || to == null) {
+                // Deleted between lookup and lock
+                throw new ResourceNotFoundException("Card not found for customer");
+            }
+
+            cardLimitValidator.validateDebit(from, amount);
+            cardLimitValidator.validateCredit(to, amount);
+
+            from.setTotalBalance(from.getTotalBalance() - amount);
+            from.setDailyDebitedAmount(from.getDailyDebitedAmount() + amount);
+            to.setTotalBalance(to.getTotalBalance() + amount);
+            to.setDailyCreditedAmount(to.getDailyCreditedAmount() + amount);
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Transaction> rows = new ArrayList<>();
+            rows.add(newTransaction(from, amount, "DEBIT", "Transferred ₹" + amount + " to card ID " + toId, now));
+            rows.add(newTransaction(to, amount, "CREDIT", "Received ₹" + amount + " from card ID " + fromId, now));
+            transactionRepository.saveAll(rows);
+            transactionRollupService.record(rows);
+
+            TransferResultDto result = new TransferResultDto();
+            result.setFromCardId(fromId);
+            result.setToCardId(toId);
+            result.setAmount(amount);
+            result.setFromBalanceAfter(from.getTotalBalance());
+            result.setToBalanceAfter(to.getTotalBalance());
+            return result;
+        });
+    }
+
+    private Long resolveCardId(String cardNumber, Long customerId) {
+        List<CardRef> refs = creditCardRepository.findRefsByCardNumberCipherTexts(aesUtil.lookupCandidates(cardNumber));
+        return refs.stream()
+                .filter(ref -> ref.getCustomerId().equals(customerId))
+                .map(CardRef::getId)
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found for customer"));
+    }
+
+    private Transaction newTransaction(CreditCard card, double amount, String type, String description, LocalDateTime now) {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(amount);
+        transaction.setTransactionType(type);
+        transaction.setCardType(card.getCardType());
+        transaction.setDescription(description);
+        transaction.setDateTime(now);
+        transaction.setCreditCard(card);
+        return transaction;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,139 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.util.ColumnarTransactionFile;
+import com.Nikhil.CreditCardSystem.util.ColumnarTransactionFile.Row;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Archived transactions on local disk, written by TransactionArchiveJob.
+ *
+ * One ColumnarTransactionFile per month and card range ({@code archive.card-range-size} card ids):
+ * {@code <archive.dir>/<yyyy-MM>/cards-<first>-<last>.txc}. A scan derives the file names from the
+ * requested months and cards, so it opens only files that can contain them, and those skip row groups
+ * by their min/max index.
+ */
+@Service
+public class ColdTransactionStore {
+
+    @Value("${archive.dir:archive}")
+    private String archiveDir;
+
+    @Value("${archive.card-range-size:10000}")
+    private long cardRangeSize;
+
+    public long getCardRangeSize() {
+        return cardRangeSize;
+    }
+
+    public long rangeOf(long cardId) {
+        return cardId / cardRangeSize;
+    }
+
+    // ✅ Archived rows of the cards with from <= dateTime < to
+    public List<Row> scan(Set<Long> cardIds, LocalDateTime from, LocalDateTime to) {
+        List<Row> rows = new ArrayList<>();
+        if (cardIds.isEmpty() || !from.isBefore(to)) {
+            return rows;
+        }
+        Map<Long, Set<Long>> cardsByRange = cardIds.stream()
+                .collect(Collectors.groupingBy(this::rangeOf, Collectors.toSet()));
+        YearMonth last = YearMonth.from(to.minusNanos(1));
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(last); month = month.plusMonths(1)) {
+            if (!Files.isDirectory(monthDir(month))) {
+                continue;
+            }
+            for (Map.Entry<Long, Set<Long>> range : cardsByRange.entrySet()) {
+                Path file = fileFor(month, range.getKey());
+                if (Files.exists(file)) {
+                    try {
+                        rows.addAll(ColumnarTransactionFile.scan(file, range.getValue(), from, to));
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException("Reading archive file " + file + " failed", ex);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    // ✅ Adds rows to the file of their month and card range; rows already in it (same id) are replaced
+    public void store(YearMonth month, long range, List<Row> rows) throws IOException {
+        Path file = fileFor(month, range);
+        Files.createDirectories(file.getParent());
+        Map<Long, Row> merged = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            for (Row row : ColumnarTransactionFile.readAll(file)) {
+                merged.put(row.id(), row);
+            }
+        }
+        for (Row row : rows) {
+            merged.put(row.id(), row);
+        }
+
+        // Written aside, flushed to disk and renamed: scans see the old or the new file, never a partial one
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        ColumnarTransactionFile.write(tmp, new ArrayList<>(merged.values()));
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Months with at least one archive file, oldest first
+    public List<YearMonth> archivedMonths() {
+        Path root = Paths.get(archiveDir);
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        Set<YearMonth> months = new TreeSet<>();
+        try (Stream<Path> dirs = Files.list(root)) {
+            dirs.filter(Files::isDirectory).forEach(dir -> {
+                try {
+                    months.add(YearMonth.parse(dir.getFileName().toString()));
+                } catch (DateTimeParseException ignored) {
+                    // not a month directory
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new ArrayList<>(months);
+    }
+
+    // Start of the first month after the newest archived one; null when nothing is archived
+    public LocalDateTime horizon() {
+        List<YearMonth> months = archivedMonths();
+        return months.isEmpty() ? null : months.get(months.size() - 1).plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    private Path monthDir(YearMonth month) {
+        return Paths.get(archiveDir, month.toString());
+    }
+
+    private Path fileFor(YearMonth month, long range) {
+        long first = range * cardRangeSize;
+        return monthDir(month).resolve(String.format("cards-%012d-%012d%s", first, first + cardRangeSize - 1,
+                ColumnarTransactionFile.EXTENSION));
+    }
+}
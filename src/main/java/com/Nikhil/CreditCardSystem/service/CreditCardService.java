@@ -3,21 +3,35 @@ package com.Nikhil.CreditCardSystem.service;
 import com.Nikhil.CreditCardSystem.Entity.CreditCard;
 import com.Nikhil.CreditCardSystem.Entity.Customer;
 import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.dto.BatchGetResultDto;
 import com.Nikhil.CreditCardSystem.dto.CreditCardDto;
 import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
 import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
 import com.Nikhil.CreditCardSystem.exception.ValidationException;
 import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
 import com.Nikhil.CreditCardSystem.repo.CustomerRepository;
+import com.Nikhil.CreditCardSystem.repo.ScheduledPaymentRepository;
+import com.Nikhil.CreditCardSystem.repo.SparseFieldRepository;
 import com.Nikhil.CreditCardSystem.repo.TransactionRepository;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import com.Nikhil.CreditCardSystem.util.BatchIds;
+import com.Nikhil.CreditCardSystem.util.FieldSelection;
 import com.Nikhil.CreditCardSystem.util.ResponseStructure;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.security.Principal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.Random;
 
 
@@ -41,6 +55,37 @@ public class CreditCardService {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private SparseFieldRepository sparseFieldRepository;
+
+    @Autowired
+    private AESUtil aesUtil;
+
+    @Autowired
+    private CardLimitValidator cardLimitValidator;
+
+    @Autowired
+    private ScheduledPaymentRepository scheduledPaymentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Value("${batch-get.max-ids:200}")
+    private int batchGetMaxIds;
+
+    // Fields a client may request with ?fields= (response name -> entity attribute)
+    private static final Map<String, String> SPARSE_FIELDS = Map.of(
+            "id", "id",
+            "cardNumber", "cardNumber",
+            "cardHolderName", "cardHolderName",
+            "cardType", "cardType",
+            "active", "isActive",
+            "totalBalance", "totalBalance",
+            "issueDate", "issueDate",
+            "expiryDate", "expiryDate");
 
 
     public CreditCardService(CustomerRepository customerRepository,
@@ -56,7 +101,7 @@ public class CreditCardService {
         String cardNumber;
         do {
             cardNumber = String.valueOf(1_0000_0000_0000_000L + new Random().nextLong(9_0000_0000_0000_000L));
-        } while (creditCardRepository.existsByCardNumber(cardNumber));
+        } while (creditCardRepository.existsByCardNumberCipherTexts(aesUtil.lookupCandidates(cardNumber)));
 
         logger.info("Generated unique card number: {}", cardNumber);
         return cardNumber;
@@ -65,6 +110,7 @@ public class CreditCardService {
     // ✅ Convert Entity to DTO
     private CreditCardDto toDto(CreditCard card) {
         CreditCardDto dto = new CreditCardDto();
+        dto.setId(card.getId());
         dto.setCardHolderName(card.getCardHolderName());
         dto.setActive(card.isActive());
         dto.setCardType(card.getCardType());
@@ -97,6 +143,7 @@ public class CreditCardService {
             CreditCard card = new CreditCard();
             card.setCardNumber(generateUniqueCardNumber());
             card.setTotalBalance(balance);
+            card.setOpeningBalance(balance);
             card.setCardType(type);
             card.setActive(isactive);
             card.setIssueDate(LocalDate.now());
@@ -137,14 +184,13 @@ public class CreditCardService {
                 throw new InvalidInputException("Card holder name cannot be null or empty");
             }
 
-            // Find the card
+            // Update only the name: a full-row save would write back stale balances
+            if (creditCardRepository.updateCardHolderName(cardId, cardDto.getCardHolderName()) == 0) {
+                throw new ResourceNotFoundException("Card not found");
+            }
             CreditCard card = creditCardRepository.findById(cardId)
                     .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
 
-            // Update fields
-            card.setCardHolderName(cardDto.getCardHolderName());
-            creditCardRepository.save(card);
-
             logger.info("Card ID {} updated successfully", cardId);
 
             // Log user action as SUCCESS
@@ -217,6 +263,51 @@ public class CreditCardService {
         }
     }
 
+    // ✅ Get many cards by ID in one query
+    public ResponseEntity<ResponseStructure<BatchGetResultDto<CreditCardDto>>> getCardsByIds(List<Long> ids, Principal principal) {
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+        try {
+            logger.info("Batch fetching {} cards", ids == null ? 0 : ids.size());
+
+            BatchGetResultDto<CreditCardDto> result = new BatchGetResultDto<>();
+            Set<Long> validIds = BatchIds.normalize(ids, batchGetMaxIds, result.getErrors());
+
+            // ✅ One IN query for all cards (owner joined in the same select)
+            Map<Long, CreditCard> cards = validIds.isEmpty() ? Map.of()
+                    : creditCardRepository.findAllWithCustomerByIdIn(validIds).stream()
+                    .collect(Collectors.toMap(CreditCard::getId, Function.identity()));
+
+            for (Long id : validIds) {
+                CreditCard card = cards.get(id);
+                if (card == null) {
+                    result.getErrors().put(String.valueOf(id), "Card not found");
+                } else {
+                    result.getFound().add(toDto(card));
+                }
+            }
+
+            logger.info("Batch fetched {} of {} cards", result.getFound().size(), ids.size());
+
+            userActionLogService.logAction(
+                    username,
+                    "Batch Get Cards (" + ids.size() + " IDs, " + result.getErrors().size() + " errors)",
+                    "SUCCESS"
+            );
+
+            ResponseStructure<BatchGetResultDto<CreditCardDto>> structure = new ResponseStructure<>();
+            structure.setMessage("Fetched " + result.getFound().size() + " of " + ids.size() + " credit cards");
+            structure.setHttpstatus(result.getErrors().isEmpty() ? "SUCCESS" : "PARTIAL");
+            structure.setData(result);
+
+            return ResponseEntity.ok(structure);
+
+        } catch (Exception ex) {
+            logger.error("Error while batch fetching cards: {}", ex.getMessage());
+            userActionLogService.logAction(username, "Batch Get Cards", "FAILED: " + ex.getMessage());
+            throw ex;
+        }
+    }
+
     // ✅ Get all cards of a customer
     public ResponseEntity<ResponseStructure<List<CreditCardDto>>> getCardsByCustomer(Long customerId) {
         try {
@@ -272,6 +363,50 @@ public class CreditCardService {
         }
     }
 
+    // ✅ Get selected fields of all cards of a customer
+    public ResponseEntity<ResponseStructure<List<Map<String, Object>>>> getCardsByCustomer(Long customerId, String fields) {
+        try {
+            logger.info("Fetching cards for customer ID: {} with fields: {}", customerId, fields);
+
+            if (customerId == null || customerId <= 0) {
+                throw new InvalidInputException("Customer ID must be a positive number and cannot be null");
+            }
+
+            // Name only: avoids decrypting the customer's PII just to check it exists
+            String customerName = customerRepository.findNameById(customerId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Customer not found with ID: " + customerId));
+
+            List<Map<String, Object>> cards = sparseFieldRepository.findFields(
+                    CreditCard.class, FieldSelection.parse(fields, SPARSE_FIELDS), "customer.id", customerId);
+
+            logger.info("Fetched {} cards for customer ID: {}", cards.size(), customerId);
+
+            userActionLogService.logAction(
+                    customerName,
+                    "Fetch All Cards for Customer ID " + customerId + " (fields=" + fields + ")",
+                    "SUCCESS"
+            );
+
+            ResponseStructure<List<Map<String, Object>>> structure = new ResponseStructure<>();
+            structure.setMessage("All cards for customer fetched successfully");
+            structure.setHttpstatus("SUCCESS");
+            structure.setData(cards);
+
+            return ResponseEntity.ok(structure);
+
+        } catch (Exception ex) {
+            logger.error("Error while fetching cards for customer ID {}: {}", customerId, ex.getMessage());
+
+            userActionLogService.logAction(
+                    customerRepository.findNameById(customerId).orElse("UNKNOWN_USER"),
+                    "Fetch All Cards for Customer ID " + customerId + " (fields=" + fields + ")",
+                    "FAILED: " + ex.getMessage()
+            );
+
+            throw ex;
+        }
+    }
+
     // ✅ Delete card
     public ResponseEntity<ResponseStructure<String>> deleteCard(Long cardId) {
         try {
@@ -282,18 +417,27 @@ public class CreditCardService {
                 throw new InvalidInputException("Card ID must be a positive number and cannot be null");
             }
 
-            // ✅ Find card or throw exception
-            CreditCard card = creditCardRepository.findById(cardId)
+            // ✅ Owner name for the audit log (also tells whether the card exists)
+            String username = creditCardRepository.findCustomerNameById(cardId)
                     .orElseThrow(() -> new ResourceNotFoundException("Card not found with ID: " + cardId));
 
-            // ✅ Delete the card
-            creditCardRepository.delete(card);
+            // ✅ Soft delete: the card disappears at once, its transactions are purged in the background
+            boolean deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (creditCardRepository.softDelete(cardId, LocalDateTime.now()) == 0) {
+                    return false;
+                }
+                scheduledPaymentRepository.cancelActiveByCardIdIn(List.of(cardId));
+                return true;
+            }));
+            if (!deleted) {
+                throw new ResourceNotFoundException("Card not found with ID: " + cardId);
+            }
 
             logger.info("Card ID {} deleted successfully", cardId);
 
             // ✅ Log success action
             userActionLogService.logAction(
-                    card.getCustomer().getName(),
+                    username,
                     "Delete Card ID " + cardId,
                     "SUCCESS"
             );
@@ -310,7 +454,7 @@ public class CreditCardService {
             logger.error("Error while deleting card ID {}: {}", cardId, ex.getMessage());
 
             // ✅ Try to log with customer name if possible
-            String username =creditCardRepository.findById(cardId).get().getCustomer().getName();
+            String username = creditCardRepository.findCustomerNameById(cardId).orElse("UNKNOWN_USER");
 
             // ✅ Log failure action
             userActionLogService.logAction(
@@ -324,6 +468,45 @@ public class CreditCardService {
         }
     }
 
+    // Balance, transaction and rollups commit together, applied to the row-locked card: holds, batches,
+    // transfers and settlements that changed the row meanwhile are not overwritten
+    private CreditCard applyToLockedCard(Long cardId, double amount, String type) {
+        return transactionTemplate.execute(status -> {
+            CreditCard card = creditCardRepository.findAllByIdInForUpdate(List.of(cardId)).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("Card not found for customer"));
+
+            if ("DEBIT".equals(type)) {
+                cardLimitValidator.validateDebit(card, amount);
+                card.setTotalBalance(card.getTotalBalance() - amount);
+                card.setDailyDebitedAmount(card.getDailyDebitedAmount() + amount);
+            } else {
+                cardLimitValidator.validateCredit(card, amount);
+                card.setTotalBalance(card.getTotalBalance() + amount);
+                card.setDailyCreditedAmount(card.getDailyCreditedAmount() + amount);
+            }
+
+            Transaction transaction = new Transaction();
+            transaction.setAmount(amount);
+            transaction.setTransactionType(type);
+            transaction.setCardType(card.getCardType());
+            transaction.setDescription(("DEBIT".equals(type) ? "Debited ₹" : "Credited ₹") + amount);
+            transaction.setCreditCard(card);
+            transactionRepository.save(transaction);
+            transactionRollupService.record(List.of(transaction));
+            return card;
+        });
+    }
+
+    // Card id without loading the entity, so the locked read above is not served a stale managed copy
+    private Long resolveCardId(String cardNumber, Long customerId) {
+        return creditCardRepository.findRefsByCardNumberCipherTexts(aesUtil.lookupCandidates(cardNumber)).stream()
+                .filter(ref -> ref.getCustomerId().equals(customerId))
+                .map(CreditCardRepository.CardRef::getId)
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found for customer"));
+    }
+
     // ✅ Debit card
     public ResponseEntity<ResponseStructure<CreditCardDto>> debitCard(Long customerId, String cardNumber, double amount) {
         try {
@@ -341,33 +524,10 @@ public class CreditCardService {
             }
 
             // ✅ Find card
-            CreditCard card = creditCardRepository.findByCardNumberAndCustomerId(cardNumber, customerId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Card not found for customer"));
+            Long cardId = resolveCardId(cardNumber, customerId);
 
-            // ✅ Business validation
-            if (amount > card.getTotalBalance()) {
-                throw new ValidationException("Insufficient balance");
-            }
-            if (amount > card.getMAX_WITHDRAWAL_LIMIT()) {
-                throw new ValidationException("Max withdrawal limit exceeded");
-            }
-            if (card.getDailyDebitedAmount() + amount > card.getDAILY_DEBIT_LIMIT()) {
-                throw new ValidationException("Daily debit limit exceeded");
-            }
-
-            // ✅ Perform debit
-            card.setTotalBalance(card.getTotalBalance() - amount);
-            card.setDailyDebitedAmount(card.getDailyDebitedAmount() + amount);
-            creditCardRepository.save(card);
-
-            // ✅ Record transaction
-            Transaction transaction = new Transaction();
-            transaction.setAmount(amount);
-            transaction.setTransactionType("DEBIT");
-            transaction.setCardType(card.getCardType());
-            transaction.setDescription("Debited ₹" + amount);
-            transaction.setCreditCard(card);
-            transactionRepository.save(transaction);
+            // ✅ Validate and debit the locked card, record the transaction
+            CreditCard card = applyToLockedCard(cardId, amount, "DEBIT");
 
             logger.info("Debit of ₹{} recorded successfully for card {}", amount, cardNumber);
 
@@ -410,30 +570,10 @@ public class CreditCardService {
         logger.info("Crediting ₹{} to card {} for customer ID {}", amount, cardNumber, customerId);
 
         try {
-            CreditCard card = creditCardRepository.findByCardNumberAndCustomerId(cardNumber, customerId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Card not found for customer"));
-
-            if (amount > card.getMAX_CREDIT_LIMIT()) {
-                throw new ValidationException("Amount exceeds max credit limit");
-            }
-
-            if (card.getDailyCreditedAmount() + amount > card.getDAILY_CREDIT_LIMIT()) {
-                throw new ValidationException("Daily credit limit exceeded");
-            }
+            Long cardId = resolveCardId(cardNumber, customerId);
 
-            // ✅ Perform credit operation
-            card.setTotalBalance(card.getTotalBalance() + amount);
-            card.setDailyCreditedAmount(card.getDailyCreditedAmount() + amount);
-            creditCardRepository.save(card);
-
-            // ✅ Save transaction
-            Transaction transaction = new Transaction();
-            transaction.setAmount(amount);
-            transaction.setTransactionType("CREDIT");
-            transaction.setCardType(card.getCardType());
-            transaction.setDescription("Credited ₹" + amount);
-            transaction.setCreditCard(card);
-            transactionRepository.save(transaction);
+            // ✅ Validate and credit the locked card, record the transaction
+            CreditCard card = applyToLockedCard(cardId, amount, "CREDIT");
 
             logger.info("Credit of ₹{} recorded for card {}", amount, cardNumber);
 
@@ -0,0 +1,518 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CustomerImportJob;
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
+import com.Nikhil.CreditCardSystem.repo.CustomerImportJobRepository;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import com.Nikhil.CreditCardSystem.util.Csv;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk import of customers from a legacy system (CSV with a header row, or NDJSON).
+ *
+ * Three stages run concurrently: a reader thread parses the file into chunks of
+ * {@code customer-import.chunk-size} lines, at most two chunks ahead of the job thread. For every
+ * chunk the job thread drops duplicate usernames (usernames are encrypted deterministically, so
+ * one IN query finds existing ones) before anything expensive happens, then BCrypt-hashes the
+ * passwords and encrypts the PII fields in parallel on the customerImportExecutor, and finally
+ * inserts the chunk with one JDBC batch (ids from customer_seq blocks). Passwords that already are
+ * BCrypt hashes are stored as they are.
+ *
+ * The job's line counter commits with each chunk's customers, so an interrupted job resumes after
+ * the last committed line and never imports a customer twice. Duplicate and invalid lines are
+ * reported in {@code <file>.rejects} as line number and reason (never the line itself, which holds
+ * the password).
+ */
+@Service
+public class CustomerImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerImportJobService.class);
+
+    // Must match the allocationSize of customer_seq on Customer
+    private static final int CUSTOMER_ID_BLOCK = 50;
+    private static final int USERNAME_LOOKUP_CHUNK = 1000;
+    // Rows per hashing task: small enough to keep every pool thread busy until the chunk is done
+    private static final int HASH_SLICE = 50;
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+
+    private static final String INSERT_CUSTOMER_SQL =
+            "insert into customer (id, username, password, name, phone_number, email, role) values (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private CustomerImportJobRepository customerImportJobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AESUtil aesUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("customerImportExecutor")
+    private ExecutorService hashingExecutor;
+
+    @Value("${customer-import.input-dir:imports}")
+    private String inputDir;
+
+    @Value("${customer-import.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${customer-import.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    // Same strength as registration (CustomerService, SecurityConfig)
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "customer-import"));
+    private final ExecutorService readerExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "customer-import-reader"));
+    private final Set<Long> submitted = ConcurrentHashMap.newKeySet();
+
+    // One parsed line of the file; reject holds the reason it is not imported
+    private static final class Row {
+        final long line;
+        String name;
+        String username;
+        String password;
+        String email;
+        String phoneNumber;
+        String role;
+        String reject;
+        boolean duplicate;
+        String usernameCipherText;
+
+        Row(long line) {
+            this.line = line;
+        }
+    }
+
+    // Lines up to endLine; the reader's last chunk is marked last (or carries its failure)
+    private record Chunk(List<Row> rows, long endLine, boolean last, Exception failure) {
+    }
+
+    // ✅ Jobs interrupted by a shutdown continue after their last committed chunk
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnBoot() {
+        if (resumeOnStartup) {
+            customerImportJobRepository.findAllByStatusInOrderById(List.of("QUEUED", "RUNNING"))
+                    .forEach(job -> submit(job.getId()));
+        }
+    }
+
+    // ✅ Stores the job for a file in the import directory, then queues it
+    public JobStatusDto create(String requestedFile) {
+        Path file = resolve(requestedFile);
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        String format;
+        if (name.endsWith(".csv")) {
+            format = "CSV";
+        } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            format = "NDJSON";
+        } else {
+            throw new InvalidInputException("Import file must be .csv, .ndjson or .jsonl");
+        }
+
+        CustomerImportJob job = new CustomerImportJob();
+        job.setFileName(file.getFileName().toString());
+        job.setFormat(format);
+        job.setStatus("QUEUED");
+        job = customerImportJobRepository.save(job);
+
+        logger.info("Created customer import job {} for {}", job.getId(), job.getFileName());
+        submit(job.getId());
+        return toStatus(job);
+    }
+
+    public JobStatusDto getStatus(Long jobId) {
+        return toStatus(customerImportJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer import job not found with ID: " + jobId)));
+    }
+
+    // ✅ Re-queues a FAILED (or interrupted) job; returns false if it is already queued or done
+    public boolean resume(Long jobId) {
+        CustomerImportJob job = customerImportJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer import job not found with ID: " + jobId));
+        if ("COMPLETED".equals(job.getStatus())) {
+            return false;
+        }
+        return submit(jobId);
+    }
+
+    // Only plain file names inside the input directory
+    private Path resolve(String requestedFile) {
+        if (requestedFile == null || requestedFile.isBlank()) {
+            throw new InvalidInputException("File name must not be empty");
+        }
+        Path dir = Paths.get(inputDir).toAbsolutePath().normalize();
+        Path file = dir.resolve(requestedFile.trim()).normalize();
+        if (!file.getParent().equals(dir)) {
+            throw new InvalidInputException("File must be a plain file name in the customer import directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new InvalidInputException("Import file not found: " + requestedFile);
+        }
+        return file;
+    }
+
+    private boolean submit(Long jobId) {
+        if (!submitted.add(jobId)) {
+            return false;
+        }
+        executor.submit(() -> {
+            try {
+                run(jobId);
+            } finally {
+                submitted.remove(jobId);
+            }
+        });
+        return true;
+    }
+
+    private void run(Long jobId) {
+        updateJob(jobId, job -> {
+            job.setStatus("RUNNING");
+            job.setLastError(null);
+            job.setFinishedAt(null);
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(LocalDateTime.now());
+            }
+        });
+        CustomerImportJob job = customerImportJobRepository.findById(jobId).orElseThrow();
+        Path file = Paths.get(inputDir).toAbsolutePath().normalize().resolve(job.getFileName());
+        Path rejectFile = file.resolveSibling(job.getFileName() + ".rejects");
+
+        BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(2);
+        Future<?> reader = readerExecutor.submit(() -> read(file, job.getFormat(), job.getLinesRead(), chunks));
+        try (Writer rejects = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            while (true) {
+                Chunk chunk = chunks.take();
+                if (chunk.failure() != null) {
+                    throw chunk.failure();
+                }
+                importChunk(jobId, chunk, rejects);
+                if (chunk.last()) {
+                    break;
+                }
+            }
+            updateJob(jobId, done -> {
+                done.setStatus("COMPLETED");
+                done.setFinishedAt(LocalDateTime.now());
+            });
+            CustomerImportJob done = customerImportJobRepository.findById(jobId).orElseThrow();
+            logger.info("Customer import job {} finished: {} imported, {} duplicates, {} invalid",
+                    jobId, done.getImported(), done.getDuplicates(), done.getInvalid());
+        } catch (Exception ex) {
+            logger.error("Customer import job {} failed: {}", jobId, ex.getMessage(), ex);
+            updateJob(jobId, failed -> {
+                failed.setStatus("FAILED");
+                failed.setLastError(ex.getMessage());
+                failed.setFinishedAt(LocalDateTime.now());
+            });
+        } finally {
+            reader.cancel(true);
+        }
+    }
+
+    // ✅ Stage 1: parse lines after the checkpoint into chunks
+    private void read(Path file, String format, long linesDone, BlockingQueue<Chunk> chunks) {
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                long lineNo = 0;
+                Map<String, Integer> columns = null;
+                if ("CSV".equals(format)) {
+                    String header = reader.readLine();
+                    if (header == null) {
+                        chunks.put(new Chunk(List.of(), 0, true, null));
+                        return;
+                    }
+                    lineNo = 1;
+                    columns = columns(header);
+                }
+                while (lineNo < linesDone && reader.readLine() != null) {
+                    lineNo++;
+                }
+
+                List<Row> rows = new ArrayList<>(chunkSize);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNo++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    rows.add(columns != null ? parseCsv(line, lineNo, columns) : parseJson(line, lineNo));
+                    if (rows.size() == chunkSize) {
+                        chunks.put(new Chunk(rows, lineNo, false, null));
+                        rows = new ArrayList<>(chunkSize);
+                    }
+                }
+                chunks.put(new Chunk(rows, lineNo, true, null));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            try {
+                chunks.put(new Chunk(List.of(), 0, true, ex));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Map<String, Integer> columns(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = Csv.parseLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        for (String required : List.of("name", "username", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new InvalidInputException("CSV header must contain name, username and password columns");
+            }
+        }
+        return columns;
+    }
+
+    private static Row parseCsv(String line, long lineNo, Map<String, Integer> columns) {
+        List<String> values = Csv.parseLine(line);
+        Row row = new Row(lineNo);
+        row.name = value(values, columns.get("name"));
+        row.username = value(values, columns.get("username"));
+        row.password = value(values, columns.get("password"));
+        row.email = value(values, columns.get("email"));
+        row.phoneNumber = value(values, columns.get("phonenumber"));
+        row.role = value(values, columns.get("role"));
+        return validate(row);
+    }
+
+    private Row parseJson(String line, long lineNo) {
+        Row row = new Row(lineNo);
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            row.name = text(node, "name");
+            row.username = text(node, "username");
+            row.password = text(node, "password");
+            row.email = text(node, "email");
+            row.phoneNumber = text(node, "phoneNumber");
+            row.role = text(node, "role");
+        } catch (IOException ex) {
+            row.reject = "Malformed JSON";
+            return row;
+        }
+        return validate(row);
+    }
+
+    private static Row validate(Row row) {
+        if (row.name == null || row.username == null || row.password == null) {
+            row.reject = "Name, username and password are required";
+        } else if (row.role != null && !row.role.equalsIgnoreCase("USER") && !row.role.equalsIgnoreCase("ADMIN")) {
+            row.reject = "Role must be USER or ADMIN";
+        } else {
+            row.role = row.role == null ? "USER" : row.role.toUpperCase(Locale.ROOT);
+        }
+        return row;
+    }
+
+    private static String value(List<String> values, Integer index) {
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() || value.asText().isBlank() ? null : value.asText().trim();
+    }
+
+    private void importChunk(Long jobId, Chunk chunk, Writer rejects) throws Exception {
+        List<Row> rows = chunk.rows();
+
+        // ✅ Stage 2a: duplicates before any hashing (in the database, or earlier in this chunk;
+        // earlier chunks are already committed, so the database check covers them)
+        List<Row> accepted = new ArrayList<>(rows.size());
+        Set<String> seen = new HashSet<>();
+        for (Row row : rows) {
+            if (row.reject == null) {
+                row.usernameCipherText = aesUtil.encrypt(row.username);
+                if (!seen.add(row.username)) {
+                    row.reject = "Duplicate username in file";
+                    row.duplicate = true;
+                } else {
+                    accepted.add(row);
+                }
+            }
+        }
+        Set<String> taken = existingUsernames(accepted);
+        accepted.removeIf(row -> {
+            if (taken.contains(row.username)) {
+                row.reject = "Username already exists";
+                row.duplicate = true;
+                return true;
+            }
+            return false;
+        });
+
+        // ✅ Stage 2b: BCrypt and field encryption, spread over the pool
+        List<Object[]> inserts = prepare(accepted);
+
+        // ✅ Stage 3: one batch and the checkpoint in one transaction
+        long duplicates = rows.stream().filter(row -> row.duplicate).count();
+        long invalid = rows.stream().filter(row -> row.reject != null && !row.duplicate).count();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = allocateCustomerIds(inserts.size());
+            for (int i = 0; i < inserts.size(); i++) {
+                inserts.get(i)[0] = ids.get(i);
+            }
+            jdbcTemplate.batchUpdate(INSERT_CUSTOMER_SQL, inserts);
+            jdbcTemplate.update("update customer_import_job set lines_read = ?, imported = imported + ?, "
+                            + "duplicates = duplicates + ?, invalid = invalid + ? where id = ?",
+                    chunk.endLine(), inserts.size(), duplicates, invalid, jobId);
+        });
+
+        if (duplicates + invalid > 0) {
+            for (Row row : rows) {
+                if (row.reject != null) {
+                    rejects.write(row.line + "," + Csv.escape(row.reject) + "\n");
+                }
+            }
+            rejects.flush();
+        }
+    }
+
+    private Set<String> existingUsernames(List<Row> rows) {
+        Set<String> taken = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += USERNAME_LOOKUP_CHUNK) {
+            // ciphertext -> plain username, for every format a stored row may be in
+            Map<String, String> usernameByCipherText = new HashMap<>();
+            for (Row row : rows.subList(from, Math.min(from + USERNAME_LOOKUP_CHUNK, rows.size()))) {
+                aesUtil.lookupCandidates(row.username).forEach(cipherText -> usernameByCipherText.put(cipherText, row.username));
+            }
+            List<String> cipherTexts = new ArrayList<>(usernameByCipherText.keySet());
+            jdbcTemplate.query("select username from customer where deleted_at is null and username in ("
+                            + placeholders(cipherTexts.size()) + ")",
+                    rs -> {
+                        taken.add(usernameByCipherText.get(rs.getString("username")));
+                    },
+                    cipherTexts.toArray());
+        }
+        return taken;
+    }
+
+    // Insert parameters in row order (id filled in later); slices run in parallel, AESUtil ciphers are per thread
+    private List<Object[]> prepare(List<Row> rows) throws ExecutionException, InterruptedException {
+        Object[][] params = new Object[rows.size()][];
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += HASH_SLICE) {
+            int start = from;
+            int end = Math.min(from + HASH_SLICE, rows.size());
+            futures.add(hashingExecutor.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    Row row = rows.get(i);
+                    String password = BCRYPT_HASH.matcher(row.password).matches() ? row.password : encoder.encode(row.password);
+                    params[i] = new Object[]{null, row.usernameCipherText, password, row.name,
+                            aesUtil.encrypt(row.phoneNumber), aesUtil.encrypt(row.email), row.role};
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return List.of(params);
+    }
+
+    // customer_seq increments by the block size; each value starts a block, as with Hibernate's pooled-lo optimizer
+    private List<Long> allocateCustomerIds(int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        int blocks = (count + CUSTOMER_ID_BLOCK - 1) / CUSTOMER_ID_BLOCK;
+        List<Long> starts = jdbcTemplate.queryForList("select nextval('customer_seq') from generate_series(1, ?)", Long.class, blocks);
+        List<Long> ids = new ArrayList<>(count);
+        for (Long start : starts) {
+            for (int i = 0; i < CUSTOMER_ID_BLOCK && ids.size() < count; i++) {
+                ids.add(start + i);
+            }
+        }
+        return ids;
+    }
+
+    private void updateJob(Long jobId, Consumer<CustomerImportJob> change) {
+        transactionTemplate.executeWithoutResult(status -> {
+            CustomerImportJob job = customerImportJobRepository.findById(jobId).orElseThrow();
+            change.accept(job);
+        });
+    }
+
+    private JobStatusDto toStatus(CustomerImportJob job) {
+        JobStatusDto dto = new JobStatusDto();
+        dto.setJob("customer-import-" + job.getId());
+        dto.setRunning("RUNNING".equals(job.getStatus()) || "QUEUED".equals(job.getStatus()));
+        dto.setProcessed(job.getLinesRead());
+        dto.setUpdated(job.getImported());
+        dto.setSkipped(job.getDuplicates() + job.getInvalid());
+        dto.setLastError(job.getLastError());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        readerExecutor.shutdownNow();
+    }
+}
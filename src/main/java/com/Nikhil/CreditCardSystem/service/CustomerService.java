@@ -1,18 +1,42 @@
 package com.Nikhil.CreditCardSystem.service;
 
 import java.security.Principal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
 import com.Nikhil.CreditCardSystem.Entity.Customer;
+import com.Nikhil.CreditCardSystem.dto.BatchGetResultDto;
+import com.Nikhil.CreditCardSystem.dto.CardPeriodTotalsDto;
 import com.Nikhil.CreditCardSystem.dto.CreditCardDto;
 import com.Nikhil.CreditCardSystem.dto.CustomerDto;
+import com.Nikhil.CreditCardSystem.dto.CustomerOverviewDto;
+import com.Nikhil.CreditCardSystem.dto.TransactionDto;
 import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
 import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
 import com.Nikhil.CreditCardSystem.model.CustomerModel;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
 import com.Nikhil.CreditCardSystem.repo.CustomerRepository;
+import com.Nikhil.CreditCardSystem.repo.ScheduledPaymentRepository;
+import com.Nikhil.CreditCardSystem.repo.SparseFieldRepository;
+import com.Nikhil.CreditCardSystem.repo.TransactionRepository;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import com.Nikhil.CreditCardSystem.util.BatchIds;
+import com.Nikhil.CreditCardSystem.util.DeadlineScope;
+import com.Nikhil.CreditCardSystem.util.FieldSelection;
 import com.Nikhil.CreditCardSystem.util.ResponseStructure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,6 +44,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -37,6 +62,37 @@ public class CustomerService {
     private CustomerRepository customerRepository;
     @Autowired
     private CreditCardService cardService;
+    @Autowired
+    private RequestCoalescingService requestCoalescingService;
+    @Autowired
+    private SparseFieldRepository sparseFieldRepository;
+    @Autowired
+    private AESUtil aesUtil;
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private ScheduledPaymentRepository scheduledPaymentRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    @Qualifier("overviewExecutor")
+    private ExecutorService overviewExecutor;
+
+    @Value("${coalescing.customer-by-id.timeout-ms:2000}")
+    private long customerByIdTimeoutMs;
+
+    @Value("${batch-get.max-ids:200}")
+    private int batchGetMaxIds;
+
+    @Value("${overview.timeout-ms:3000}")
+    private long overviewTimeoutMs;
+
+    @Value("${overview.max-recent-transactions:100}")
+    private int overviewMaxRecentTransactions;
 
 
 
@@ -44,15 +100,29 @@ public class CustomerService {
 
     private BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
 
+    // Fields a client may request with ?fields= (response name -> entity attribute)
+    private static final Map<String, String> SPARSE_FIELDS = Map.of(
+            "id", "id",
+            "username", "username",
+            "name", "name",
+            "phoneNumber", "phoneNumber",
+            "email", "email",
+            "role", "role");
+
     private CustomerDto toDto(Customer customer) {
+        return toDto(customer, customer.getCreditCards());
+    }
+
+    private CustomerDto toDto(Customer customer, List<CreditCard> creditCards) {
         CustomerDto dto = new CustomerDto();
         dto.setId(customer.getId());
         dto.setUsername(customer.getUsername());
         dto.setName(customer.getName());
         dto.setPhoneNumber(customer.getPhoneNumber());
         dto.setEmail(customer.getEmail());
-        dto.setCreditCards(customer.getCreditCards().stream().map(card -> {
+        dto.setCreditCards(creditCards.stream().map(card -> {
             CreditCardDto cardDto = new CreditCardDto();
+            cardDto.setId(card.getId());
             cardDto.setCardNumber(card.getCardNumber());
             cardDto.setCardHolderName(card.getCardHolderName());
             cardDto.setTotalBalance(card.getTotalBalance());
@@ -145,13 +215,14 @@ public class CustomerService {
         logger.info("Fetching customer by ID: {}", id);
 
         try {
-            Customer customer = customerRepository.findById(id)
-                    .orElseThrow(() -> {
-                        logger.error("Customer with ID {} not found", id);
-                        return new ResourceNotFoundException("Customer not found");
-                    });
-
-            CustomerDto dto = toDto(customer);
+            // ✅ Concurrent requests for the same ID share one lookup
+            CustomerDto dto = requestCoalescingService.execute(
+                    "customer-by-id", id, Duration.ofMillis(customerByIdTimeoutMs),
+                    () -> toDto(customerRepository.findById(id)
+                            .orElseThrow(() -> {
+                                logger.error("Customer with ID {} not found", id);
+                                return new ResourceNotFoundException("Customer not found");
+                            })));
 
             logger.info("Customer with ID {} fetched successfully", id);
 
@@ -185,6 +256,143 @@ public class CustomerService {
         }
     }
 
+    public ResponseEntity<ResponseStructure<CustomerOverviewDto>> getCustomerOverview(Long id, int recent, int days) {
+        logger.info("Fetching overview for customer ID: {} (recent={}, days={})", id, recent, days);
+
+        try {
+            if (recent < 0 || recent > overviewMaxRecentTransactions) {
+                throw new InvalidInputException("recent must be between 0 and " + overviewMaxRecentTransactions);
+            }
+            if (days <= 0) {
+                throw new InvalidInputException("days must be greater than 0");
+            }
+            LocalDateTime periodStart = LocalDateTime.now().minusDays(days);
+
+            Customer customer;
+            List<CreditCard> cards;
+            List<TransactionDto> recentTransactions;
+            Map<Long, CardPeriodTotalsDto> totalsByCard;
+
+            // ✅ Profile, cards, recent transactions and period totals are independent reads:
+            //    run them in parallel under one deadline; the first failure cancels the rest
+            try (DeadlineScope scope = new DeadlineScope("Customer overview " + id, overviewExecutor,
+                    Duration.ofMillis(overviewTimeoutMs))) {
+                Future<Customer> profileTask = scope.fork(() -> customerRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Customer not found")));
+                Future<List<CreditCard>> cardsTask = scope.fork(() -> creditCardRepository.findAllByCustomerId(id));
+                Future<List<TransactionDto>> recentTask = scope.fork(() -> recent == 0 ? List.<TransactionDto>of()
+                        : transactionRepository.findRecentByCustomerId(id, PageRequest.of(0, recent)).stream()
+                        .map(transactionService::toDto)
+                        .toList());
+                Future<Map<Long, CardPeriodTotalsDto>> totalsTask = scope.fork(() ->
+                        transactionRepository.sumByCardSince(id, periodStart).stream()
+                                .collect(Collectors.toMap(CardPeriodTotalsDto::getCardId, Function.identity())));
+
+                scope.join();
+
+                customer = DeadlineScope.resultOf(profileTask);
+                cards = DeadlineScope.resultOf(cardsTask);
+                recentTransactions = DeadlineScope.resultOf(recentTask);
+                totalsByCard = DeadlineScope.resultOf(totalsTask);
+            }
+
+            CustomerOverviewDto overview = new CustomerOverviewDto();
+            overview.setCustomer(toDto(customer, cards));
+            overview.setRecentTransactions(recentTransactions);
+            overview.setPeriodStart(periodStart);
+            overview.setCardTotals(cards.stream()
+                    .map(card -> totalsByCard.getOrDefault(card.getId(),
+                            new CardPeriodTotalsDto(card.getId(), 0.0, 0.0, 0L)))
+                    .toList());
+
+            logger.info("Overview for customer ID {} fetched successfully", id);
+
+            // ✅ Log SUCCESS
+            userActionLogService.logAction(
+                    customer.getName(),
+                    "Fetch Customer Overview ID " + id,
+                    "SUCCESS"
+            );
+
+            ResponseStructure<CustomerOverviewDto> structure = new ResponseStructure<>();
+            structure.setMessage("Customer overview fetched successfully");
+            structure.setHttpstatus("SUCCESS");
+            structure.setData(overview);
+
+            return ResponseEntity.ok(structure);
+
+        } catch (RuntimeException ex) {
+            logger.error("Failed to fetch overview for customer ID {}: {}", id, ex.getMessage());
+
+            // ✅ Log FAILED
+            userActionLogService.logAction(
+                    customerRepository.findNameById(id).orElse("UNKNOWN_USER"),
+                    "Fetch Customer Overview ID " + id,
+                    "FAILED: " + ex.getMessage()
+            );
+
+            throw ex; // handled by @RestControllerAdvice
+        }
+    }
+
+    public ResponseEntity<ResponseStructure<BatchGetResultDto<CustomerDto>>> getCustomersByIds(List<Long> ids, Principal principal) {
+        logger.info("Batch fetching {} customers", ids == null ? 0 : ids.size());
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+
+        try {
+            BatchGetResultDto<CustomerDto> result = new BatchGetResultDto<>();
+            Set<Long> validIds = BatchIds.normalize(ids, batchGetMaxIds, result.getErrors());
+
+            Map<Long, Customer> customers = Map.of();
+            Map<Long, List<CreditCard>> cardsByCustomer = Map.of();
+            if (!validIds.isEmpty()) {
+                // ✅ One IN query for the customers and one for all of their cards,
+                //    instead of a lazy card load per customer
+                customers = customerRepository.findAllById(validIds).stream()
+                        .collect(Collectors.toMap(Customer::getId, Function.identity()));
+                cardsByCustomer = creditCardRepository.findAllByCustomerIdIn(customers.keySet()).stream()
+                        .collect(Collectors.groupingBy(card -> card.getCustomer().getId()));
+            }
+
+            for (Long id : validIds) {
+                Customer customer = customers.get(id);
+                if (customer == null) {
+                    result.getErrors().put(String.valueOf(id), "Customer not found");
+                } else {
+                    result.getFound().add(toDto(customer, cardsByCustomer.getOrDefault(id, List.of())));
+                }
+            }
+
+            logger.info("Batch fetched {} of {} customers", result.getFound().size(), ids.size());
+
+            // ✅ Log SUCCESS
+            userActionLogService.logAction(
+                    username,
+                    "Batch Get Customers (" + ids.size() + " IDs, " + result.getErrors().size() + " errors)",
+                    "SUCCESS"
+            );
+
+            ResponseStructure<BatchGetResultDto<CustomerDto>> structure = new ResponseStructure<>();
+            structure.setMessage("Fetched " + result.getFound().size() + " of " + ids.size() + " customers");
+            structure.setHttpstatus(result.getErrors().isEmpty() ? "SUCCESS" : "PARTIAL");
+            structure.setData(result);
+
+            return ResponseEntity.ok(structure);
+
+        } catch (InvalidInputException ex) {
+            logger.error("Failed to batch fetch customers: {}", ex.getMessage());
+
+            // ✅ Log FAILED
+            userActionLogService.logAction(
+                    username,
+                    "Batch Get Customers",
+                    "FAILED: " + ex.getMessage()
+            );
+
+            throw ex; // handled by @RestControllerAdvice
+        }
+    }
+
     public ResponseEntity<ResponseStructure<List<CustomerDto>>> getAllCustomers(Principal principal) {
         logger.info("Fetching all customers...");
 
@@ -232,24 +440,74 @@ public class CustomerService {
         }
     }
 
+    public ResponseEntity<ResponseStructure<List<Map<String, Object>>>> getAllCustomers(Principal principal, String fields) {
+        logger.info("Fetching all customers with fields: {}", fields);
+
+        try {
+            if (principal == null || principal.getName() == null) {
+                throw new InvalidInputException("User information is missing (Principal is null)");
+            }
+
+            // ✅ Only the requested columns are selected (and decrypted)
+            List<Map<String, Object>> rows = sparseFieldRepository.findFields(
+                    Customer.class, FieldSelection.parse(fields, SPARSE_FIELDS), null, null);
+
+            logger.info("Fetched {} customers successfully", rows.size());
+
+            userActionLogService.logAction(
+                    principal.getName(),
+                    "Fetch All Customers (fields=" + fields + ")",
+                    "SUCCESS"
+            );
+
+            ResponseStructure<List<Map<String, Object>>> structure = new ResponseStructure<>();
+            structure.setMessage("All customers fetched successfully");
+            structure.setHttpstatus("SUCCESS");
+            structure.setData(rows);
+
+            return ResponseEntity.ok(structure);
+
+        } catch (InvalidInputException ex) {
+            logger.error("Failed to fetch all customers: {}", ex.getMessage());
+
+            userActionLogService.logAction(
+                    principal != null ? principal.getName() : "UNKNOWN_USER",
+                    "Fetch All Customers (fields=" + fields + ")",
+                    "FAILED: " + ex.getMessage()
+            );
+
+            throw ex;
+        }
+    }
+
+    // ✅ Soft delete: customer and cards disappear at once, SoftDeletePurger removes the rows in the background
     public ResponseEntity<ResponseStructure<String>> deleteCustomer(Long id) {
         logger.info("Deleting customer with ID: {}", id);
+        String name = customerRepository.findNameById(id).orElse("UNKNOWN_USER");
 
         try {
-            // Find the customer or throw exception
-            Customer customer = customerRepository.findById(id)
-                    .orElseThrow(() -> {
-                        logger.error("Customer with ID {} not found for deletion", id);
-                        return new ResourceNotFoundException("Customer not found");
-                    });
-
-            // Perform delete
-            customerRepository.delete(customer);
+            // Flag customer and cards, stop their scheduled payments (no cards or transactions loaded)
+            boolean deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (customerRepository.softDelete(id, now) == 0) {
+                    return false;
+                }
+                List<Long> cardIds = creditCardRepository.findIdsByCustomerId(id);
+                if (!cardIds.isEmpty()) {
+                    scheduledPaymentRepository.cancelActiveByCardIdIn(cardIds);
+                    creditCardRepository.softDeleteByCustomerId(id, now);
+                }
+                return true;
+            }));
+            if (!deleted) {
+                logger.error("Customer with ID {} not found for deletion", id);
+                throw new ResourceNotFoundException("Customer not found");
+            }
             logger.info("Customer with ID {} deleted successfully", id);
 
             // ✅ Log success
             userActionLogService.logAction(
-                    customer.getName(),
+                    name,
                     "Delete Customer ID " + id,
                     "SUCCESS"
             );
@@ -264,12 +522,10 @@ public class CustomerService {
 
         } catch (ResourceNotFoundException ex) {
 
-            Customer customer = customerRepository.findById(id).get();
-
             // ✅ Log failed due to not found
             logger.error("Delete failed: {}", ex.getMessage());
             userActionLogService.logAction(
-                    customer.getName(),
+                    name,
                     "Delete Customer ID " + id,
                     "FAILED: " + ex.getMessage()
             );
@@ -286,7 +542,7 @@ public class CustomerService {
         ResponseStructure<String> structure = new ResponseStructure<>();
 
         if (authentication.isAuthenticated()) {
-            Customer customer = customerRepository.findByUsername(customerModel.getUsername());
+            Customer customer = customerRepository.findByUsernameCipherTexts(aesUtil.lookupCandidates(customerModel.getUsername()));
             if (customer == null) {
                 logger.error("User {} not found during login verification", customerModel.getUsername());
                 throw new RuntimeException("User not found");
@@ -0,0 +1,164 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job that rewrites legacy (AES/ECB) ciphertext in the current v1 format.
+ *
+ * Works on raw columns through JDBC in id-ordered chunks, so no entities are loaded. Each row is
+ * only updated if its columns still hold the values that were read, so a concurrent save from the
+ * application is never overwritten.
+ */
+@Service
+public class FieldReEncryptionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(FieldReEncryptionJob.class);
+
+    // Table -> columns mapped with EncryptDecryptConverter
+    private static final Map<String, List<String>> ENCRYPTED_COLUMNS = Map.of(
+            "customer", List.of("username", "phone_number", "email"),
+            "credit_card", List.of("card_number"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AESUtil aesUtil;
+
+    @Value("${field-encryption.reencrypt.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${field-encryption.reencrypt.on-startup:false}")
+    private boolean runOnStartup;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "field-reencryption"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile String lastError;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnBoot() {
+        if (runOnStartup) {
+            start();
+        }
+    }
+
+    // ✅ Returns false if a run is already in progress
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        processed.set(0);
+        updated.set(0);
+        skipped.set(0);
+        lastError = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        executor.submit(this::run);
+        return true;
+    }
+
+    public JobStatusDto getStatus() {
+        JobStatusDto dto = new JobStatusDto();
+        dto.setJob("field-reencryption");
+        dto.setRunning(running.get());
+        dto.setProcessed(processed.get());
+        dto.setUpdated(updated.get());
+        dto.setSkipped(skipped.get());
+        dto.setLastError(lastError);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        return dto;
+    }
+
+    private void run() {
+        try {
+            ENCRYPTED_COLUMNS.forEach(this::reEncryptTable);
+            logger.info("Field re-encryption finished: {} rows scanned, {} re-encrypted, {} skipped",
+                    processed.get(), updated.get(), skipped.get());
+        } catch (Exception ex) {
+            lastError = ex.getMessage();
+            logger.error("Field re-encryption failed: {}", ex.getMessage(), ex);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void reEncryptTable(String table, List<String> columns) {
+        String select = "select id, " + String.join(", ", columns) + " from " + table + " where id > ? order by id limit ?";
+        String update = "update " + table + " set "
+                + String.join(", ", columns.stream().map(c -> c + " = ?").toList())
+                + " where id = ? and "
+                + String.join(" and ", columns.stream().map(c -> c + " is not distinct from cast(? as varchar)").toList());
+
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(select, lastId, chunkSize);
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            List<Object[]> batch = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("id")).longValue();
+                Object[] args = new Object[columns.size() * 2 + 1];
+                boolean changed = false;
+                for (int i = 0; i < columns.size(); i++) {
+                    String current = (String) row.get(columns.get(i));
+                    String reEncrypted = current == null || aesUtil.isCurrentFormat(current)
+                            ? current
+                            : aesUtil.encrypt(aesUtil.decrypt(current));
+                    changed |= !Objects.equals(current, reEncrypted);
+                    args[i] = reEncrypted;
+                    args[columns.size() + 1 + i] = current;
+                }
+                args[columns.size()] = lastId;
+                if (changed) {
+                    batch.add(args);
+                }
+            }
+            processed.addAndGet(rows.size());
+
+            if (!batch.isEmpty()) {
+                for (int count : jdbcTemplate.batchUpdate(update, batch)) {
+                    if (count == 0) {
+                        skipped.incrementAndGet(); // row changed underneath us; the app already wrote v1
+                    } else {
+                        updated.incrementAndGet();
+                    }
+                }
+            }
+            logger.info("Re-encrypted {} up to id {}", table, lastId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
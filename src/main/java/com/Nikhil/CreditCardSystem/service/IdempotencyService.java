@@ -0,0 +1,232 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.IdempotencyRecord;
+import com.Nikhil.CreditCardSystem.exception.IdempotencyConflictException;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
+import com.Nikhil.CreditCardSystem.exception.ValidationException;
+import com.Nikhil.CreditCardSystem.repo.IdempotencyRecordRepository;
+import com.Nikhil.CreditCardSystem.util.ResponseStructure;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for requests that repeat an {@code Idempotency-Key}.
+ *
+ * Keys are scoped per caller and endpoint. The first request claims the key with an IN_PROGRESS
+ * row (unique index on username, endpoint, key), runs, and stores its response; a repeat gets the
+ * stored response without running again. Completed responses are also kept in a bounded LRU cache
+ * so most repeats never reach the database. Requests rejected by validation release their key, so
+ * the client can retry them; any other failure may have happened after the change committed, so the
+ * key is kept as UNSTORED and a repeat is refused rather than run again. Keys expire after {@code idempotency.ttl-hours} and are purged periodically.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String UNSTORED = "UNSTORED";
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // username|endpoint|key -> completed response, least recently used evicted first
+    private Map<String, StoredResponse> cache;
+
+    @PostConstruct
+    void initCache() {
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheMaxEntries;
+            }
+        });
+    }
+
+    /**
+     * Runs {@code action} at most once per key; without a key it just runs it.
+     *
+     * @param endpoint  logical endpoint name, part of the key scope
+     * @param key       value of the Idempotency-Key header, may be null
+     * @param principal caller, part of the key scope
+     * @param request   the request parameters; a repeat with different parameters is rejected
+     * @param action    the actual operation
+     */
+    public <T> ResponseEntity<ResponseStructure<T>> execute(String endpoint, String key, Principal principal, Object request,
+                                                            Supplier<ResponseEntity<ResponseStructure<T>>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidInputException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+        String cacheKey = username + "|" + endpoint + "|" + key;
+        String requestHash = hash(request);
+        LocalDateTime now = LocalDateTime.now();
+
+        // ✅ Fast path: completed response still in memory
+        StoredResponse cached = cache.get(cacheKey);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(now)) {
+                return replay(cached, requestHash, key);
+            }
+            cache.remove(cacheKey);
+        }
+
+        // ✅ Claim the key; the unique index decides between concurrent requests
+        IdempotencyRecord claim = new IdempotencyRecord();
+        claim.setUsername(username);
+        claim.setEndpoint(endpoint);
+        claim.setIdempotencyKey(key);
+        claim.setRequestHash(requestHash);
+        claim.setStatus(IN_PROGRESS);
+        claim.setCreatedAt(now);
+        claim.setExpiresAt(now.plusHours(ttlHours));
+        try {
+            claim = idempotencyRecordRepository.saveAndFlush(claim);
+        } catch (DataIntegrityViolationException ex) {
+            IdempotencyRecord existing = idempotencyRecordRepository
+                    .findByUsernameAndEndpointAndIdempotencyKey(username, endpoint, key)
+                    .orElseThrow(() -> new IdempotencyConflictException("Request with this " + HEADER + " is being released, retry"));
+
+            if (!existing.getExpiresAt().isAfter(now)) {
+                // Expired but not purged yet: the key is free again
+                idempotencyRecordRepository.delete(existing);
+                return execute(endpoint, key, principal, request, action);
+            }
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new ValidationException(HEADER + " " + key + " was already used with different request parameters");
+            }
+            if (UNSTORED.equals(existing.getStatus())) {
+                throw new IdempotencyConflictException("A request with this " + HEADER
+                        + " was already processed but no response was stored; check the outcome before retrying with a new key");
+            }
+            if (!COMPLETED.equals(existing.getStatus())) {
+                throw new IdempotencyConflictException("A request with this " + HEADER + " is still being processed");
+            }
+            StoredResponse stored = new StoredResponse(existing.getRequestHash(), existing.getResponseStatus(),
+                    existing.getResponseBody(), existing.getExpiresAt());
+            cache.put(cacheKey, stored);
+            return replay(stored, requestHash, key);
+        }
+
+        ResponseEntity<ResponseStructure<T>> response;
+        try {
+            response = action.get();
+        } catch (InvalidInputException | ValidationException | ResourceNotFoundException ex) {
+            // Rejected before anything was written; the client may retry with the same key
+            idempotencyRecordRepository.delete(claim);
+            throw ex;
+        } catch (RuntimeException ex) {
+            // May have failed after the change committed (audit log, response mapping): keep the key
+            // so a retry cannot apply the operation twice
+            logger.error("{} with key {} failed, its outcome is unknown: {}", endpoint, key, ex.getMessage());
+            markUnstored(claim, endpoint, key);
+            throw ex;
+        }
+
+        // ✅ Store the response for repeats
+        try {
+            StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                    objectMapper.writeValueAsString(response.getBody()), claim.getExpiresAt());
+            claim.setStatus(COMPLETED);
+            claim.setResponseStatus(stored.status());
+            claim.setResponseBody(stored.body());
+            idempotencyRecordRepository.save(claim);
+            cache.put(cacheKey, stored);
+        } catch (JsonProcessingException | RuntimeException ex) {
+            // The operation itself succeeded, so the key must not be freed for a second run;
+            // mark it so a repeat is told what happened instead of "still being processed"
+            logger.error("Could not store response for {} key {}: {}", endpoint, key, ex.getMessage());
+            markUnstored(claim, endpoint, key);
+        }
+        return response;
+    }
+
+    private void markUnstored(IdempotencyRecord claim, String endpoint, String key) {
+        try {
+            claim.setStatus(UNSTORED);
+            claim.setResponseStatus(null);
+            claim.setResponseBody(null);
+            idempotencyRecordRepository.save(claim);
+        } catch (RuntimeException ex) {
+            logger.error("Could not mark {} key {} as unstored, repeats get 409 until it expires: {}", endpoint, key, ex.getMessage());
+        }
+    }
+
+    // ✅ Drops expired keys from the table and the cache
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = idempotencyRecordRepository.deleteExpired(now);
+        synchronized (cache) {
+            cache.values().removeIf(stored -> !stored.expiresAt().isAfter(now));
+        }
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<ResponseStructure<T>> replay(StoredResponse stored, String requestHash, String key) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new ValidationException(HEADER + " " + key + " was already used with different request parameters");
+        }
+        try {
+            logger.info("Replaying stored response for {} {}", HEADER, key);
+            return ResponseEntity.status(stored.status())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readValue(stored.body(), ResponseStructure.class));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored response for " + HEADER + " " + key + " is unreadable", ex);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Could not hash request", ex);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int status, String body, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,483 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import com.Nikhil.CreditCardSystem.dto.LedgerDiscrepancyDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.repo.CardLedgerChecksumRepository;
+import com.Nikhil.CreditCardSystem.util.ColumnarTransactionFile.Row;
+import com.Nikhil.CreditCardSystem.util.Csv;
+import com.Nikhil.CreditCardSystem.util.TimeOrderedIdGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks every card's totalBalance against its ledger: opening balance + credits - debits.
+ *
+ * The card id space is cut into ranges of {@code reconciliation.partition-size} ids, checked in
+ * parallel on the reconciliationExecutor pool. A range reads its cards, their card_ledger_checksum
+ * rows and the transactions in one REPEATABLE READ snapshot, so balances and rows are consistent
+ * with each other while debits and credits go on.
+ *
+ * card_ledger_checksum keeps per card the count, net amount and an order independent checksum of
+ * every transaction up to an id watermark. A nightly (incremental) run only reads transactions above
+ * the watermarks, which are time-ordered ids, and re-checks just the cards that got transactions or
+ * whose balance moved since; a balance that changed without a transaction shows up as a mismatch.
+ * Rows newer than {@code reconciliation.commit-lag-seconds} are counted but not folded into the
+ * totals, so a transaction still being committed is not missed by the next run.
+ *
+ * A full run recomputes the totals from scratch, archived months (ColdTransactionStore) included,
+ * and reports cards whose history no longer matches their incremental checksum. A range without
+ * any checksum rows is always checked in full. Cards issued before the opening balance was recorded
+ * get it derived on their first check (BASELINED): drift from before that point cannot be seen.
+ *
+ * After each run the cards in MISMATCH are written to a CSV report under
+ * {@code reconciliation.report-dir}.
+ */
+@Service
+public class LedgerReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerReconciliationJob.class);
+
+    public static final String MATCHED = "MATCHED";
+    public static final String MISMATCH = "MISMATCH";
+    public static final String BASELINED = "BASELINED";
+
+    static final String REPORT_HEADER = "card_id,expected_balance,actual_balance,difference,tx_count,verified_at";
+
+    private static final String CARDS_SQL =
+            "select id, total_balance, opening_balance from credit_card where id >= ? and id < ? and deleted_at is null";
+
+    private static final String CHECKSUMS_SQL =
+            "select card_id, tx_count, net_amount, checksum, through_id, actual_balance from card_ledger_checksum "
+                    + "where card_id >= ? and card_id < ?";
+
+    private static final String TRANSACTIONS_SQL =
+            "select card_id, id, date_time, transaction_type, amount from transaction where card_id >= ? and card_id < ?";
+
+    private static final String UPSERT_SQL =
+            "insert into card_ledger_checksum (card_id, tx_count, net_amount, checksum, through_id, expected_balance, "
+                    + "actual_balance, difference, status, verified_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "on conflict (card_id) do update set tx_count = excluded.tx_count, net_amount = excluded.net_amount, "
+                    + "checksum = excluded.checksum, through_id = excluded.through_id, expected_balance = excluded.expected_balance, "
+                    + "actual_balance = excluded.actual_balance, difference = excluded.difference, status = excluded.status, "
+                    + "verified_at = excluded.verified_at";
+
+    private static final String REPORT_SQL =
+            "select card_id, expected_balance, actual_balance, difference, tx_count, verified_at from card_ledger_checksum "
+                    + "where status = 'MISMATCH' order by card_id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ColdTransactionStore coldTransactionStore;
+
+    @Autowired
+    private CardLedgerChecksumRepository cardLedgerChecksumRepository;
+
+    @Autowired
+    @Qualifier("reconciliationExecutor")
+    private ExecutorService partitionExecutor;
+
+    @Value("${reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reconciliation.partition-size:10000}")
+    private long partitionSize;
+
+    @Value("${reconciliation.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${reconciliation.commit-lag-seconds:300}")
+    private long commitLagSeconds;
+
+    @Value("${reconciliation.tolerance:0.005}")
+    private double tolerance;
+
+    @Value("${reconciliation.report-dir:reconciliation}")
+    private String reportDir;
+
+    // Cursor-based reads need a fetch size and a transaction (PostgreSQL only streams with autocommit off)
+    private JdbcTemplate streamingJdbc;
+    private TransactionTemplate snapshotTransaction;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> new Thread(r, "ledger-reconciliation"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong partitionsDone = new AtomicLong();
+    private final AtomicLong cardsVerified = new AtomicLong();
+    private final AtomicLong cardsUnchanged = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final AtomicLong historyChanged = new AtomicLong();
+    private volatile long partitionsTotal;
+    private volatile boolean fullRun;
+    private volatile String lastError;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    // What a run knows about the cold store and the id cutoff, shared by its partitions
+    private record RunContext(boolean full, long cutoffId, List<YearMonth> archivedMonths, LocalDateTime horizon,
+                              LocalDateTime verifiedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        streamingJdbc = new JdbcTemplate(dataSource);
+        streamingJdbc.setFetchSize(fetchSize);
+        snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setReadOnly(true);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Scheduled(cron = "${reconciliation.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            start(false);
+        }
+    }
+
+    // ✅ Returns false if a run is already in progress
+    public boolean start(boolean full) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        fullRun = full;
+        partitionsDone.set(0);
+        cardsVerified.set(0);
+        cardsUnchanged.set(0);
+        mismatches.set(0);
+        historyChanged.set(0);
+        partitionsTotal = 0;
+        lastError = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        coordinator.submit(() -> run(full));
+        return true;
+    }
+
+    public JobStatusDto getStatus() {
+        JobStatusDto dto = new JobStatusDto();
+        dto.setJob("ledger-reconciliation" + (fullRun ? "-full" : ""));
+        dto.setRunning(running.get());
+        dto.setTotal(partitionsTotal);
+        dto.setProcessed(partitionsDone.get());
+        dto.setUpdated(cardsVerified.get());
+        dto.setSkipped(cardsUnchanged.get());
+        dto.setLastError(lastError);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        return dto;
+    }
+
+    // ✅ Cards whose balance did not match their ledger at their last check, lowest card id first
+    public List<LedgerDiscrepancyDto> findDiscrepancies(int limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new InvalidInputException("limit must be between 1 and 1000");
+        }
+        return cardLedgerChecksumRepository.findByStatusOrderByCardId(MISMATCH, PageRequest.of(0, limit)).stream()
+                .map(checksum -> {
+                    LedgerDiscrepancyDto dto = new LedgerDiscrepancyDto();
+                    dto.setCardId(checksum.getCardId());
+                    dto.setExpectedBalance(checksum.getExpectedBalance());
+                    dto.setActualBalance(checksum.getActualBalance());
+                    dto.setDifference(checksum.getDifference());
+                    dto.setTransactionCount(checksum.getTxCount());
+                    dto.setVerifiedAt(checksum.getVerifiedAt());
+                    return dto;
+                })
+                .toList();
+    }
+
+    private void run(boolean full) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            RunContext context = new RunContext(full,
+                    TimeOrderedIdGenerator.maxIdAt(System.currentTimeMillis() - commitLagSeconds * 1000),
+                    coldTransactionStore.archivedMonths(), coldTransactionStore.horizon(), now);
+
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from credit_card", Long.class);
+            long upper = maxId == null ? 0 : maxId + 1;
+            partitionsTotal = (upper + partitionSize - 1) / partitionSize;
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (long from = 0; from < upper; from += partitionSize) {
+                long rangeFrom = from;
+                long rangeTo = from + partitionSize;
+                futures.add(partitionExecutor.submit(() -> reconcile(rangeFrom, rangeTo, context)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            Path report = writeReport(now);
+            logger.info("Ledger reconciliation ({}) finished: {} cards checked, {} unchanged, {} mismatches{}{}",
+                    full ? "full" : "incremental", cardsVerified.get(), cardsUnchanged.get(), mismatches.get(),
+                    report != null ? ", report " + report : "",
+                    full ? ", " + historyChanged.get() + " cards with changed history" : "");
+        } catch (ExecutionException ex) {
+            lastError = ex.getCause().getMessage();
+            logger.error("Ledger reconciliation failed: {}", lastError, ex.getCause());
+        } catch (Exception ex) {
+            lastError = ex.getMessage();
+            logger.error("Ledger reconciliation failed: {}", ex.getMessage(), ex);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    // One card id range: read in one snapshot, then write the changed cards in one transaction
+    private void reconcile(long from, long to, RunContext context) {
+        Map<Long, Ledger> ledgers = new HashMap<>();
+        Set<Long> hotArchivable = new HashSet<>();
+        Boolean rangeChecked = snapshotTransaction.execute(status -> {
+            streamingJdbc.query(CARDS_SQL, rs -> {
+                double opening = rs.getDouble("opening_balance");
+                Double openingBalance = rs.wasNull() ? null : opening;
+                ledgers.put(rs.getLong("id"), new Ledger(rs.getDouble("total_balance"), openingBalance));
+            }, from, to);
+
+            List<Long> watermarks = new ArrayList<>();
+            streamingJdbc.query(CHECKSUMS_SQL, rs -> {
+                Ledger ledger = ledgers.get(rs.getLong("card_id"));
+                if (ledger != null) {
+                    ledger.restore(rs.getLong("tx_count"), rs.getDouble("net_amount"), rs.getLong("checksum"),
+                            rs.getLong("through_id"), rs.getDouble("actual_balance"), context.full());
+                    watermarks.add(ledger.storedThroughId);
+                }
+            }, from, to);
+
+            // Incremental: everything above the lowest watermark of the range; ids below a card's own are skipped
+            boolean rangeFull = context.full() || watermarks.isEmpty();
+            long since = rangeFull ? Long.MIN_VALUE : watermarks.stream().mapToLong(Long::longValue).min().getAsLong();
+            streamingJdbc.query(TRANSACTIONS_SQL + (rangeFull ? "" : " and id > ?"), rs -> {
+                Ledger ledger = ledgers.get(rs.getLong("card_id"));
+                if (ledger == null) {
+                    return;
+                }
+                long id = rs.getLong("id");
+                if (rangeFull && context.horizon() != null && rs.getTimestamp("date_time").toLocalDateTime().isBefore(context.horizon())) {
+                    hotArchivable.add(id); // also in the cold store if an archive run was interrupted
+                }
+                ledger.apply(id, rs.getString("transaction_type"), rs.getDouble("amount"), context.cutoffId());
+            }, rangeFull ? new Object[]{from, to} : new Object[]{from, to, since});
+            return rangeFull;
+        });
+        boolean full = Boolean.TRUE.equals(rangeChecked);
+
+        // Archived months, one at a time so memory stays bounded by a month of the range
+        if (full) {
+            for (YearMonth month : context.archivedMonths()) {
+                for (Row row : coldTransactionStore.scan(ledgers.keySet(), month.atDay(1).atStartOfDay(),
+                        month.plusMonths(1).atDay(1).atStartOfDay())) {
+                    if (!hotArchivable.contains(row.id())) {
+                        ledgers.get(row.cardId()).apply(row.id(), row.transactionType(), row.amount(), context.cutoffId());
+                    }
+                }
+            }
+        }
+
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> openings = new ArrayList<>();
+        Timestamp verifiedAt = Timestamp.valueOf(context.verifiedAt());
+        for (Map.Entry<Long, Ledger> entry : ledgers.entrySet()) {
+            Ledger ledger = entry.getValue();
+            if (!full && !ledger.changed()) {
+                cardsUnchanged.incrementAndGet();
+                continue;
+            }
+            if (full && ledger.historyChanged()) {
+                historyChanged.incrementAndGet();
+                logger.warn("Ledger of card {} differs from its incremental checksum", entry.getKey());
+            }
+
+            double net = ledger.net + ledger.recentNet;
+            String status;
+            double expected;
+            if (ledger.openingBalance == null) {
+                double opening = ledger.balance - net;
+                openings.add(new Object[]{opening, entry.getKey()});
+                expected = ledger.balance;
+                status = BASELINED;
+            } else {
+                expected = ledger.openingBalance + net;
+                status = Math.abs(ledger.balance - expected) <= tolerance ? MATCHED : MISMATCH;
+            }
+            if (MISMATCH.equals(status)) {
+                mismatches.incrementAndGet();
+            }
+            upserts.add(new Object[]{entry.getKey(), ledger.count, ledger.net, ledger.checksum, context.cutoffId(),
+                    expected, ledger.balance, ledger.balance - expected, status, verifiedAt});
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+            jdbcTemplate.batchUpdate("update credit_card set opening_balance = ? where id = ? and opening_balance is null", openings);
+            // Unchanged cards had nothing up to the cutoff either: their watermark moves along
+            jdbcTemplate.update("update card_ledger_checksum set through_id = ? where card_id >= ? and card_id < ? and through_id < ?",
+                    context.cutoffId(), from, to, context.cutoffId());
+        });
+        cardsVerified.addAndGet(upserts.size());
+        partitionsDone.incrementAndGet();
+    }
+
+    // CSV of every card currently in MISMATCH; null when there is none
+    private Path writeReport(LocalDateTime runAt) throws IOException {
+        if (cardLedgerChecksumRepository.countByStatus(MISMATCH) == 0) {
+            return null;
+        }
+        Path dir = Paths.get(reportDir);
+        Files.createDirectories(dir);
+        Path file = dir.resolve("ledger-discrepancies-" + runAt.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))) {
+            out.write(REPORT_HEADER);
+            out.write('\n');
+            snapshotTransaction.executeWithoutResult(status -> streamingJdbc.query(REPORT_SQL, rs -> {
+                try {
+                    Csv.writeRow(out, Long.toString(rs.getLong("card_id")), Double.toString(rs.getDouble("expected_balance")),
+                            Double.toString(rs.getDouble("actual_balance")), Double.toString(rs.getDouble("difference")),
+                            Long.toString(rs.getLong("tx_count")), rs.getTimestamp("verified_at").toLocalDateTime().toString());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }));
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    // Hash of one ledger entry; summed (wrapping) into the card checksum, so order does not matter
+    static long entryHash(long id, double signedAmount) {
+        long h = id * 0x9E3779B97F4A7C15L ^ Double.doubleToLongBits(signedAmount);
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    // Ledger totals of one card while its range is checked
+    private static final class Ledger {
+        final double balance;
+        final Double openingBalance;
+
+        // Up to the cutoff: persisted
+        long count;
+        double net;
+        long checksum;
+        long throughId = Long.MIN_VALUE;
+
+        // Above the cutoff: part of the balance, folded in by a later run
+        long recentCount;
+        double recentNet;
+        long newEntries;
+
+        // Stored state; a full run compares what it finds up to storedThroughId with it
+        boolean stored;
+        long storedCount;
+        long storedChecksum;
+        long storedThroughId = Long.MIN_VALUE;
+        double storedBalance;
+        long seenCount;
+        long seenChecksum;
+
+        Ledger(double balance, Double openingBalance) {
+            this.balance = balance;
+            this.openingBalance = openingBalance;
+        }
+
+        void restore(long count, double net, long checksum, long throughId, double actualBalance, boolean full) {
+            stored = true;
+            storedCount = count;
+            storedChecksum = checksum;
+            storedThroughId = throughId;
+            storedBalance = actualBalance;
+            if (!full) {
+                this.count = count;
+                this.net = net;
+                this.checksum = checksum;
+                this.throughId = throughId;
+            }
+        }
+
+        void apply(long id, String type, double amount, long cutoffId) {
+            if (id <= throughId) {
+                return; // already in the stored totals
+            }
+            double signed = "DEBIT".equalsIgnoreCase(type) ? -amount : amount;
+            if (id > cutoffId) {
+                recentCount++;
+                recentNet += signed;
+                return;
+            }
+            long hash = entryHash(id, signed);
+            count++;
+            net += signed;
+            checksum += hash;
+            newEntries++;
+            if (id <= storedThroughId) {
+                seenCount++;
+                seenChecksum += hash;
+            }
+        }
+
+        boolean changed() {
+            return !stored || newEntries > 0 || recentCount > 0 || balance != storedBalance;
+        }
+
+        boolean historyChanged() {
+            return stored && (seenCount != storedCount || seenChecksum != storedChecksum);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+}
@@ -0,0 +1,167 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.Entity.LimitProfile;
+import com.Nikhil.CreditCardSystem.dto.LimitProfileDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
+import com.Nikhil.CreditCardSystem.exception.ValidationException;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
+import com.Nikhil.CreditCardSystem.repo.LimitProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Card limits, resolved from limit profiles instead of per-row columns.
+ *
+ * A card uses its own profile (CreditCard.limitProfileId) if it has one, else the profile of its
+ * card type, else the DEFAULT profile. All profiles are held in one immutable snapshot that is
+ * swapped atomically after every admin change (and reloaded periodically to pick up changes made
+ * on other instances), so the debit/credit checks never query the database for limits.
+ */
+@Service
+public class LimitProfileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LimitProfileService.class);
+
+    public static final String DEFAULT_PROFILE = "DEFAULT";
+
+    // Limits every card had before profiles existed; seeded as the DEFAULT profile
+    private static final Limits BUILT_IN = new Limits(50000, 20000, 50000, 50000);
+
+    public record Limits(double maxWithdrawal, double dailyDebit, double dailyCredit, double maxCredit) {
+    }
+
+    private record Snapshot(Map<Long, Limits> byId, Map<String, Limits> byCardType, Limits fallback, List<LimitProfileDto> profiles) {
+    }
+
+    @Autowired
+    private LimitProfileRepository limitProfileRepository;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), BUILT_IN, List.of());
+
+    // ✅ Limits that apply to the card (no DB access)
+    public Limits limitsFor(CreditCard card) {
+        Snapshot current = snapshot;
+        Limits limits = card.getLimitProfileId() != null ? current.byId().get(card.getLimitProfileId()) : null;
+        if (limits == null && card.getCardType() != null) {
+            limits = current.byCardType().get(card.getCardType().toUpperCase(Locale.ROOT));
+        }
+        return limits != null ? limits : current.fallback();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedAndLoad() {
+        if (limitProfileRepository.findByName(DEFAULT_PROFILE).isEmpty()) {
+            LimitProfile profile = new LimitProfile();
+            profile.setName(DEFAULT_PROFILE);
+            apply(profile, BUILT_IN);
+            try {
+                limitProfileRepository.save(profile);
+                logger.info("Created {} limit profile", DEFAULT_PROFILE);
+            } catch (DataIntegrityViolationException ex) {
+                // Another instance seeded it first
+            }
+        }
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${limit-profiles.refresh-ms:60000}", initialDelayString = "${limit-profiles.refresh-ms:60000}")
+    public void reload() {
+        List<LimitProfile> profiles = limitProfileRepository.findAll();
+        Map<Long, Limits> byId = new HashMap<>();
+        Map<String, Limits> byCardType = new HashMap<>();
+        Limits fallback = BUILT_IN;
+        for (LimitProfile profile : profiles) {
+            Limits limits = new Limits(profile.getMaxWithdrawalLimit(), profile.getDailyDebitLimit(),
+                    profile.getDailyCreditLimit(), profile.getMaxCreditLimit());
+            byId.put(profile.getId(), limits);
+            if (profile.getCardType() != null) {
+                byCardType.put(profile.getCardType().toUpperCase(Locale.ROOT), limits);
+            }
+            if (DEFAULT_PROFILE.equals(profile.getName())) {
+                fallback = limits;
+            }
+        }
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byCardType), fallback,
+                profiles.stream().map(this::toDto).toList());
+        logger.debug("Loaded {} limit profiles", profiles.size());
+    }
+
+    public List<LimitProfileDto> getProfiles() {
+        return snapshot.profiles();
+    }
+
+    // ✅ Creates the profile, or updates the one with the same name
+    public LimitProfileDto save(LimitProfileDto request) {
+        if (request == null || request.getName() == null || request.getName().trim().isEmpty()) {
+            throw new InvalidInputException("Profile name must not be empty");
+        }
+        if (request.getMaxWithdrawalLimit() <= 0 || request.getDailyDebitLimit() <= 0
+                || request.getDailyCreditLimit() <= 0 || request.getMaxCreditLimit() <= 0) {
+            throw new InvalidInputException("All limits must be greater than zero");
+        }
+        String name = request.getName().trim();
+        String cardType = request.getCardType() == null || request.getCardType().trim().isEmpty()
+                ? null : request.getCardType().trim().toUpperCase(Locale.ROOT);
+
+        LimitProfile profile = limitProfileRepository.findByName(name).orElseGet(LimitProfile::new);
+        profile.setName(name);
+        profile.setCardType(cardType);
+        apply(profile, new Limits(request.getMaxWithdrawalLimit(), request.getDailyDebitLimit(),
+                request.getDailyCreditLimit(), request.getMaxCreditLimit()));
+        try {
+            profile = limitProfileRepository.saveAndFlush(profile);
+        } catch (DataIntegrityViolationException ex) {
+            throw new ValidationException("Card type " + cardType + " already has a limit profile");
+        }
+
+        logger.info("Saved limit profile {} (card type {})", name, cardType);
+        reload();
+        return toDto(profile);
+    }
+
+    // ✅ Gives the card its own profile; null returns it to its card type's profile
+    public void assignToCard(Long cardId, Long profileId) {
+        if (profileId != null && !limitProfileRepository.existsById(profileId)) {
+            throw new ResourceNotFoundException("Limit profile not found with ID: " + profileId);
+        }
+        if (creditCardRepository.updateLimitProfileId(cardId, profileId) == 0) {
+            throw new ResourceNotFoundException("Card not found with ID: " + cardId);
+        }
+        logger.info("Assigned limit profile {} to card ID {}", profileId, cardId);
+    }
+
+    private static void apply(LimitProfile profile, Limits limits) {
+        profile.setMaxWithdrawalLimit(limits.maxWithdrawal());
+        profile.setDailyDebitLimit(limits.dailyDebit());
+        profile.setDailyCreditLimit(limits.dailyCredit());
+        profile.setMaxCreditLimit(limits.maxCredit());
+    }
+
+    private LimitProfileDto toDto(LimitProfile profile) {
+        LimitProfileDto dto = new LimitProfileDto();
+        dto.setId(profile.getId());
+        dto.setName(profile.getName());
+        dto.setCardType(profile.getCardType());
+        dto.setMaxWithdrawalLimit(profile.getMaxWithdrawalLimit());
+        dto.setDailyDebitLimit(profile.getDailyDebitLimit());
+        dto.setDailyCreditLimit(profile.getDailyCreditLimit());
+        dto.setMaxCreditLimit(profile.getMaxCreditLimit());
+        return dto;
+    }
+}
@@ -3,6 +3,7 @@ package com.Nikhil.CreditCardSystem.service;
 import com.Nikhil.CreditCardSystem.Entity.Customer;
 import com.Nikhil.CreditCardSystem.model.UserPrincipal;
 import com.Nikhil.CreditCardSystem.repo.CustomerRepository;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,11 +20,14 @@ public class MyUserDetailsService implements UserDetailsService{
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private AESUtil aesUtil;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
 
-        Customer customer  = customerRepository.findByUsername(username);
+        Customer customer  = customerRepository.findByUsernameCipherTexts(aesUtil.lookupCandidates(username));
         if(customer == null)
         {
             System.out.println("User not found");
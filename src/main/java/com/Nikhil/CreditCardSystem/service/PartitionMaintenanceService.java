@@ -0,0 +1,206 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.dto.PartitionDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of transaction and user_action_logs (see
+ * db/migration/partition-by-month.sql) ahead of time and detaches old ones.
+ *
+ * Partitions are created {@code partitions.months-ahead} months in advance at startup and daily.
+ * A new partition is built as a plain table, filled with any rows of its month that landed in the
+ * DEFAULT partition, and then attached, so creating it never fails on rows inserted early.
+ *
+ * Detaching ({@code partitions.detach-after-months}, or on demand) turns a month into a standalone
+ * table with the same name; nothing is dropped here. A transaction partition is only detached once
+ * it is empty, i.e. TransactionArchiveJob has moved its rows to the cold store (the job then detaches
+ * and drops it itself): a month that vanished from the table without being archived would be rebuilt
+ * as empty by RollupBackfillJob and missing from balance queries and reconciliation. Queries that
+ * filter on the partition column only read the months they cover.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+    // Partitioned table -> partition column
+    static final Map<String, String> PARTITIONED = Map.of(
+            "transaction", "date_time",
+            "user_action_logs", "action_time");
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyy_MM");
+    private static final Pattern RANGE_BOUND = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+
+    private static final String PARTITIONS_SQL =
+            "select c.relname, pg_get_expr(c.relpartbound, c.oid) as bound, c.reltuples "
+                    + "from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+                    + "where i.inhparent = to_regclass(?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${partitions.detach-after-months:0}")
+    private int detachAfterMonths;
+
+    // ✅ Future months for every partitioned table, then automatic detaching if configured
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        for (String table : PARTITIONED.keySet()) {
+            try {
+                if (!isPartitioned(table)) {
+                    logger.warn("{} is not partitioned; check db/migration/partition-by-month.sql", table);
+                    continue;
+                }
+                createAhead(table);
+                if (detachAfterMonths > 0) {
+                    detachBefore(table, YearMonth.now().minusMonths(detachAfterMonths));
+                }
+            } catch (RuntimeException ex) {
+                logger.error("Partition maintenance of {} failed: {}", table, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    public List<PartitionDto> getPartitions() {
+        List<PartitionDto> partitions = new ArrayList<>();
+        PARTITIONED.keySet().stream().sorted().forEach(table -> partitions.addAll(partitionsOf(table)));
+        return partitions;
+    }
+
+    // ✅ Detaches every month partition that ends on or before the start of the given month
+    // (for transaction: only those without rows left)
+    public List<String> detachBefore(String table, YearMonth before) {
+        if (!PARTITIONED.containsKey(table)) {
+            throw new InvalidInputException("Table must be one of " + PARTITIONED.keySet());
+        }
+        if (!before.isBefore(YearMonth.now())) {
+            throw new InvalidInputException("Only months before the current month can be detached");
+        }
+        LocalDateTime cutoff = before.atDay(1).atStartOfDay();
+        List<String> detached = new ArrayList<>();
+        for (PartitionDto partition : partitionsOf(table)) {
+            if (partition.getTo() != null && !partition.getTo().isAfter(cutoff)) {
+                if (detach(table, partition.getPartition())) {
+                    detached.add(partition.getPartition());
+                    logger.info("Detached partition {} from {} ({} to {})", partition.getPartition(), table,
+                            partition.getFrom(), partition.getTo());
+                } else {
+                    logger.warn("Partition {} still has transactions; kept until TransactionArchiveJob has archived it",
+                            partition.getPartition());
+                }
+            }
+        }
+        return detached;
+    }
+
+    // Transaction rows must not leave the table before they are archived: the emptiness check runs after
+    // the detach, which holds its locks until commit, so no row can slip in between
+    private boolean detach(String table, String partition) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(String.format("alter table %s detach partition %s", quote(table), quote(partition)));
+            if ("transaction".equals(table) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    String.format("select exists (select 1 from %s)", quote(partition)), Boolean.class))) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        }));
+    }
+
+    // Months from the end of the last range partition up to monthsAhead after the current one
+    private void createAhead(String table) {
+        LocalDateTime covered = partitionsOf(table).stream()
+                .filter(partition -> !partition.isDefaultPartition())
+                .map(PartitionDto::getTo)
+                .max(Comparator.naturalOrder())
+                .orElse(YearMonth.now().atDay(1).atStartOfDay());
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        for (YearMonth month = YearMonth.from(covered); !month.isAfter(last); month = month.plusMonths(1)) {
+            createPartition(table, month);
+        }
+    }
+
+    private void createPartition(String table, YearMonth month) {
+        String column = PARTITIONED.get(table);
+        String partition = table + PARTITION_SUFFIX.format(month.atDay(1));
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(String.format("create table %s (like %s including defaults)", quote(partition), quote(table)));
+            // Rows of this month inserted before the partition existed went to DEFAULT; the attach below
+            // would fail while they are there
+            String defaultPartition = quote(table + "_default");
+            jdbcTemplate.update(String.format("insert into %s select * from %s where %s >= ? and %s < ?",
+                    quote(partition), defaultPartition, column, column), from, to);
+            int moved = jdbcTemplate.update(String.format("delete from %s where %s >= ? and %s < ?",
+                    defaultPartition, column, column), from, to);
+            jdbcTemplate.execute(String.format("alter table %s attach partition %s for values from ('%s') to ('%s')",
+                    quote(table), quote(partition), from, to));
+            logger.info("Created partition {} of {}{}", partition, table, moved > 0 ? " (" + moved + " rows moved from default)" : "");
+        });
+    }
+
+    private boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass(?))", Boolean.class, table));
+    }
+
+    private List<PartitionDto> partitionsOf(String table) {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> {
+            PartitionDto dto = new PartitionDto();
+            dto.setTable(table);
+            dto.setPartition(rs.getString("relname"));
+            dto.setEstimatedRows(Math.max(0, (long) rs.getFloat("reltuples")));
+            String bound = rs.getString("bound");
+            Matcher range = RANGE_BOUND.matcher(bound);
+            if (range.find()) {
+                dto.setFrom(boundValue(range.group(1)));
+                dto.setTo(boundValue(range.group(2)));
+            } else {
+                dto.setDefaultPartition(true);
+            }
+            return dto;
+        }, table).stream().sorted(Comparator.comparing(PartitionDto::getTo, Comparator.nullsLast(Comparator.naturalOrder()))).toList();
+    }
+
+    // 'yyyy-MM-dd HH:mm:ss' or MINVALUE / MAXVALUE as printed by pg_get_expr
+    private static LocalDateTime boundValue(String value) {
+        if (!value.startsWith("'")) {
+            return null;
+        }
+        return LocalDateTime.parse(value.substring(1, value.length() - 1).replace(' ', 'T'));
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,110 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.dto.CoalescingStatsDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer for read paths.
+ *
+ * The first caller for a key (the leader) runs the loader on its own thread; every caller that
+ * arrives with the same key while the leader is still running waits for that result instead of
+ * issuing the same queries again. Nothing is cached: the key is dropped as soon as the leader
+ * finishes, so the next request always reads fresh data.
+ */
+@Service
+public class RequestCoalescingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescingService.class);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code loader} once per concurrent burst of identical calls.
+     *
+     * @param endpoint logical endpoint name, also the bucket metrics are reported under
+     * @param key      arguments that make two calls identical (e.g. the customer id)
+     * @param timeout  how long a follower waits for the leader before loading on its own
+     * @param loader   the actual read; must return a fully materialized (DTO) result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String endpoint, Object key, Duration timeout, Supplier<T> loader) {
+        String flightKey = endpoint + ":" + key;
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, e -> new EndpointStats());
+
+        CompletableFuture<Object> ownFlight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, ownFlight);
+
+        if (existing == null) {
+            // ✅ Leader: run the query and hand the result to everyone who joined meanwhile
+            endpointStats.executions.increment();
+            try {
+                T result = loader.get();
+                ownFlight.complete(result);
+                return result;
+            } catch (Throwable ex) {
+                // Errors too, or followers would wait out their timeout on a flight that never completes
+                endpointStats.failures.increment();
+                ownFlight.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(flightKey, ownFlight);
+            }
+        }
+
+        // ✅ Follower: share the leader's result
+        endpointStats.coalesced.increment();
+        try {
+            return (T) existing.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            endpointStats.timeouts.increment();
+            logger.warn("Coalesced call {} waited more than {} ms, loading independently", flightKey, timeout.toMillis());
+            return loader.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for coalesced call " + flightKey, ex);
+        }
+    }
+
+    public Map<String, CoalescingStatsDto> getStats() {
+        Map<String, CoalescingStatsDto> snapshot = new TreeMap<>();
+        stats.forEach((endpoint, endpointStats) -> {
+            CoalescingStatsDto dto = new CoalescingStatsDto();
+            dto.setExecutions(endpointStats.executions.sum());
+            dto.setCoalescedCalls(endpointStats.coalesced.sum());
+            dto.setTimeouts(endpointStats.timeouts.sum());
+            dto.setFailures(endpointStats.failures.sum());
+            dto.setInFlight(inFlight.keySet().stream().filter(k -> k.startsWith(endpoint + ":")).count());
+            snapshot.put(endpoint, dto);
+        });
+        return snapshot;
+    }
+
+    private static final class EndpointStats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+}
@@ -0,0 +1,171 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job that rebuilds card_rollup from the transaction history.
+ *
+ * Works through the cards in id-ordered chunks. Each chunk is one DB transaction that deletes the
+ * chunk's rollups and recomputes them with two INSERT ... SELECT ... GROUP BY statements. Live
+ * inserts stay correct while it runs: an upsert of an existing rollup row holds it until its
+ * transaction commits, so the delete waits and the recompute includes it; one that comes later
+ * adds itself on top of the recomputed row. An upsert that creates a rollup row the delete could
+ * not see makes the recompute hit its key; the chunk then rolls back and is retried, and the
+ * retried delete removes that row while the recompute counts its transaction.
+ *
+ * Months already moved to the cold store (TransactionArchiveJob) are no longer in the table; their
+ * rollups are kept as they are and only periods from the archive horizon on are rebuilt. The same
+ * holds for months in a detached partition that the archive job has not processed yet.
+ */
+@Service
+public class RollupBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupBackfillJob.class);
+
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private static final String REBUILD_SQL =
+            "insert into card_rollup (card_id, period, period_start, tx_count, debit_total, credit_total, min_amount, max_amount) "
+                    + "select card_id, ?, cast(date_trunc(?, date_time) as date), count(*), "
+                    + "coalesce(sum(case when upper(transaction_type) = 'DEBIT' then amount end), 0), "
+                    + "coalesce(sum(case when upper(transaction_type) = 'DEBIT' then 0 else amount end), 0), "
+                    + "min(amount), max(amount) "
+                    + "from transaction where card_id = any(?) and date_time >= coalesce(cast(? as timestamp), '-infinity'::timestamp) "
+                    + "group by card_id, 3";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ColdTransactionStore coldTransactionStore;
+
+    @Value("${rollups.backfill.chunk-size:500}")
+    private int chunkSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "rollup-backfill"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private volatile String lastError;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    // ✅ Returns false if a run is already in progress
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        processed.set(0);
+        updated.set(0);
+        lastError = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        executor.submit(this::run);
+        return true;
+    }
+
+    public JobStatusDto getStatus() {
+        JobStatusDto dto = new JobStatusDto();
+        dto.setJob("rollup-backfill");
+        dto.setRunning(running.get());
+        dto.setProcessed(processed.get());
+        dto.setUpdated(updated.get());
+        dto.setLastError(lastError);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        return dto;
+    }
+
+    private void run() {
+        try {
+            LocalDateTime horizon = liveHorizon();
+            Timestamp since = horizon != null ? Timestamp.valueOf(horizon) : null;
+            long lastId = 0;
+            while (true) {
+                List<Long> cardIds = jdbcTemplate.queryForList(
+                        "select id from credit_card where id > ? order by id limit ?", Long.class, lastId, chunkSize);
+                if (cardIds.isEmpty()) {
+                    break;
+                }
+                rebuildWithRetry(cardIds.toArray(new Long[0]), since);
+                processed.addAndGet(cardIds.size());
+                lastId = cardIds.get(cardIds.size() - 1);
+            }
+            logger.info("Rollup backfill finished: {} cards, {} rollup rows written", processed.get(), updated.get());
+        } catch (Exception ex) {
+            lastError = ex.getMessage();
+            logger.error("Rollup backfill failed: {}", ex.getMessage(), ex);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    // Start of the months still complete in the transaction table: after the archived ones and after
+    // those of detached partitions waiting to be archived; null when every month is there
+    private LocalDateTime liveHorizon() {
+        LocalDateTime horizon = coldTransactionStore.horizon();
+        for (String table : jdbcTemplate.queryForList(TransactionArchiveJob.DETACHED_SQL, String.class)) {
+            Timestamp newest = jdbcTemplate.queryForObject("select max(date_time) from " + table, Timestamp.class);
+            if (newest != null) {
+                LocalDateTime end = YearMonth.from(newest.toLocalDateTime()).plusMonths(1).atDay(1).atStartOfDay();
+                if (horizon == null || end.isAfter(horizon)) {
+                    horizon = end;
+                }
+            }
+        }
+        return horizon;
+    }
+
+    // A live insert may create a rollup row of the chunk mid-rebuild; the chunk then rolls back and runs again
+    private void rebuildWithRetry(Long[] cardIds, Timestamp since) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                rebuild(cardIds, since);
+                return;
+            } catch (DuplicateKeyException ex) {
+                if (attempt == MAX_CHUNK_ATTEMPTS) {
+                    throw ex;
+                }
+                logger.warn("Rollup created concurrently for cards {}..{}, retrying chunk", cardIds[0], cardIds[cardIds.length - 1]);
+            }
+        }
+    }
+
+    // One transaction per chunk of cards
+    private void rebuild(Long[] cardIds, Timestamp since) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from card_rollup where card_id = any(?) and period_start >= coalesce(cast(? as date), '-infinity'::date)",
+                    cardIds, since);
+            long rows = jdbcTemplate.update(REBUILD_SQL, TransactionRollupService.DAY, "day", cardIds, since)
+                    + jdbcTemplate.update(REBUILD_SQL, TransactionRollupService.MONTH, "month", cardIds, since);
+            updated.addAndGet(rows);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,242 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.Entity.ScheduledPayment;
+import com.Nikhil.CreditCardSystem.Entity.ScheduledPaymentRun;
+import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.exception.ValidationException;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
+import com.Nikhil.CreditCardSystem.repo.ScheduledPaymentRepository;
+import com.Nikhil.CreditCardSystem.repo.ScheduledPaymentRunRepository;
+import com.Nikhil.CreditCardSystem.repo.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executes due scheduled payments.
+ *
+ * Each poll claims due payments in batches with SELECT ... FOR UPDATE SKIP LOCKED, so several
+ * instances share the work without waiting on each other. Claiming inserts one PENDING run per
+ * occurrence (unique on payment and due time) and advances the payment to its next occurrence in
+ * the same transaction. The runs are then executed per card on the scheduledPaymentExecutor pool:
+ * cards in parallel, runs of one card in due order, one DB transaction per card that locks the
+ * card, applies the limit checks and marks each run SUCCESS or FAILED together with the balance
+ * change. A run is only executed while PENDING, so no occurrence is ever applied twice; runs left
+ * PENDING by a crash are claimed again after {@code scheduled-payments.stale-after-ms}.
+ *
+ * Missed occurrences (e.g. while the application was down) run once, not once per missed period.
+ */
+@Service
+public class ScheduledPaymentRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledPaymentRunner.class);
+
+    static final String PENDING = "PENDING";
+
+    @Autowired
+    private ScheduledPaymentRepository scheduledPaymentRepository;
+
+    @Autowired
+    private ScheduledPaymentRunRepository scheduledPaymentRunRepository;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Autowired
+    private CardLimitValidator cardLimitValidator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("scheduledPaymentExecutor")
+    private ExecutorService executor;
+
+    @Value("${scheduled-payments.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scheduled-payments.claim-batch-size:500}")
+    private int claimBatchSize;
+
+    @Value("${scheduled-payments.stale-after-ms:600000}")
+    private long staleAfterMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(fixedDelayString = "${scheduled-payments.poll-interval-ms:10000}")
+    public void runDuePayments() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int executed = 0;
+            List<ScheduledPaymentRun> runs;
+            // ✅ Claim and execute batch by batch until nothing is due
+            do {
+                runs = transactionTemplate.execute(status -> claimDue(LocalDateTime.now()));
+                executeRuns(runs);
+                executed += runs.size();
+            } while (runs.size() == claimBatchSize);
+
+            // ✅ Runs abandoned by a crashed executor
+            do {
+                runs = transactionTemplate.execute(status -> claimStale(LocalDateTime.now()));
+                executeRuns(runs);
+                executed += runs.size();
+            } while (runs.size() == claimBatchSize);
+
+            if (executed > 0) {
+                logger.info("Executed {} scheduled payment runs", executed);
+            }
+        } catch (RuntimeException ex) {
+            logger.error("Scheduled payment poll failed: {}", ex.getMessage(), ex);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<ScheduledPaymentRun> claimDue(LocalDateTime now) {
+        List<ScheduledPaymentRun> runs = new ArrayList<>();
+        for (ScheduledPayment payment : scheduledPaymentRepository.claimDue(now, claimBatchSize)) {
+            ScheduledPaymentRun run = new ScheduledPaymentRun();
+            run.setPaymentId(payment.getId());
+            run.setCardId(payment.getCreditCard().getId());
+            run.setTransactionType(payment.getTransactionType());
+            run.setAmount(payment.getAmount());
+            run.setDueAt(payment.getNextRunAt());
+            run.setClaimedAt(now);
+            run.setStatus(PENDING);
+            runs.add(run);
+            advance(payment, now);
+        }
+        // Inserts and payment updates are flushed on commit as JDBC batches
+        return scheduledPaymentRunRepository.saveAll(runs);
+    }
+
+    private List<ScheduledPaymentRun> claimStale(LocalDateTime now) {
+        List<ScheduledPaymentRun> runs = scheduledPaymentRunRepository.claimStale(now.minus(Duration.ofMillis(staleAfterMillis)), claimBatchSize);
+        runs.forEach(run -> run.setClaimedAt(now));
+        return runs;
+    }
+
+    // Moves the payment to its first occurrence after now, or completes it
+    static void advance(ScheduledPayment payment, LocalDateTime now) {
+        if ("ONCE".equals(payment.getFrequency())) {
+            payment.setOccurrences(payment.getOccurrences() + 1);
+            payment.setStatus("COMPLETED");
+            return;
+        }
+        LocalDateTime next;
+        do {
+            payment.setOccurrences(payment.getOccurrences() + 1);
+            next = occurrence(payment, payment.getOccurrences());
+        } while (!next.isAfter(now));
+
+        if (payment.getEndAt() != null && next.isAfter(payment.getEndAt())) {
+            payment.setStatus("COMPLETED");
+        } else {
+            payment.setNextRunAt(next);
+        }
+    }
+
+    // n-th occurrence counted from startAt (Jan 31 monthly -> Feb 28/29 -> Mar 31)
+    static LocalDateTime occurrence(ScheduledPayment payment, int n) {
+        return switch (payment.getFrequency()) {
+            case "DAILY" -> payment.getStartAt().plusDays(n);
+            case "WEEKLY" -> payment.getStartAt().plusWeeks(n);
+            case "MONTHLY" -> payment.getStartAt().plusMonths(n);
+            default -> throw new IllegalStateException("Unknown frequency " + payment.getFrequency());
+        };
+    }
+
+    // Cards in parallel, waits for all of them
+    private void executeRuns(List<ScheduledPaymentRun> runs) {
+        if (runs.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Long>> runIdsByCard = new TreeMap<>();
+        for (ScheduledPaymentRun run : runs) {
+            runIdsByCard.computeIfAbsent(run.getCardId(), id -> new ArrayList<>()).add(run.getId());
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        runIdsByCard.forEach((cardId, runIds) -> futures.add(CompletableFuture.runAsync(() -> executeCard(cardId, runIds), executor)));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void executeCard(Long cardId, List<Long> runIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<CreditCard> locked = creditCardRepository.findAllByIdInForUpdate(List.of(cardId));
+                List<Transaction> rows = new ArrayList<>();
+
+                for (ScheduledPaymentRun run : scheduledPaymentRunRepository.findPendingByIdInForUpdate(runIds)) {
+                    run.setExecutedAt(now);
+                    if (locked.isEmpty()) {
+                        run.setStatus("FAILED");
+                        run.setMessage("Card not found");
+                        continue;
+                    }
+                    CreditCard card = locked.get(0);
+                    double amount = run.getAmount();
+                    try {
+                        if ("DEBIT".equals(run.getTransactionType())) {
+                            cardLimitValidator.validateDebit(card, amount);
+                            card.setTotalBalance(card.getTotalBalance() - amount);
+                            card.setDailyDebitedAmount(card.getDailyDebitedAmount() + amount);
+                            rows.add(newTransaction(card, run, "Debited ₹" + amount + " (scheduled payment ID " + run.getPaymentId() + ")", now));
+                        } else {
+                            cardLimitValidator.validateCredit(card, amount);
+                            card.setTotalBalance(card.getTotalBalance() + amount);
+                            card.setDailyCreditedAmount(card.getDailyCreditedAmount() + amount);
+                            rows.add(newTransaction(card, run, "Credited ₹" + amount + " (scheduled payment ID " + run.getPaymentId() + ")", now));
+                        }
+                        run.setStatus("SUCCESS");
+                        run.setMessage("Applied, balance ₹" + card.getTotalBalance());
+                    } catch (ValidationException ex) {
+                        run.setStatus("FAILED");
+                        run.setMessage(ex.getMessage());
+                    }
+                }
+                transactionRepository.saveAll(rows);
+                transactionRollupService.record(rows);
+            });
+        } catch (RuntimeException ex) {
+            // Runs stay PENDING and are retried once stale
+            logger.error("Scheduled payment runs for card ID {} rolled back: {}", cardId, ex.getMessage());
+        }
+    }
+
+    private Transaction newTransaction(CreditCard card, ScheduledPaymentRun run, String description, LocalDateTime now) {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(run.getAmount());
+        transaction.setTransactionType(run.getTransactionType());
+        transaction.setCardType(card.getCardType());
+        transaction.setDescription(description);
+        transaction.setDateTime(now);
+        transaction.setCreditCard(card);
+        return transaction;
+    }
+}
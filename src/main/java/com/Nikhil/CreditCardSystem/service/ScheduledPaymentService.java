@@ -0,0 +1,209 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.ScheduledPayment;
+import com.Nikhil.CreditCardSystem.Entity.ScheduledPaymentRun;
+import com.Nikhil.CreditCardSystem.dto.ScheduledPaymentDto;
+import com.Nikhil.CreditCardSystem.dto.ScheduledPaymentRequest;
+import com.Nikhil.CreditCardSystem.dto.ScheduledPaymentRunDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ResourceNotFoundException;
+import com.Nikhil.CreditCardSystem.exception.ValidationException;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository.CardRef;
+import com.Nikhil.CreditCardSystem.repo.ScheduledPaymentRepository;
+import com.Nikhil.CreditCardSystem.repo.ScheduledPaymentRunRepository;
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import com.Nikhil.CreditCardSystem.util.ResponseStructure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Create, list and cancel scheduled payments; execution is done by ScheduledPaymentRunner
+@Service
+public class ScheduledPaymentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledPaymentService.class);
+
+    private static final Set<String> FREQUENCIES = Set.of("ONCE", "DAILY", "WEEKLY", "MONTHLY");
+
+    @Autowired
+    private ScheduledPaymentRepository scheduledPaymentRepository;
+
+    @Autowired
+    private ScheduledPaymentRunRepository scheduledPaymentRunRepository;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private UserActionLogService userActionLogService;
+
+    @Autowired
+    private AESUtil aesUtil;
+
+    @Value("${scheduled-payments.max-runs-listed:100}")
+    private int maxRunsListed;
+
+    private ScheduledPaymentDto toDto(ScheduledPayment payment) {
+        ScheduledPaymentDto dto = new ScheduledPaymentDto();
+        dto.setId(payment.getId());
+        dto.setCardId(payment.getCreditCard().getId());
+        dto.setType(payment.getTransactionType());
+        dto.setAmount(payment.getAmount());
+        dto.setFrequency(payment.getFrequency());
+        dto.setStartAt(payment.getStartAt());
+        dto.setEndAt(payment.getEndAt());
+        dto.setNextRunAt("ACTIVE".equals(payment.getStatus()) ? payment.getNextRunAt() : null);
+        dto.setStatus(payment.getStatus());
+        return dto;
+    }
+
+    private ScheduledPaymentRunDto toDto(ScheduledPaymentRun run) {
+        ScheduledPaymentRunDto dto = new ScheduledPaymentRunDto();
+        dto.setId(run.getId());
+        dto.setDueAt(run.getDueAt());
+        dto.setExecutedAt(run.getExecutedAt());
+        dto.setStatus(run.getStatus());
+        dto.setMessage(run.getMessage());
+        return dto;
+    }
+
+    // ✅ Schedule a one-off or recurring debit/credit
+    public ResponseEntity<ResponseStructure<ScheduledPaymentDto>> create(ScheduledPaymentRequest request, Principal principal) {
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+        try {
+            if (request == null) {
+                throw new InvalidInputException("Scheduled payment request cannot be null");
+            }
+            if (request.getCustomerId() == null || request.getCustomerId() <= 0) {
+                throw new InvalidInputException("Customer ID must be valid and greater than zero");
+            }
+            if (request.getCardNumber() == null || request.getCardNumber().trim().isEmpty()) {
+                throw new InvalidInputException("Card number cannot be null or empty");
+            }
+            if (request.getAmount() <= 0) {
+                throw new InvalidInputException("Amount must be greater than zero");
+            }
+            String type = request.getType() == null ? "" : request.getType().trim().toUpperCase(Locale.ROOT);
+            if (!"DEBIT".equals(type) && !"CREDIT".equals(type)) {
+                throw new InvalidInputException("Type must be DEBIT or CREDIT");
+            }
+            String frequency = request.getFrequency() == null ? "" : request.getFrequency().trim().toUpperCase(Locale.ROOT);
+            if (!FREQUENCIES.contains(frequency)) {
+                throw new InvalidInputException("Frequency must be one of " + FREQUENCIES);
+            }
+            LocalDateTime startAt = request.getStartAt() != null ? request.getStartAt() : LocalDateTime.now();
+            if (request.getEndAt() != null && request.getEndAt().isBefore(startAt)) {
+                throw new ValidationException("endAt must not be before startAt");
+            }
+
+            CardRef card = creditCardRepository.findRefsByCardNumberCipherTexts(aesUtil.lookupCandidates(request.getCardNumber().trim()))
+                    .stream()
+                    .filter(ref -> ref.getCustomerId().equals(request.getCustomerId()))
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("Card not found for customer"));
+
+            ScheduledPayment payment = new ScheduledPayment();
+            payment.setCreditCard(creditCardRepository.getReferenceById(card.getId()));
+            payment.setTransactionType(type);
+            payment.setAmount(request.getAmount());
+            payment.setFrequency(frequency);
+            payment.setStartAt(startAt);
+            payment.setEndAt("ONCE".equals(frequency) ? null : request.getEndAt());
+            payment.setNextRunAt(startAt);
+            payment.setStatus("ACTIVE");
+            payment = scheduledPaymentRepository.save(payment);
+
+            logger.info("Scheduled {} {} payment {} of ₹{} on card ID {}", frequency, type, payment.getId(), request.getAmount(), card.getId());
+            userActionLogService.logAction(username,
+                    "Schedule " + frequency + " " + type + " ₹" + request.getAmount() + " on Card ID " + card.getId(), "SUCCESS");
+
+            ResponseStructure<ScheduledPaymentDto> structure = new ResponseStructure<>();
+            structure.setMessage("Payment scheduled successfully");
+            structure.setHttpstatus("SUCCESS");
+            structure.setData(toDto(payment));
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(structure);
+
+        } catch (Exception ex) {
+            logger.error("Error while scheduling payment: {}", ex.getMessage());
+            userActionLogService.logAction(username, "Schedule payment", "FAILED: " + ex.getMessage());
+            throw ex;
+        }
+    }
+
+    // ✅ All scheduled payments of a customer
+    public ResponseEntity<ResponseStructure<List<ScheduledPaymentDto>>> getByCustomer(Long customerId) {
+        if (customerId == null || customerId <= 0) {
+            throw new InvalidInputException("Customer ID must be a positive number and cannot be null");
+        }
+        List<ScheduledPaymentDto> payments = scheduledPaymentRepository.findAllByCustomerId(customerId).stream()
+                .map(this::toDto)
+                .toList();
+
+        ResponseStructure<List<ScheduledPaymentDto>> structure = new ResponseStructure<>();
+        structure.setMessage("Scheduled payments fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(payments);
+
+        return ResponseEntity.ok(structure);
+    }
+
+    // ✅ Latest execution outcomes of a scheduled payment
+    public ResponseEntity<ResponseStructure<List<ScheduledPaymentRunDto>>> getRuns(Long paymentId) {
+        if (!scheduledPaymentRepository.existsById(paymentId)) {
+            throw new ResourceNotFoundException("Scheduled payment not found with ID: " + paymentId);
+        }
+        List<ScheduledPaymentRunDto> runs = scheduledPaymentRunRepository
+                .findAllByPaymentIdOrderByDueAtDesc(paymentId, PageRequest.of(0, maxRunsListed)).stream()
+                .map(this::toDto)
+                .toList();
+
+        ResponseStructure<List<ScheduledPaymentRunDto>> structure = new ResponseStructure<>();
+        structure.setMessage("Scheduled payment runs fetched successfully");
+        structure.setHttpstatus("SUCCESS");
+        structure.setData(runs);
+
+        return ResponseEntity.ok(structure);
+    }
+
+    // ✅ Cancel: no further occurrences are claimed (a run already claimed still executes)
+    public ResponseEntity<ResponseStructure<ScheduledPaymentDto>> cancel(Long paymentId, Principal principal) {
+        String username = principal != null ? principal.getName() : "UNKNOWN_USER";
+        try {
+            ScheduledPayment payment = scheduledPaymentRepository.findById(paymentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Scheduled payment not found with ID: " + paymentId));
+            if (!"ACTIVE".equals(payment.getStatus())) {
+                throw new ValidationException("Scheduled payment is already " + payment.getStatus());
+            }
+            payment.setStatus("CANCELLED");
+            scheduledPaymentRepository.save(payment);
+
+            logger.info("Cancelled scheduled payment {}", paymentId);
+            userActionLogService.logAction(username, "Cancel scheduled payment ID " + paymentId, "SUCCESS");
+
+            ResponseStructure<ScheduledPaymentDto> structure = new ResponseStructure<>();
+            structure.setMessage("Scheduled payment cancelled");
+            structure.setHttpstatus("SUCCESS");
+            structure.setData(toDto(payment));
+
+            return ResponseEntity.ok(structure);
+
+        } catch (Exception ex) {
+            logger.error("Error while cancelling scheduled payment {}: {}", paymentId, ex.getMessage());
+            userActionLogService.logAction(username, "Cancel scheduled payment ID " + paymentId, "FAILED: " + ex.getMessage());
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,578 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.exception.ValidationException;
+import com.Nikhil.CreditCardSystem.util.TimeOrderedIdGenerator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies partner settlement files ({@code card_id,type,amount,reference} lines, type D/DEBIT or
+ * C/CREDIT, optional header) to the cards.
+ *
+ * The file is memory-mapped in windows of {@code settlements.map-window-mb} and parsed straight from
+ * the mapped bytes into primitive arrays, a chunk of {@code settlements.chunk-records} lines at a
+ * time; no String is created for a line unless it is applied (its reference becomes the description)
+ * or rejected. Each chunk is split by card id into {@code settlements.partitions} partitions applied
+ * in parallel. A partition is one DB transaction: it row-locks its cards in id order, runs the usual
+ * limit checks in file order and writes transactions, card balances and rollups as JDBC batches.
+ * Partitions never share a card, so they cannot block each other.
+ *
+ * Checkpointing: every partition commits the file offset it has applied up to with its rows
+ * (settlement_progress), and the job records the offset all partitions have passed after each chunk.
+ * A restarted run maps the file from that offset and each partition skips records below its own,
+ * so no record is applied twice. The checkpoints are only used for the same file: its size and a
+ * hash of its first MiB are recorded before the first chunk, and a file with the same name but other
+ * contents is refused. Rejected lines go to {@code <file>.rejects} with the reason; they
+ * are appended right after the commit that decided them, so a crash in between can lose them.
+ */
+@Service
+public class SettlementIngestionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementIngestionJob.class);
+
+    static final int FILE_PARTITION = -1;
+
+    // transaction_seq increments by the block size of Transaction's @TimeOrderedId
+    private static final int TRANSACTION_ID_BLOCK = 50;
+
+    private static final byte DEBIT = 'D';
+    private static final byte CREDIT = 'C';
+
+    private static final String LOCK_CARDS_SQL =
+            "select id, card_type, total_balance, held_amount, daily_debited_amount, daily_credited_amount, "
+                    + "is_active, expiry_date, limit_profile_id from credit_card "
+                    + "where id = any(?) and deleted_at is null order by id for update";
+
+    private static final String INSERT_TRANSACTION_SQL =
+            "insert into transaction (id, amount, transaction_type, card_type, description, date_time, card_id) "
+                    + "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_CARD_SQL =
+            "update credit_card set total_balance = ?, daily_debited_amount = ?, daily_credited_amount = ? where id = ?";
+
+    private static final String PROGRESS_SQL =
+            "insert into settlement_progress (file_name, partition_no, applied_offset, partitions) values (?, ?, ?, ?) "
+                    + "on conflict (file_name, partition_no) do update set applied_offset = excluded.applied_offset";
+
+    private static final String IDENTITY_SQL =
+            "insert into settlement_progress (file_name, partition_no, applied_offset, partitions, file_size, fingerprint) "
+                    + "values (?, ?, 0, ?, ?, ?) on conflict (file_name, partition_no) "
+                    + "do update set file_size = excluded.file_size, fingerprint = excluded.fingerprint";
+
+    private static final int FINGERPRINT_BYTES = 1 << 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CardLimitValidator cardLimitValidator;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Autowired
+    @Qualifier("settlementExecutor")
+    private ExecutorService partitionExecutor;
+
+    @Value("${settlements.input-dir:settlements/inbox}")
+    private String inputDir;
+
+    @Value("${settlements.partitions:4}")
+    private int partitionCount;
+
+    @Value("${settlements.chunk-records:20000}")
+    private int chunkRecords;
+
+    @Value("${settlements.map-window-mb:256}")
+    private int mapWindowMb;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> new Thread(r, "settlement-job"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile String fileName;
+    private volatile String lastError;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    // Parsed lines of one chunk, in file order (index = line within the chunk)
+    private static final class Chunk {
+        final long[] offset;     // absolute file offset of the line
+        final int[] start;       // line start within the mapped window
+        final int[] end;         // line end (exclusive, without line break) within the window
+        final int[] refStart;    // reference field start within the window
+        final long[] cardId;
+        final byte[] type;
+        final double[] amount;
+        final String[] reject;   // reason; null while the line is valid
+        final int[] partition;   // partition applying the line, fixed before the partitions start
+        int size;
+        long endOffset;          // absolute offset after the chunk's last line
+
+        Chunk(int capacity) {
+            offset = new long[capacity];
+            start = new int[capacity];
+            end = new int[capacity];
+            refStart = new int[capacity];
+            cardId = new long[capacity];
+            type = new byte[capacity];
+            amount = new double[capacity];
+            reject = new String[capacity];
+            partition = new int[capacity];
+        }
+    }
+
+    // ✅ Returns false if a run is already in progress
+    public boolean start(String requestedFile) {
+        Path file = resolve(requestedFile);
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        fileName = file.getFileName().toString();
+        processed.set(0);
+        applied.set(0);
+        rejected.set(0);
+        lastError = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        coordinator.submit(() -> run(file));
+        return true;
+    }
+
+    public JobStatusDto getStatus() {
+        JobStatusDto dto = new JobStatusDto();
+        dto.setJob("settlement" + (fileName != null ? "-" + fileName : ""));
+        dto.setRunning(running.get());
+        dto.setProcessed(processed.get());
+        dto.setUpdated(applied.get());
+        dto.setSkipped(rejected.get());
+        dto.setLastError(lastError);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        return dto;
+    }
+
+    // Only plain file names inside the input directory
+    private Path resolve(String requestedFile) {
+        if (requestedFile == null || requestedFile.isBlank()) {
+            throw new InvalidInputException("File name must not be empty");
+        }
+        Path dir = Paths.get(inputDir).toAbsolutePath().normalize();
+        Path file = dir.resolve(requestedFile.trim()).normalize();
+        if (!file.getParent().equals(dir)) {
+            throw new InvalidInputException("File must be a plain file name in the settlement input directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new InvalidInputException("Settlement file not found: " + requestedFile);
+        }
+        return file;
+    }
+
+    private void run(Path file) {
+        String name = file.getFileName().toString();
+        Path rejectFile = file.resolveSibling(name + ".rejects");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Writer rejects = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+            // ✅ 1. Resume point; a resumed file keeps the partitioning it was started with
+            Map<Integer, Long> progress = new HashMap<>();
+            int[] partitions = {partitionCount};
+            Object[] recorded = new Object[2];
+            jdbcTemplate.query("select partition_no, applied_offset, partitions, file_size, fingerprint from settlement_progress where file_name = ?",
+                    rs -> {
+                        progress.put(rs.getInt("partition_no"), rs.getLong("applied_offset"));
+                        partitions[0] = rs.getInt("partitions");
+                        if (rs.getInt("partition_no") == FILE_PARTITION) {
+                            recorded[0] = rs.getObject("file_size");
+                            recorded[1] = rs.getString("fingerprint");
+                        }
+                    }, name);
+            long size = channel.size();
+            String fingerprint = fingerprint(channel, size);
+            if (!progress.isEmpty() && recorded[1] != null
+                    && (((Number) recorded[0]).longValue() != size || !fingerprint.equals(recorded[1]))) {
+                throw new IllegalStateException("Settlement file " + name + " differs from the file of that name ingested before ("
+                        + recorded[0] + " bytes recorded, " + size + " now); rename it or delete its settlement_progress rows");
+            }
+            if (recorded[1] == null) {
+                if (!progress.isEmpty()) {
+                    logger.warn("Settlement file {} has checkpoints without a recorded fingerprint; resuming unverified", name);
+                }
+                jdbcTemplate.update(IDENTITY_SQL, name, FILE_PARTITION, partitions[0], size, fingerprint);
+            }
+            long position = progress.getOrDefault(FILE_PARTITION, 0L);
+            if (position >= size && size > 0) {
+                logger.info("Settlement file {} was already applied completely", name);
+            } else if (position > 0) {
+                logger.info("Resuming settlement file {} at offset {} of {}", name, position, size);
+            }
+
+            long windowBytes = (long) mapWindowMb << 20;
+            Chunk chunk = new Chunk(chunkRecords);
+            while (position < size) {
+                // ✅ 2. Map the next window; a line cut off at its end is parsed again in the next one
+                long length = Math.min(windowBytes, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+
+                int index = 0;
+                while (true) {
+                    int next = parse(window, index, lastWindow, position, chunk);
+                    if (next == index) {
+                        break;
+                    }
+                    applyChunk(name, chunk, window, progress, partitions[0], rejects);
+                    index = next;
+                    jdbcTemplate.update(PROGRESS_SQL, name, FILE_PARTITION, position + index, partitions[0]);
+                }
+                if (index == 0) {
+                    throw new IllegalStateException("Line at offset " + position + " is longer than the map window");
+                }
+                position += index;
+            }
+            logger.info("Settlement file {} done: {} lines, {} applied, {} rejected", name, processed.get(), applied.get(), rejected.get());
+        } catch (ExecutionException ex) {
+            lastError = ex.getCause().getMessage();
+            logger.error("Settlement file {} failed: {}", name, lastError, ex.getCause());
+        } catch (Exception ex) {
+            lastError = ex.getMessage();
+            logger.error("Settlement file {} failed: {}", name, ex.getMessage(), ex);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    // SHA-256 of the first MiB: with the size, tells a new file under a reused name from the one checkpointed
+    private static String fingerprint(FileChannel channel, long size) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate((int) Math.min(size, FINGERPRINT_BYTES));
+        while (head.hasRemaining() && channel.read(head, head.position()) >= 0) {
+            // read until the buffer is full
+        }
+        head.flip();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(head);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Parses up to one chunk of complete lines starting at {@code index} of the window.
+     *
+     * @return window index after the last consumed line ({@code index} if there was none)
+     */
+    private int parse(ByteBuffer window, int index, boolean lastWindow, long windowOffset, Chunk chunk) {
+        int limit = window.limit();
+        chunk.size = 0;
+        int pos = index;
+        while (chunk.size < chunkRecords && pos < limit) {
+            int lineEnd = pos;
+            while (lineEnd < limit && window.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == limit && !lastWindow) {
+                break; // incomplete line, remapped with the next window
+            }
+            int next = Math.min(lineEnd + 1, limit);
+            int contentEnd = lineEnd > pos && window.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            boolean header = windowOffset + pos == 0 && contentEnd > pos && !isDigit(window.get(pos));
+            if (contentEnd > pos && !header) {
+                parseLine(window, pos, contentEnd, windowOffset, chunk);
+            }
+            pos = next;
+        }
+        chunk.endOffset = windowOffset + pos;
+        return pos;
+    }
+
+    // card_id,type,amount,reference -> arrays of the chunk; sets a reject reason instead of throwing
+    private static void parseLine(ByteBuffer window, int start, int end, long windowOffset, Chunk chunk) {
+        int i = chunk.size++;
+        chunk.offset[i] = windowOffset + start;
+        chunk.start[i] = start;
+        chunk.end[i] = end;
+        chunk.refStart[i] = end;
+        chunk.reject[i] = null;
+
+        int pos = start;
+        long cardId = 0;
+        int digits = 0;
+        while (pos < end && isDigit(window.get(pos)) && digits < 18) {
+            cardId = cardId * 10 + (window.get(pos++) - '0');
+            digits++;
+        }
+        if (digits == 0 || pos >= end || window.get(pos) != ',') {
+            chunk.reject[i] = "Invalid card id";
+            return;
+        }
+        chunk.cardId[i] = cardId;
+
+        int typeStart = ++pos;
+        while (pos < end && window.get(pos) != ',') {
+            pos++;
+        }
+        byte type = pos > typeStart ? (byte) Character.toUpperCase(window.get(typeStart)) : 0;
+        if ((type != DEBIT && type != CREDIT) || pos >= end) {
+            chunk.reject[i] = "Type must be DEBIT or CREDIT";
+            return;
+        }
+        chunk.type[i] = type;
+
+        // Amount in at most two decimals, accumulated in minor units
+        long minor = 0;
+        int fractionDigits = -1;
+        digits = 0;
+        pos++;
+        while (pos < end && window.get(pos) != ',') {
+            byte b = window.get(pos++);
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (isDigit(b) && digits < 15 && fractionDigits < 2) {
+                minor = minor * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                digits = -1;
+                break;
+            }
+        }
+        if (digits <= 0 || minor == 0) {
+            chunk.reject[i] = "Amount must be a number greater than zero with at most two decimals";
+            return;
+        }
+        for (int f = Math.max(fractionDigits, 0); f < 2; f++) {
+            minor *= 10;
+        }
+        chunk.amount[i] = minor / 100.0;
+        chunk.refStart[i] = Math.min(pos + 1, end);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    // ✅ 3. All partitions of the chunk in parallel; the chunk is done when every one has committed
+    private void applyChunk(String name, Chunk chunk, ByteBuffer window, Map<Integer, Long> progress,
+                            int partitions, Writer rejects) throws ExecutionException, InterruptedException {
+        // Malformed lines have no card; partition 0 owns them so they are checkpointed like the rest
+        for (int i = 0; i < chunk.size; i++) {
+            chunk.partition[i] = chunk.reject[i] == null ? (int) Math.floorMod(chunk.cardId[i], (long) partitions) : 0;
+        }
+        List<Future<?>> futures = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            int partition = p;
+            long appliedUpTo = progress.getOrDefault(partition, 0L);
+            futures.add(partitionExecutor.submit(() ->
+                    applyPartition(name, chunk, window.duplicate(), partition, partitions, appliedUpTo, rejects)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        processed.addAndGet(chunk.size);
+    }
+
+    // One DB transaction for the partition's lines of the chunk, which also advances its checkpoint
+    private void applyPartition(String name, Chunk chunk, ByteBuffer window, int partition, int partitions,
+                                long appliedUpTo, Writer rejects) {
+        List<Integer> lines = new ArrayList<>();
+        TreeSet<Long> cardIds = new TreeSet<>();
+        for (int i = 0; i < chunk.size; i++) {
+            if (chunk.partition[i] == partition && chunk.offset[i] >= appliedUpTo) {
+                lines.add(i);
+                if (chunk.reject[i] == null) {
+                    cardIds.add(chunk.cardId[i]);
+                }
+            }
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        List<Transaction> rows = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, CreditCard> cards = lockCards(cardIds);
+            Map<Long, CreditCard> changed = new LinkedHashMap<>();
+            LocalDateTime now = LocalDateTime.now();
+
+            for (int i : lines) {
+                if (chunk.reject[i] != null) {
+                    continue;
+                }
+                CreditCard card = cards.get(chunk.cardId[i]);
+                if (card == null) {
+                    chunk.reject[i] = "Card not found";
+                    continue;
+                }
+                double amount = chunk.amount[i];
+                try {
+                    String type;
+                    if (chunk.type[i] == DEBIT) {
+                        cardLimitValidator.validateDebit(card, amount);
+                        card.setTotalBalance(card.getTotalBalance() - amount);
+                        card.setDailyDebitedAmount(card.getDailyDebitedAmount() + amount);
+                        type = "DEBIT";
+                    } else {
+                        cardLimitValidator.validateCredit(card, amount);
+                        card.setTotalBalance(card.getTotalBalance() + amount);
+                        card.setDailyCreditedAmount(card.getDailyCreditedAmount() + amount);
+                        type = "CREDIT";
+                    }
+                    String reference = text(window, chunk.refStart[i], chunk.end[i]);
+                    rows.add(newTransaction(card, amount, type, reference.isEmpty() ? "Settlement" : "Settlement " + reference, now));
+                    changed.put(card.getId(), card);
+                } catch (ValidationException ex) {
+                    chunk.reject[i] = ex.getMessage();
+                }
+            }
+
+            if (!rows.isEmpty()) {
+                List<Long> ids = allocateTransactionIds(rows.size());
+                List<Object[]> inserts = new ArrayList<>(rows.size());
+                for (int r = 0; r < rows.size(); r++) {
+                    Transaction row = rows.get(r);
+                    row.setId(ids.get(r));
+                    inserts.add(new Object[]{row.getId(), row.getAmount(), row.getTransactionType(), row.getCardType(),
+                            row.getDescription(), Timestamp.valueOf(row.getDateTime()), row.getCreditCard().getId()});
+                }
+                jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, inserts);
+                jdbcTemplate.batchUpdate(UPDATE_CARD_SQL, changed.values().stream()
+                        .map(card -> new Object[]{card.getTotalBalance(), card.getDailyDebitedAmount(),
+                                card.getDailyCreditedAmount(), card.getId()})
+                        .toList());
+                transactionRollupService.record(rows);
+            }
+            jdbcTemplate.update(PROGRESS_SQL, name, partition, chunk.endOffset, partitions);
+        });
+
+        // ✅ 4. Committed: report the partition's rejects
+        long rejectedLines = 0;
+        StringBuilder out = new StringBuilder();
+        for (int i : lines) {
+            if (chunk.reject[i] != null) {
+                out.append(text(window, chunk.start[i], chunk.end[i])).append(',').append(chunk.reject[i]).append('\n');
+                rejectedLines++;
+            }
+        }
+        if (rejectedLines > 0) {
+            synchronized (rejects) {
+                try {
+                    rejects.write(out.toString());
+                    rejects.flush();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Could not write reject file", ex);
+                }
+            }
+        }
+        applied.addAndGet(rows.size());
+        rejected.addAndGet(rejectedLines);
+    }
+
+    // Locks the cards in id order and returns detached copies holding what the limit checks need
+    private Map<Long, CreditCard> lockCards(TreeSet<Long> cardIds) {
+        Map<Long, CreditCard> cards = new HashMap<>();
+        if (cardIds.isEmpty()) {
+            return cards;
+        }
+        jdbcTemplate.query(LOCK_CARDS_SQL, rs -> {
+            CreditCard card = new CreditCard();
+            card.setId(rs.getLong("id"));
+            card.setCardType(rs.getString("card_type"));
+            card.setTotalBalance(rs.getDouble("total_balance"));
+            card.setHeldAmount(rs.getDouble("held_amount"));
+            card.setDailyDebitedAmount(rs.getDouble("daily_debited_amount"));
+            card.setDailyCreditedAmount(rs.getDouble("daily_credited_amount"));
+            card.setActive(rs.getBoolean("is_active"));
+            Date expiry = rs.getDate("expiry_date");
+            card.setExpiryDate(expiry != null ? expiry.toLocalDate() : null);
+            long profileId = rs.getLong("limit_profile_id");
+            card.setLimitProfileId(rs.wasNull() ? null : profileId);
+            cards.put(card.getId(), card);
+        }, (Object) cardIds.toArray(new Long[0]));
+        return cards;
+    }
+
+    private List<Long> allocateTransactionIds(int count) {
+        int blocks = (count + TRANSACTION_ID_BLOCK - 1) / TRANSACTION_ID_BLOCK;
+        List<Long> starts = jdbcTemplate.queryForList("select nextval('transaction_seq') from generate_series(1, ?)", Long.class, blocks);
+        List<Long> ids = new ArrayList<>(count);
+        for (Long start : starts) {
+            for (int i = 0; i < TRANSACTION_ID_BLOCK && ids.size() < count; i++) {
+                ids.add(TimeOrderedIdGenerator.compose(start + i));
+            }
+        }
+        return ids;
+    }
+
+    private static Transaction newTransaction(CreditCard card, double amount, String type, String description, LocalDateTime now) {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(amount);
+        transaction.setTransactionType(type);
+        transaction.setCardType(card.getCardType());
+        transaction.setDescription(description);
+        transaction.setDateTime(now);
+        transaction.setCreditCard(card);
+        return transaction;
+    }
+
+    private static String text(ByteBuffer window, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+}
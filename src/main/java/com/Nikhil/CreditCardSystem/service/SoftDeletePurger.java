@@ -0,0 +1,131 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes soft-deleted cards and customers in the background.
+ *
+ * Deleting a customer or card only sets deleted_at (see CustomerService / CreditCardService), which
+ * hides the rows from every query at once. This purger then removes the children of each deleted
+ * card with set-based statements of at most {@code soft-delete.purge.chunk-size} rows, each in its
+ * own short transaction, so no entity is loaded and no lock is held for long. Transactions are moved
+ * to transaction_archive by default (archive-transactions=false deletes them). The card row goes
+ * last, and a deleted customer once none of its cards is left.
+ *
+ * Rows are purged only after {@code soft-delete.purge.grace-period-minutes}, which leaves time for
+ * requests that loaded a card just before its deletion to finish.
+ */
+@Service
+public class SoftDeletePurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoftDeletePurger.class);
+
+    // Listed explicitly: ddl-auto adds new entity columns to transaction but not to transaction_archive
+    private static final String ARCHIVE_COLUMNS = "id, card_id, date_time, amount, transaction_type, card_type, description";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${soft-delete.purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${soft-delete.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${soft-delete.purge.max-cards-per-run:100}")
+    private int maxCardsPerRun;
+
+    @Value("${soft-delete.purge.grace-period-minutes:5}")
+    private long gracePeriodMinutes;
+
+    @Value("${soft-delete.purge.archive-transactions:true}")
+    private boolean archiveTransactions;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean archiveTableReady;
+
+    @Scheduled(fixedDelayString = "${soft-delete.purge.interval-ms:60000}")
+    public void purge() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDateTime deletedBefore = LocalDateTime.now().minusMinutes(gracePeriodMinutes);
+
+            List<Long> cardIds = jdbcTemplate.queryForList(
+                    "select id from credit_card where deleted_at < ? order by id limit ?", Long.class, deletedBefore, maxCardsPerRun);
+            long transactions = 0;
+            for (Long cardId : cardIds) {
+                transactions += purgeCard(cardId);
+            }
+
+            // ✅ Customers whose cards are all gone (cards of a deleted customer are deleted with it)
+            int customers = jdbcTemplate.update(
+                    "delete from customer c where c.id in (select id from customer where deleted_at < ? order by id limit ?) "
+                            + "and not exists (select 1 from credit_card cc where cc.customer_id = c.id)",
+                    deletedBefore, chunkSize);
+
+            if (!cardIds.isEmpty() || customers > 0) {
+                logger.info("Purged {} deleted cards ({} transactions {}) and {} deleted customers",
+                        cardIds.size(), transactions, archiveTransactions ? "archived" : "deleted", customers);
+            }
+        } catch (RuntimeException ex) {
+            logger.error("Soft-delete purge failed: {}", ex.getMessage(), ex);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long purgeCard(Long cardId) {
+        if (archiveTransactions) {
+            ensureArchiveTable();
+        }
+        long transactions = archiveTransactions
+                ? repeatUntilDone("with moved as (delete from transaction where id in ("
+                        + "select id from transaction where card_id = ? limit ?) returning " + ARCHIVE_COLUMNS + ") "
+                        + "insert into transaction_archive (" + ARCHIVE_COLUMNS + ") select " + ARCHIVE_COLUMNS + " from moved", cardId)
+                : repeatUntilDone("delete from transaction where id in (select id from transaction where card_id = ? limit ?)", cardId);
+
+        repeatUntilDone("delete from authorization_hold where id in (select id from authorization_hold where card_id = ? limit ?)", cardId);
+        repeatUntilDone("delete from scheduled_payment_run where id in (select r.id from scheduled_payment_run r "
+                + "join scheduled_payment p on p.id = r.payment_id where p.card_id = ? limit ?)", cardId);
+        repeatUntilDone("delete from scheduled_payment where id in (select id from scheduled_payment where card_id = ? limit ?)", cardId);
+        repeatUntilDone("delete from card_rollup where (card_id, period, period_start) in ("
+                + "select card_id, period, period_start from card_rollup where card_id = ? limit ?)", cardId);
+        repeatUntilDone("delete from card_balance_snapshot where (card_id, snapshot_date) in ("
+                + "select card_id, snapshot_date from card_balance_snapshot where card_id = ? limit ?)", cardId);
+
+        jdbcTemplate.update("delete from card_ledger_checksum where card_id = ?", cardId);
+        jdbcTemplate.update("delete from credit_card where id = ? and deleted_at is not null", cardId);
+        return transactions;
+    }
+
+    // Runs a "card_id = ? limit ?" statement until it affects fewer rows than one chunk
+    private long repeatUntilDone(String sql, Long cardId) {
+        long total = 0;
+        int affected;
+        do {
+            affected = jdbcTemplate.update(sql, cardId, chunkSize);
+            total += affected;
+        } while (affected == chunkSize);
+        return total;
+    }
+
+    // Columns of transaction at creation time; created on first use since Hibernate does not manage it
+    private void ensureArchiveTable() {
+        if (!archiveTableReady) {
+            jdbcTemplate.execute("create table if not exists transaction_archive (like transaction)");
+            archiveTableReady = true;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import com.Nikhil.CreditCardSystem.util.Csv;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Monthly statement files for every card.
+ *
+ * The card id space is cut into fixed ranges of {@code statements.partition-size} ids; each range is
+ * written by one task on the statementExecutor pool. A task streams its cards and their transactions
+ * of the month with one ordered query read through a forward-only cursor ({@code statements.fetch-size}
+ * rows at a time), so memory does not grow with the number of cards or transactions. Output is one
+ * gzip CSV per range under {@code <output-dir>/<yyyy-MM>/}: TXN rows, then a SUMMARY row per card.
+ *
+ * Checkpointing: a range is written to a .tmp file and renamed when complete, so an existing .csv.gz
+ * is a finished range. A month directory with a RUNNING marker and no SUCCESS marker belongs to an
+ * interrupted run, which is resumed at startup and skips the ranges already written.
+ */
+@Service
+public class StatementJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementJob.class);
+
+    private static final String RUNNING_MARKER = "RUNNING";
+    private static final String SUCCESS_MARKER = "SUCCESS";
+
+    static final String HEADER = "record,card_id,card_holder,card_type,date_time,type,amount,description,tx_count,debit_total,credit_total";
+
+    private static final String STATEMENT_SQL =
+            "select c.id, c.card_holder_name, c.card_type, t.id as tx_id, t.date_time, t.transaction_type, t.amount, t.description "
+                    + "from credit_card c left join transaction t on t.card_id = c.id and t.date_time >= ? and t.date_time < ? "
+                    + "where c.id >= ? and c.id < ? and c.deleted_at is null "
+                    + "order by c.id, t.date_time, t.id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("statementExecutor")
+    private ExecutorService partitionExecutor;
+
+    @Value("${statements.enabled:true}")
+    private boolean enabled;
+
+    @Value("${statements.output-dir:statements}")
+    private String outputDir;
+
+    @Value("${statements.partition-size:50000}")
+    private long partitionSize;
+
+    @Value("${statements.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${statements.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    // Cursor-based reads need a fetch size and a transaction (PostgreSQL only streams with autocommit off)
+    private JdbcTemplate streamingJdbc;
+    private TransactionTemplate readOnlyTransaction;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> new Thread(r, "statement-job"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong partitionsDone = new AtomicLong();
+    private final AtomicLong cardsWritten = new AtomicLong();
+    private final AtomicLong partitionsReused = new AtomicLong();
+    private volatile long partitionsTotal;
+    private volatile YearMonth month;
+    private volatile String lastError;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    @PostConstruct
+    void init() {
+        streamingJdbc = new JdbcTemplate(dataSource);
+        streamingJdbc.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    // ✅ Statements of the previous month, early on the 1st
+    @Scheduled(cron = "${statements.cron:0 30 1 1 * *}")
+    public void runMonthly() {
+        if (enabled) {
+            start(YearMonth.now().minusMonths(1));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnBoot() {
+        if (!resumeOnStartup || !Files.isDirectory(Paths.get(outputDir))) {
+            return;
+        }
+        try (Stream<Path> months = Files.list(Paths.get(outputDir))) {
+            months.filter(dir -> Files.exists(dir.resolve(RUNNING_MARKER)) && !Files.exists(dir.resolve(SUCCESS_MARKER)))
+                    .map(dir -> YearMonth.parse(dir.getFileName().toString()))
+                    .findFirst()
+                    .ifPresent(interrupted -> {
+                        logger.info("Resuming interrupted statement run for {}", interrupted);
+                        start(interrupted);
+                    });
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Could not check for interrupted statement runs: {}", ex.getMessage());
+        }
+    }
+
+    // ✅ Returns false if a run is already in progress
+    public boolean start(YearMonth statementMonth) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        month = statementMonth;
+        partitionsDone.set(0);
+        cardsWritten.set(0);
+        partitionsReused.set(0);
+        partitionsTotal = 0;
+        lastError = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        coordinator.submit(() -> run(statementMonth));
+        return true;
+    }
+
+    public JobStatusDto getStatus() {
+        JobStatusDto dto = new JobStatusDto();
+        dto.setJob("statements" + (month != null ? "-" + month : ""));
+        dto.setRunning(running.get());
+        dto.setTotal(partitionsTotal);
+        dto.setProcessed(partitionsDone.get());
+        dto.setUpdated(cardsWritten.get());
+        dto.setSkipped(partitionsReused.get());
+        dto.setLastError(lastError);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        return dto;
+    }
+
+    private void run(YearMonth statementMonth) {
+        try {
+            Path dir = Paths.get(outputDir, statementMonth.toString());
+            Files.createDirectories(dir);
+            Path marker = dir.resolve(RUNNING_MARKER);
+            // A resumed run keeps the range size of the interrupted one, so finished files stay valid
+            long rangeSize = Files.exists(marker) ? Long.parseLong(Files.readString(marker).trim()) : partitionSize;
+            Files.writeString(marker, Long.toString(rangeSize));
+            Files.deleteIfExists(dir.resolve(SUCCESS_MARKER));
+
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from credit_card", Long.class);
+            long upper = maxId == null ? 0 : maxId + 1;
+            partitionsTotal = (upper + rangeSize - 1) / rangeSize;
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (long from = 0; from < upper; from += rangeSize) {
+                long to = from + rangeSize;
+                Path file = dir.resolve(String.format("cards-%012d-%012d.csv.gz", from, to - 1));
+                if (Files.exists(file)) {
+                    partitionsReused.incrementAndGet();
+                    partitionsDone.incrementAndGet();
+                    continue;
+                }
+                long rangeFrom = from;
+                futures.add(partitionExecutor.submit(() -> writePartition(statementMonth, rangeFrom, to, file)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            Files.writeString(dir.resolve(SUCCESS_MARKER), LocalDateTime.now().toString());
+            Files.delete(marker);
+            logger.info("Statements for {} finished: {} cards in {} files ({} reused from an earlier run)",
+                    statementMonth, cardsWritten.get(), partitionsTotal, partitionsReused.get());
+        } catch (ExecutionException ex) {
+            lastError = ex.getCause().getMessage();
+            logger.error("Statement run for {} failed: {}", statementMonth, lastError, ex.getCause());
+        } catch (Exception ex) {
+            lastError = ex.getMessage();
+            logger.error("Statement run for {} failed: {}", statementMonth, ex.getMessage(), ex);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    // One card id range -> one file; the rename makes it a checkpoint
+    private void writePartition(YearMonth statementMonth, long from, long to, Path file) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Timestamp monthStart = Timestamp.valueOf(statementMonth.atDay(1).atStartOfDay());
+        Timestamp monthEnd = Timestamp.valueOf(statementMonth.plusMonths(1).atDay(1).atStartOfDay());
+        try {
+            StatementWriter statements;
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024), StandardCharsets.UTF_8))) {
+                statements = new StatementWriter(out);
+                readOnlyTransaction.executeWithoutResult(status ->
+                        streamingJdbc.query(STATEMENT_SQL, statements::row, monthStart, monthEnd, from, to));
+                statements.finish();
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            cardsWritten.addAndGet(statements.cards);
+            partitionsDone.incrementAndGet();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Writing " + file + " failed", ex);
+        }
+    }
+
+    // Consumes the rows of one range in (card, time) order and writes TXN and SUMMARY records
+    static final class StatementWriter {
+        private final Writer out;
+        private long cardId = -1;
+        private String holder;
+        private String cardType;
+        private long txCount;
+        private double debitTotal;
+        private double creditTotal;
+        long cards;
+
+        StatementWriter(Writer out) throws IOException {
+            this.out = out;
+            out.write(HEADER);
+            out.write('\n');
+        }
+
+        void row(ResultSet rs) throws SQLException {
+            try {
+                long id = rs.getLong("id");
+                if (id != cardId) {
+                    finish();
+                    cardId = id;
+                    holder = rs.getString("card_holder_name");
+                    cardType = rs.getString("card_type");
+                }
+                rs.getLong("tx_id");
+                if (rs.wasNull()) {
+                    return; // card without transactions this month
+                }
+                String type = rs.getString("transaction_type");
+                double amount = rs.getDouble("amount");
+                txCount++;
+                if ("DEBIT".equalsIgnoreCase(type)) {
+                    debitTotal += amount;
+                } else {
+                    creditTotal += amount;
+                }
+                write("TXN", Long.toString(cardId), holder, cardType, rs.getTimestamp("date_time").toLocalDateTime().toString(),
+                        type, Double.toString(amount), rs.getString("description"), "", "", "");
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        // Closes the current card with its SUMMARY record
+        void finish() throws IOException {
+            if (cardId < 0) {
+                return;
+            }
+            write("SUMMARY", Long.toString(cardId), holder, cardType, "", "", "", "",
+                    Long.toString(txCount), Double.toString(debitTotal), Double.toString(creditTotal));
+            cards++;
+            cardId = -1;
+            txCount = 0;
+            debitTotal = 0;
+            creditTotal = 0;
+        }
+
+        private void write(String... fields) throws IOException {
+            Csv.writeRow(out, fields);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+}
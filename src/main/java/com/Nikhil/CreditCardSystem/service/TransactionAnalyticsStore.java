@@ -0,0 +1,643 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.dto.AnalyticsGroupDto;
+import com.Nikhil.CreditCardSystem.dto.AnalyticsResultDto;
+import com.Nikhil.CreditCardSystem.dto.AnalyticsStatusDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory column store of recent transactions for ad-hoc spend analytics (/api/analytics).
+ *
+ * Rows live in fixed-size segments of primitive arrays: epoch seconds, amounts, and one-byte
+ * dictionary codes for transaction type and card type (about 18 bytes per transaction). The last
+ * {@code analytics.window-months} months are loaded at startup and reloaded daily, which also drops
+ * rows that aged out; in between, TransactionRollupService hands every inserted transaction over,
+ * and it is appended once its DB transaction commits.
+ *
+ * A query splits the segments into one stripe per analytics thread. Each stripe filters column by
+ * column into a selection vector (skipping segments whose time range cannot match), computes a dense
+ * group index per selected row and aggregates into arrays; the stripes' arrays are merged at the end.
+ *
+ * Appends during a reload go to the serving store and are also buffered; buffered rows whose id the
+ * snapshot query did not return are added to the new store before it replaces the old one, so none
+ * is lost or counted twice.
+ */
+@Service
+public class TransactionAnalyticsStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionAnalyticsStore.class);
+
+    static final int SEGMENT_ROWS = 1 << 16;
+    private static final int MAX_GROUPS = 100_000;
+    private static final int BYTES_PER_ROW = 8 + 8 + 1 + 1;
+
+    public static final String CARD_TYPE = "cardType";
+    public static final String TRANSACTION_TYPE = "transactionType";
+    public static final String HOUR = "hour";
+    public static final String DAY_OF_WEEK = "dayOfWeek";
+    public static final String AMOUNT_BUCKET = "amountBucket";
+    public static final List<String> DIMENSIONS = List.of(CARD_TYPE, TRANSACTION_TYPE, HOUR, DAY_OF_WEEK, AMOUNT_BUCKET);
+
+    private static final String LOAD_SQL =
+            "select id, date_time, amount, transaction_type, card_type from transaction where date_time >= ?";
+
+    public record Query(List<String> groupBy, LocalDateTime from, LocalDateTime to, String transactionType,
+                        String cardType, Double minAmount, Double maxAmount, double bucketWidth) {
+    }
+
+    // Column values of one transaction, captured when it is recorded
+    private record Row(long id, long epochSecond, double amount, String transactionType, String cardType) {
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("analyticsExecutor")
+    private ExecutorService analyticsExecutor;
+
+    @Value("${analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.window-months:13}")
+    private int windowMonths;
+
+    @Value("${analytics.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${analytics.query-threads:0}")
+    private int queryThreads;
+
+    @Value("${analytics.max-amount-buckets:50}")
+    private int maxAmountBuckets;
+
+    private JdbcTemplate streamingJdbc;
+    private TransactionTemplate readOnlyTransaction;
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> new Thread(r, "analytics-load"));
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final AtomicLong appendedSinceLoad = new AtomicLong();
+    private volatile Store store = new Store(null);
+    private volatile LocalDateTime loadedAt;
+    private volatile String lastError;
+
+    // Rows appended while a reload runs (id -> row); guarded by appendLock
+    private final Object appendLock = new Object();
+    private Map<Long, Row> pending;
+
+    @PostConstruct
+    void init() {
+        streamingJdbc = new JdbcTemplate(dataSource);
+        streamingJdbc.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${analytics.reload-cron:0 0 4 * * *}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    // ✅ Loads a new store in the background; returns false if disabled or a load is already running
+    public boolean reload() {
+        if (!enabled || !loading.compareAndSet(false, true)) {
+            return false;
+        }
+        loader.submit(this::load);
+        return true;
+    }
+
+    // ✅ Called with every inserted transaction inside its DB transaction; appended after commit
+    public void recordAfterCommit(Collection<Transaction> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return;
+        }
+        List<Row> rows = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            rows.add(new Row(transaction.getId(), epochSecond(transaction.getDateTime()), transaction.getAmount(),
+                    transaction.getTransactionType(), transaction.getCardType()));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(rows);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(rows);
+            }
+        });
+    }
+
+    public AnalyticsStatusDto getStatus() {
+        Store current = store;
+        AnalyticsStatusDto dto = new AnalyticsStatusDto();
+        dto.setLoading(loading.get());
+        dto.setRows(current.rows());
+        dto.setSegments(current.segments.length);
+        dto.setMemoryBytes((long) current.segments.length * SEGMENT_ROWS * BYTES_PER_ROW);
+        dto.setAppendedSinceLoad(appendedSinceLoad.get());
+        dto.setWindowStart(current.windowStart);
+        dto.setLoadedAt(loadedAt);
+        dto.setLastError(lastError);
+        return dto;
+    }
+
+    // ✅ Filters and aggregates in parallel over the column segments
+    public AnalyticsResultDto query(Query query) {
+        long started = System.nanoTime();
+        Store current = store;
+        Plan plan = plan(current, query);
+
+        Segment[] segments = current.segments;
+        int threads = queryThreads > 0 ? queryThreads : Runtime.getRuntime().availableProcessors();
+        int stripes = Math.max(1, Math.min(segments.length, threads));
+        List<Future<Partial>> futures = new ArrayList<>(stripes);
+        for (int s = 0; s < stripes; s++) {
+            int stripe = s;
+            futures.add(analyticsExecutor.submit(() -> {
+                Partial partial = new Partial(plan.groups);
+                for (int i = stripe; i < segments.length; i += stripes) {
+                    scan(segments[i], plan, partial);
+                }
+                return partial;
+            }));
+        }
+        Partial total = new Partial(plan.groups);
+        try {
+            for (Future<Partial> future : futures) {
+                total.merge(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Analytics query interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Analytics query failed: " + ex.getCause().getMessage(), ex.getCause());
+        }
+
+        AnalyticsResultDto result = new AnalyticsResultDto();
+        result.setGroupBy(query.groupBy());
+        result.setRowsScanned(total.scanned);
+        result.setRowsMatched(total.matched);
+        result.setComplete(!loading.get() && loadedAt != null);
+        result.setLoadedAt(loadedAt);
+        result.setGroups(groups(plan, total));
+        result.setTookMillis((System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    // ---- query execution ----
+
+    // Query resolved against the store's dictionaries
+    private static final class Plan {
+        long fromSecond;
+        long toSecond;
+        boolean[] types;      // allowed type codes; null = all
+        boolean[] cardTypes;
+        double minAmount;
+        double maxAmount;
+        String[] dimensions;
+        int[] radix;
+        int groups;
+        double bucketWidth;
+        int buckets;
+        String[] typeValues;
+        String[] cardTypeValues;
+    }
+
+    // Aggregates of one stripe, indexed by group
+    private static final class Partial {
+        final long[] count;
+        final double[] sum;
+        final double[] min;
+        final double[] max;
+        long scanned;
+        long matched;
+        final int[] selection = new int[SEGMENT_ROWS];
+        final int[] group = new int[SEGMENT_ROWS];
+
+        Partial(int groups) {
+            count = new long[groups];
+            sum = new double[groups];
+            min = new double[groups];
+            max = new double[groups];
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        }
+
+        void merge(Partial other) {
+            for (int g = 0; g < count.length; g++) {
+                count[g] += other.count[g];
+                sum[g] += other.sum[g];
+                min[g] = Math.min(min[g], other.min[g]);
+                max[g] = Math.max(max[g], other.max[g]);
+            }
+            scanned += other.scanned;
+            matched += other.matched;
+        }
+    }
+
+    private Plan plan(Store current, Query query) {
+        if (query.from() != null && query.to() != null && !query.from().isBefore(query.to())) {
+            throw new InvalidInputException("'from' must be before 'to'");
+        }
+        if (query.bucketWidth() <= 0) {
+            throw new InvalidInputException("bucketWidth must be positive");
+        }
+        Plan plan = new Plan();
+        plan.fromSecond = query.from() != null ? epochSecond(query.from()) : Long.MIN_VALUE;
+        plan.toSecond = query.to() != null ? epochSecond(query.to()) : Long.MAX_VALUE;
+        plan.minAmount = query.minAmount() != null ? query.minAmount() : Double.NEGATIVE_INFINITY;
+        plan.maxAmount = query.maxAmount() != null ? query.maxAmount() : Double.POSITIVE_INFINITY;
+        plan.typeValues = current.types.values();
+        plan.cardTypeValues = current.cardTypes.values();
+        List<String> groupBy = query.groupBy();
+        plan.types = allowed(plan.typeValues, query.transactionType(), groupBy.contains(TRANSACTION_TYPE));
+        plan.cardTypes = allowed(plan.cardTypeValues, query.cardType(), groupBy.contains(CARD_TYPE));
+        plan.bucketWidth = query.bucketWidth();
+        plan.buckets = maxAmountBuckets;
+
+        plan.dimensions = groupBy.toArray(new String[0]);
+        plan.radix = new int[plan.dimensions.length];
+        long groups = 1;
+        for (int d = 0; d < plan.dimensions.length; d++) {
+            plan.radix[d] = switch (plan.dimensions[d]) {
+                case CARD_TYPE -> plan.cardTypeValues.length;
+                case TRANSACTION_TYPE -> plan.typeValues.length;
+                case HOUR -> 24;
+                case DAY_OF_WEEK -> 7;
+                case AMOUNT_BUCKET -> plan.buckets;
+                default -> throw new InvalidInputException("Unknown groupBy '" + plan.dimensions[d] + "'. Allowed: " + DIMENSIONS);
+            };
+            groups *= plan.radix[d];
+        }
+        if (Set.copyOf(groupBy).size() != groupBy.size()) {
+            throw new InvalidInputException("groupBy contains a dimension twice");
+        }
+        if (groups > MAX_GROUPS) {
+            throw new InvalidInputException("Too many groups; use fewer groupBy dimensions");
+        }
+        plan.groups = (int) groups;
+        return plan;
+    }
+
+    // Codes of the dictionary values equal (ignoring case) to the filter value; null when neither
+    // filtered nor grouped. Grouping sizes the group index by the dictionary as of now, so codes added
+    // by appends during the query are left out.
+    private static boolean[] allowed(String[] values, String filter, boolean grouped) {
+        if (filter == null && !grouped) {
+            return null;
+        }
+        boolean[] allowed = new boolean[Dictionary.CAPACITY];
+        for (int code = 0; code < values.length; code++) {
+            allowed[code] = filter == null || filter.equalsIgnoreCase(values[code]);
+        }
+        return allowed;
+    }
+
+    // One column at a time over the selection vector, then group index and aggregation
+    private static void scan(Segment segment, Plan plan, Partial partial) {
+        int size = segment.size;
+        if (size == 0 || segment.maxSecond < plan.fromSecond || segment.minSecond >= plan.toSecond) {
+            return;
+        }
+        partial.scanned += size;
+        int[] sel = partial.selection;
+        long[] seconds = segment.epochSeconds;
+        double[] amounts = segment.amounts;
+
+        int n = 0;
+        long from = plan.fromSecond;
+        long to = plan.toSecond;
+        double minAmount = plan.minAmount;
+        double maxAmount = plan.maxAmount;
+        for (int i = 0; i < size; i++) {
+            sel[n] = i;
+            n += (seconds[i] >= from & seconds[i] < to & amounts[i] >= minAmount & amounts[i] <= maxAmount) ? 1 : 0;
+        }
+        if (plan.types != null) {
+            n = filterCodes(segment.types, plan.types, sel, n);
+        }
+        if (plan.cardTypes != null) {
+            n = filterCodes(segment.cardTypes, plan.cardTypes, sel, n);
+        }
+        if (n == 0) {
+            return;
+        }
+
+        int[] group = partial.group;
+        Arrays.fill(group, 0, n, 0);
+        for (int d = 0; d < plan.dimensions.length; d++) {
+            int radix = plan.radix[d];
+            switch (plan.dimensions[d]) {
+                case CARD_TYPE -> {
+                    byte[] codes = segment.cardTypes;
+                    for (int j = 0; j < n; j++) {
+                        group[j] = group[j] * radix + (codes[sel[j]] & 0xFF);
+                    }
+                }
+                case TRANSACTION_TYPE -> {
+                    byte[] codes = segment.types;
+                    for (int j = 0; j < n; j++) {
+                        group[j] = group[j] * radix + (codes[sel[j]] & 0xFF);
+                    }
+                }
+                case HOUR -> {
+                    for (int j = 0; j < n; j++) {
+                        group[j] = group[j] * radix + (int) (Math.floorMod(seconds[sel[j]], 86_400L) / 3_600);
+                    }
+                }
+                case DAY_OF_WEEK -> {
+                    // 1970-01-01 was a Thursday (index 3 with Monday = 0)
+                    for (int j = 0; j < n; j++) {
+                        group[j] = group[j] * radix + (int) Math.floorMod(Math.floorDiv(seconds[sel[j]], 86_400L) + 3, 7L);
+                    }
+                }
+                case AMOUNT_BUCKET -> {
+                    double width = plan.bucketWidth;
+                    int last = radix - 1;
+                    for (int j = 0; j < n; j++) {
+                        int bucket = (int) Math.min(last, Math.max(0, Math.floor(amounts[sel[j]] / width)));
+                        group[j] = group[j] * radix + bucket;
+                    }
+                }
+                default -> throw new IllegalStateException(plan.dimensions[d]);
+            }
+        }
+
+        long[] count = partial.count;
+        double[] sum = partial.sum;
+        double[] min = partial.min;
+        double[] max = partial.max;
+        for (int j = 0; j < n; j++) {
+            int g = group[j];
+            double amount = amounts[sel[j]];
+            count[g]++;
+            sum[g] += amount;
+            min[g] = Math.min(min[g], amount);
+            max[g] = Math.max(max[g], amount);
+        }
+        partial.matched += n;
+    }
+
+    private static int filterCodes(byte[] codes, boolean[] allowed, int[] sel, int n) {
+        int kept = 0;
+        for (int j = 0; j < n; j++) {
+            int row = sel[j];
+            sel[kept] = row;
+            kept += allowed[codes[row] & 0xFF] ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private static List<AnalyticsGroupDto> groups(Plan plan, Partial total) {
+        List<AnalyticsGroupDto> groups = new ArrayList<>();
+        for (int g = 0; g < plan.groups; g++) {
+            if (total.count[g] == 0) {
+                continue;
+            }
+            Map<String, Object> key = new LinkedHashMap<>();
+            int rest = g;
+            Object[] values = new Object[plan.dimensions.length];
+            for (int d = plan.dimensions.length - 1; d >= 0; d--) {
+                int value = rest % plan.radix[d];
+                rest /= plan.radix[d];
+                values[d] = switch (plan.dimensions[d]) {
+                    case CARD_TYPE -> plan.cardTypeValues[value];
+                    case TRANSACTION_TYPE -> plan.typeValues[value];
+                    case DAY_OF_WEEK -> DayOfWeek.of(value + 1).name();
+                    case AMOUNT_BUCKET -> bucketLabel(value, plan);
+                    default -> value;
+                };
+            }
+            for (int d = 0; d < plan.dimensions.length; d++) {
+                key.put(plan.dimensions[d], values[d]);
+            }
+            AnalyticsGroupDto dto = new AnalyticsGroupDto();
+            dto.setKey(key);
+            dto.setCount(total.count[g]);
+            dto.setSum(total.sum[g]);
+            dto.setMin(total.min[g]);
+            dto.setMax(total.max[g]);
+            dto.setAvg(total.sum[g] / total.count[g]);
+            groups.add(dto);
+        }
+        return groups;
+    }
+
+    private static String bucketLabel(int bucket, Plan plan) {
+        double lower = bucket * plan.bucketWidth;
+        if (bucket == plan.buckets - 1) {
+            return lower + "+";
+        }
+        return lower + "-" + (lower + plan.bucketWidth);
+    }
+
+    // ---- storage ----
+
+    // Value <-> one-byte code; code 0 is null, the last code collects values beyond the capacity
+    private static final class Dictionary {
+        static final int CAPACITY = 256;
+        static final String NONE = "(none)";
+        static final String OTHER = "(other)";
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private volatile String[] values = {NONE};
+
+        // Called by the single writer of the store
+        byte encode(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return (byte) (int) code;
+            }
+            String[] current = values;
+            if (current.length >= CAPACITY - 1) {
+                if (current.length == CAPACITY - 1) {
+                    values = grow(current, OTHER);
+                }
+                return (byte) (CAPACITY - 1);
+            }
+            values = grow(current, value);
+            codes.put(value, current.length);
+            return (byte) current.length;
+        }
+
+        private static String[] grow(String[] current, String value) {
+            String[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = value;
+            return grown;
+        }
+
+        String[] values() {
+            return values;
+        }
+    }
+
+    private static final class Segment {
+        final long[] epochSeconds = new long[SEGMENT_ROWS];
+        final double[] amounts = new double[SEGMENT_ROWS];
+        final byte[] types = new byte[SEGMENT_ROWS];
+        final byte[] cardTypes = new byte[SEGMENT_ROWS];
+        long minSecond = Long.MAX_VALUE;
+        long maxSecond = Long.MIN_VALUE;
+        // Written after the row's values, so a reader sees complete rows up to size
+        volatile int size;
+    }
+
+    // Segments and dictionaries of one load; appends go to the last segment
+    private static final class Store {
+        final LocalDateTime windowStart;
+        final Dictionary types = new Dictionary();
+        final Dictionary cardTypes = new Dictionary();
+        volatile Segment[] segments = new Segment[0];
+
+        Store(LocalDateTime windowStart) {
+            this.windowStart = windowStart;
+        }
+
+        // Single writer at a time (appendLock, or the loader before the store is published)
+        void add(Row row) {
+            Segment[] current = segments;
+            Segment last = current.length == 0 ? null : current[current.length - 1];
+            if (last == null || last.size == SEGMENT_ROWS) {
+                last = new Segment();
+                Segment[] grown = Arrays.copyOf(current, current.length + 1);
+                grown[current.length] = last;
+                segments = grown;
+            }
+            int i = last.size;
+            last.epochSeconds[i] = row.epochSecond();
+            last.amounts[i] = row.amount();
+            last.types[i] = types.encode(row.transactionType());
+            last.cardTypes[i] = cardTypes.encode(row.cardType());
+            last.minSecond = Math.min(last.minSecond, row.epochSecond());
+            last.maxSecond = Math.max(last.maxSecond, row.epochSecond());
+            last.size = i + 1;
+        }
+
+        long rows() {
+            Segment[] current = segments;
+            long rows = 0;
+            for (Segment segment : current) {
+                rows += segment.size;
+            }
+            return rows;
+        }
+    }
+
+    private void append(List<Row> rows) {
+        synchronized (appendLock) {
+            for (Row row : rows) {
+                store.add(row);
+                if (pending != null) {
+                    pending.put(row.id(), row);
+                }
+            }
+        }
+        appendedSinceLoad.addAndGet(rows.size());
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        try {
+            LocalDateTime windowStart = LocalDateTime.now().minusMonths(windowMonths).toLocalDate().atStartOfDay();
+            // Buffer live appends before the snapshot starts, so every commit after it is caught
+            synchronized (appendLock) {
+                pending = new LinkedHashMap<>();
+            }
+            Store fresh = new Store(windowStart);
+            // Ids the snapshot saw, only kept until the buffered rows are checked against them
+            long[][] seen = {new long[1 << 16]};
+            int[] seenCount = {0};
+            readOnlyTransaction.executeWithoutResult(status -> streamingJdbc.query(LOAD_SQL, rs -> {
+                long id = rs.getLong("id");
+                if (seenCount[0] == seen[0].length) {
+                    seen[0] = Arrays.copyOf(seen[0], seen[0].length * 2);
+                }
+                seen[0][seenCount[0]++] = id;
+                fresh.add(new Row(id, epochSecond(rs.getTimestamp("date_time").toLocalDateTime()), rs.getDouble("amount"),
+                        rs.getString("transaction_type"), rs.getString("card_type")));
+            }, Timestamp.valueOf(windowStart)));
+            long[] snapshotIds = seen[0];
+            Arrays.sort(snapshotIds, 0, seenCount[0]);
+
+            synchronized (appendLock) {
+                // Rows whose commit the snapshot did not see; the others it already loaded
+                for (Row row : pending.values()) {
+                    if (Arrays.binarySearch(snapshotIds, 0, seenCount[0], row.id()) < 0) {
+                        fresh.add(row);
+                    }
+                }
+                pending = null;
+                store = fresh;
+            }
+            appendedSinceLoad.set(0);
+            loadedAt = LocalDateTime.now();
+            lastError = null;
+            logger.info("Analytics store loaded {} transactions since {} in {} ms", fresh.rows(), windowStart,
+                    System.currentTimeMillis() - started);
+        } catch (Exception ex) {
+            synchronized (appendLock) {
+                pending = null;
+            }
+            lastError = ex.getMessage();
+            logger.error("Loading the analytics store failed: {}", ex.getMessage(), ex);
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+}
@@ -0,0 +1,194 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.dto.JobStatusDto;
+import com.Nikhil.CreditCardSystem.util.ColumnarTransactionFile.Row;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves aged transactions from PostgreSQL into the cold store (ColdTransactionStore).
+ *
+ * Everything older than {@code archive.after-months} full months is archived, one month and card
+ * range at a time: the rows are read, added to the range's file for that month, and only after the
+ * file is on disk deleted from the database in one transaction. A crash in between leaves the rows in
+ * both places; the next run merges them into the file again by id and history reads de-duplicate.
+ *
+ * Month partitions (and the legacy partition) that are empty once their rows are archived are then
+ * detached and dropped. Tables detached earlier with rows still in them are archived completely and
+ * dropped as well. Rollups are left alone, so summaries keep covering archived months.
+ */
+@Service
+public class TransactionArchiveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveJob.class);
+
+    // Transaction tables detached from the partitioned table and not dropped yet
+    static final String DETACHED_SQL =
+            "select c.relname from pg_class c where c.relkind = 'r' and not c.relispartition "
+                    + "and pg_table_is_visible(c.oid) and c.relname ~ '^transaction_(legacy|p[0-9]{4}_[0-9]{2})$' "
+                    + "order by c.relname";
+
+    private static final String COLUMNS = "id, card_id, date_time, amount, transaction_type, card_type, description";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ColdTransactionStore coldTransactionStore;
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Value("${archive.after-months:13}")
+    private int afterMonths;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "transaction-archive"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private volatile String lastError;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    // One (month, card range) of a source table
+    private record Slice(String table, YearMonth month, long range) {
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 3 1 * *}")
+    public void scheduledRun() {
+        if (afterMonths > 0) {
+            start();
+        }
+    }
+
+    // ✅ Returns false if a run is already in progress
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        total.set(0);
+        processed.set(0);
+        updated.set(0);
+        lastError = null;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        executor.submit(this::run);
+        return true;
+    }
+
+    public JobStatusDto getStatus() {
+        JobStatusDto dto = new JobStatusDto();
+        dto.setJob("transaction-archive");
+        dto.setRunning(running.get());
+        dto.setTotal(total.get());
+        dto.setProcessed(processed.get());
+        dto.setUpdated(updated.get());
+        dto.setLastError(lastError);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        return dto;
+    }
+
+    private void run() {
+        try {
+            LocalDateTime cutoff = YearMonth.now().minusMonths(afterMonths).atDay(1).atStartOfDay();
+            List<String> detached = new ArrayList<>(jdbcTemplate.queryForList(DETACHED_SQL, String.class));
+
+            List<Slice> slices = new ArrayList<>(slicesOf("transaction", cutoff));
+            for (String table : detached) {
+                slices.addAll(slicesOf(table, null));
+            }
+            total.set(slices.size());
+
+            for (Slice slice : slices) {
+                archive(slice);
+                processed.incrementAndGet();
+            }
+            // Archived months are empty now; only those are detached (see PartitionMaintenanceService)
+            if (YearMonth.from(cutoff).isBefore(YearMonth.now())) {
+                detached.addAll(partitionMaintenanceService.detachBefore("transaction", YearMonth.from(cutoff)));
+            }
+            for (String table : detached) {
+                dropIfEmpty(table);
+            }
+            logger.info("Transaction archive finished: {} files written, {} transactions archived", processed.get(), updated.get());
+        } catch (Exception ex) {
+            lastError = ex.getMessage();
+            logger.error("Transaction archive failed: {}", ex.getMessage(), ex);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    // Months and card ranges with rows in the table, before the cutoff if one is given
+    private List<Slice> slicesOf(String table, LocalDateTime before) {
+        long cardRangeSize = coldTransactionStore.getCardRangeSize();
+        String sql = "select distinct cast(date_trunc('month', date_time) as date) as month, card_id / ? as card_range from " + table
+                + " where card_id is not null" + (before != null ? " and date_time < ?" : "") + " order by 1, 2";
+        Object[] args = before != null ? new Object[]{cardRangeSize, Timestamp.valueOf(before)} : new Object[]{cardRangeSize};
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new Slice(table,
+                YearMonth.from(rs.getDate("month").toLocalDate()), rs.getLong("card_range")), args);
+    }
+
+    private void archive(Slice slice) throws IOException {
+        long cardRangeSize = coldTransactionStore.getCardRangeSize();
+        Timestamp from = Timestamp.valueOf(slice.month().atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(slice.month().plusMonths(1).atDay(1).atStartOfDay());
+        long firstCard = slice.range() * cardRangeSize;
+
+        List<Row> rows = jdbcTemplate.query("select " + COLUMNS + " from " + slice.table()
+                        + " where card_id >= ? and card_id < ? and date_time >= ? and date_time < ?",
+                (rs, rowNum) -> new Row(rs.getLong("id"), rs.getLong("card_id"), rs.getTimestamp("date_time").toLocalDateTime(),
+                        rs.getDouble("amount"), rs.getString("transaction_type"), rs.getString("card_type"), rs.getString("description")),
+                firstCard, firstCard + cardRangeSize, from, to);
+        if (rows.isEmpty()) {
+            return;
+        }
+        coldTransactionStore.store(slice.month(), slice.range(), rows);
+
+        Long[] ids = rows.stream().map(Row::id).toArray(Long[]::new);
+        Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(
+                "delete from " + slice.table() + " where id = any(?) and date_time >= ? and date_time < ?", ids, from, to));
+        updated.addAndGet(deleted == null ? 0 : deleted);
+        logger.debug("Archived {} transactions of {} cards {}.. from {}", rows.size(), slice.month(), firstCard, slice.table());
+    }
+
+    // A detached partition is dropped once everything in it is archived
+    private void dropIfEmpty(String table) {
+        Boolean empty = jdbcTemplate.queryForObject("select not exists (select 1 from " + table + ")", Boolean.class);
+        if (Boolean.TRUE.equals(empty)) {
+            jdbcTemplate.execute("drop table " + table);
+            logger.info("Dropped archived partition {}", table);
+        } else {
+            logger.warn("Detached partition {} still has rows without a card; kept", table);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
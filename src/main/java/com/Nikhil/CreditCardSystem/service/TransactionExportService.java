@@ -0,0 +1,217 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.util.Csv;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams filtered transactions to an output stream as NDJSON or CSV.
+ *
+ * Rows come from one query read through a forward-only cursor ({@code export.fetch-size} rows per
+ * round trip) and are written as they arrive, so memory stays constant whatever the size of the
+ * export. Writes block while the client is not reading, which also stops the cursor from fetching
+ * further: a slow client slows the export down instead of making it buffer. A client that
+ * disconnects fails the next write, which aborts the query and releases its connection.
+ * The (date_time, id) order is served by idx_transaction_date_time_id, so the first row is sent
+ * without sorting the whole table first.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final String CSV_HEADER = "id,card_id,customer_id,date_time,transaction_type,card_type,amount,description";
+
+    public record Filter(Long customerId, Long cardId, String transactionType, LocalDate from, LocalDate to) {
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Cursor-based reads need a fetch size and a transaction (PostgreSQL only streams with autocommit off)
+    private JdbcTemplate streamingJdbc;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        streamingJdbc = new JdbcTemplate(dataSource);
+        streamingJdbc.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    // ✅ Checks the request before the response is committed; returns the normalized format
+    public String validate(Filter filter, String format) {
+        String normalized = format == null ? NDJSON : format.trim().toLowerCase(Locale.ROOT);
+        if (!NDJSON.equals(normalized) && !CSV.equals(normalized)) {
+            throw new InvalidInputException("Unsupported export format '" + format + "'. Allowed formats: csv, ndjson");
+        }
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new InvalidInputException("'from' must not be after 'to'");
+        }
+        if (filter.transactionType() != null && !filter.transactionType().equalsIgnoreCase("DEBIT")
+                && !filter.transactionType().equalsIgnoreCase("CREDIT")) {
+            throw new InvalidInputException("Transaction type must be DEBIT or CREDIT");
+        }
+        return normalized;
+    }
+
+    // ✅ Writes every matching transaction; returns the number of rows written
+    public long export(Filter filter, String format, boolean gzip, OutputStream target) throws IOException {
+        List<Object> params = new ArrayList<>();
+        String sql = buildQuery(filter, params);
+
+        OutputStream stream = gzip ? new GZIPOutputStream(target, 8192) : target;
+        Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        RowWriter rows = CSV.equals(format) ? new CsvRowWriter(out) : new NdjsonRowWriter(objectMapper, out);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> streamingJdbc.query(sql, rows, params.toArray()));
+            rows.close();
+        } catch (UncheckedIOException ex) {
+            // Client went away; the cursor and its transaction are already closed
+            logger.info("Transaction export aborted after {} rows: {}", rows.count, ex.getCause().getMessage());
+            throw ex.getCause();
+        }
+        logger.info("Exported {} transactions as {}{}", rows.count, format, gzip ? " (gzip)" : "");
+        return rows.count;
+    }
+
+    private static String buildQuery(Filter filter, List<Object> params) {
+        StringBuilder sql = new StringBuilder(
+                "select t.id, t.card_id, c.customer_id, t.date_time, t.transaction_type, t.card_type, t.amount, t.description "
+                        + "from transaction t join credit_card c on c.id = t.card_id where c.deleted_at is null");
+        if (filter.customerId() != null) {
+            sql.append(" and c.customer_id = ?");
+            params.add(filter.customerId());
+        }
+        if (filter.cardId() != null) {
+            sql.append(" and t.card_id = ?");
+            params.add(filter.cardId());
+        }
+        if (filter.transactionType() != null) {
+            sql.append(" and upper(t.transaction_type) = ?");
+            params.add(filter.transactionType().toUpperCase(Locale.ROOT));
+        }
+        if (filter.from() != null) {
+            sql.append(" and t.date_time >= ?");
+            params.add(Timestamp.valueOf(filter.from().atStartOfDay()));
+        }
+        if (filter.to() != null) {
+            sql.append(" and t.date_time < ?");
+            params.add(Timestamp.valueOf(filter.to().plusDays(1).atStartOfDay()));
+        }
+        return sql.append(" order by t.date_time, t.id").toString();
+    }
+
+    // One output format; IO failures surface as UncheckedIOException so they end the query
+    private abstract static class RowWriter implements RowCallbackHandler {
+        final Writer out;
+        long count;
+
+        RowWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                write(rs);
+                count++;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+        CsvRowWriter(Writer out) throws IOException {
+            super(out);
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            Csv.writeRow(out, Long.toString(rs.getLong("id")), Long.toString(rs.getLong("card_id")),
+                    Long.toString(rs.getLong("customer_id")), rs.getTimestamp("date_time").toLocalDateTime().toString(),
+                    rs.getString("transaction_type"), rs.getString("card_type"), Double.toString(rs.getDouble("amount")),
+                    rs.getString("description"));
+        }
+    }
+
+    private static final class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(ObjectMapper objectMapper, Writer out) throws IOException {
+            super(out);
+            this.json = objectMapper.getFactory().createGenerator(out);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeStringField("id", Long.toString(rs.getLong("id"))); // time-ordered, see TransactionDto.id
+            json.writeNumberField("cardId", rs.getLong("card_id"));
+            json.writeNumberField("customerId", rs.getLong("customer_id"));
+            json.writeStringField("timestamp", rs.getTimestamp("date_time").toLocalDateTime().toString());
+            json.writeStringField("transactionType", rs.getString("transaction_type"));
+            json.writeStringField("cardType", rs.getString("card_type"));
+            json.writeNumberField("amount", rs.getDouble("amount"));
+            json.writeStringField("description", rs.getString("description"));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        void close() throws IOException {
+            json.close();
+            super.close();
+        }
+    }
+}
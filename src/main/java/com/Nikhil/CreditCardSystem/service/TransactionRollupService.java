@@ -0,0 +1,127 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CardRollup;
+import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.dto.CardRollupDto;
+import com.Nikhil.CreditCardSystem.repo.CardRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-card daily and monthly totals (count, debit and credit sums, min/max amount).
+ *
+ * Every code path that inserts Transaction rows calls {@link #record} in the same DB transaction,
+ * which adds the new rows to their DAY and MONTH rollups with one batched INSERT ... ON CONFLICT DO
+ * UPDATE, so the rollups commit or roll back together with the transactions. Rollup rows are
+ * upserted in key order, so two transactions touching the same cards cannot deadlock on them.
+ * Summaries are then a primary-key read instead of a scan over the card's history.
+ *
+ * The same call hands the rows to TransactionAnalyticsStore, which appends them after the commit.
+ */
+@Service
+public class TransactionRollupService {
+
+    public static final String DAY = "DAY";
+    public static final String MONTH = "MONTH";
+
+    private static final String UPSERT_SQL =
+            "insert into card_rollup (card_id, period, period_start, tx_count, debit_total, credit_total, min_amount, max_amount) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "on conflict (card_id, period, period_start) do update set "
+                    + "tx_count = card_rollup.tx_count + excluded.tx_count, "
+                    + "debit_total = card_rollup.debit_total + excluded.debit_total, "
+                    + "credit_total = card_rollup.credit_total + excluded.credit_total, "
+                    + "min_amount = least(card_rollup.min_amount, excluded.min_amount), "
+                    + "max_amount = greatest(card_rollup.max_amount, excluded.max_amount)";
+
+    private static final Comparator<CardRollup.Key> KEY_ORDER = Comparator
+            .comparing(CardRollup.Key::getCardId)
+            .thenComparing(CardRollup.Key::getPeriod)
+            .thenComparing(CardRollup.Key::getPeriodStart);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CardRollupRepository cardRollupRepository;
+
+    @Autowired
+    private TransactionAnalyticsStore transactionAnalyticsStore;
+
+    // Running totals of one rollup row within a call
+    private static final class Totals {
+        long count;
+        double debit;
+        double credit;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+
+        void add(Transaction transaction) {
+            double amount = transaction.getAmount();
+            count++;
+            if ("DEBIT".equalsIgnoreCase(transaction.getTransactionType())) {
+                debit += amount;
+            } else {
+                credit += amount;
+            }
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+        }
+    }
+
+    // ✅ Adds new transactions to their rollups; must run in the transaction that inserts them
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<Transaction> transactions) {
+        Map<CardRollup.Key, Totals> totals = new TreeMap<>(KEY_ORDER);
+        for (Transaction transaction : transactions) {
+            LocalDate day = transaction.getDateTime().toLocalDate();
+            Long cardId = transaction.getCreditCard().getId();
+            totals.computeIfAbsent(key(cardId, DAY, day), k -> new Totals()).add(transaction);
+            totals.computeIfAbsent(key(cardId, MONTH, day.withDayOfMonth(1)), k -> new Totals()).add(transaction);
+        }
+        if (totals.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, t) -> rows.add(new Object[]{key.getCardId(), key.getPeriod(), key.getPeriodStart(),
+                t.count, t.debit, t.credit, t.min, t.max}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        transactionAnalyticsStore.recordAfterCommit(transactions);
+    }
+
+    // ✅ Totals of one card for the day or month containing the date (a single primary-key read)
+    public CardRollupDto getSummary(Long cardId, String period, LocalDate date) {
+        LocalDate periodStart = MONTH.equals(period) ? date.withDayOfMonth(1) : date;
+        CardRollupDto dto = new CardRollupDto();
+        dto.setCardId(cardId);
+        dto.setPeriod(period);
+        dto.setPeriodStart(periodStart);
+        cardRollupRepository.findByCardIdAndPeriodAndPeriodStart(cardId, period, periodStart).ifPresent(rollup -> {
+            dto.setTransactionCount(rollup.getTxCount());
+            dto.setDebitTotal(rollup.getDebitTotal());
+            dto.setCreditTotal(rollup.getCreditTotal());
+            dto.setMinAmount(rollup.getMinAmount());
+            dto.setMaxAmount(rollup.getMaxAmount());
+        });
+        return dto;
+    }
+
+    private static CardRollup.Key key(Long cardId, String period, LocalDate periodStart) {
+        CardRollup.Key key = new CardRollup.Key();
+        key.setCardId(cardId);
+        key.setPeriod(period);
+        key.setPeriodStart(periodStart);
+        return key;
+    }
+}
@@ -1,12 +1,50 @@
 package com.Nikhil.CreditCardSystem.service;
 
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
 import com.Nikhil.CreditCardSystem.Entity.Transaction;
 import com.Nikhil.CreditCardSystem.dto.TransactionDto;
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+import com.Nikhil.CreditCardSystem.repo.SparseFieldRepository;
+import com.Nikhil.CreditCardSystem.repo.TransactionRepository;
+import com.Nikhil.CreditCardSystem.util.ColumnarTransactionFile.Row;
+import com.Nikhil.CreditCardSystem.util.FieldSelection;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class TransactionService {
 
+    @Autowired
+    private SparseFieldRepository sparseFieldRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ColdTransactionStore coldTransactionStore;
+
+    // Fields a client may request with ?fields= (response name -> entity attribute)
+    private static final Map<String, String> SPARSE_FIELDS = Map.of(
+            "id", "id",
+            "amount", "amount",
+            "transactionType", "transactionType",
+            "cardType", "cardType",
+            "description", "description",
+            "timestamp", "dateTime",
+            "cardNumber", "creditCard.cardNumber");
+
     public TransactionDto toDto(Transaction tx) {
         TransactionDto dto = new TransactionDto();
         dto.setId(tx.getId());
@@ -23,4 +61,67 @@ public class TransactionService {
         return dto;
     }
 
+    // Selected fields of every transaction across a customer's cards
+    public List<Map<String, Object>> findFieldsByUser(Long userId, String fields) {
+        return idsAsText(sparseFieldRepository.findFields(
+                Transaction.class, FieldSelection.parse(fields, SPARSE_FIELDS), "creditCard.customer.id", userId));
+    }
+
+    // Selected fields of every transaction of one card
+    public List<Map<String, Object>> findFieldsByCard(Long cardId, String fields) {
+        return idsAsText(sparseFieldRepository.findFields(
+                Transaction.class, FieldSelection.parse(fields, SPARSE_FIELDS), "creditCard.id", cardId));
+    }
+
+    // Same as TransactionDto.id: time-ordered ids exceed 2^53, so they go out as strings
+    private static List<Map<String, Object>> idsAsText(List<Map<String, Object>> rows) {
+        rows.forEach(row -> row.computeIfPresent("id", (name, id) -> id.toString()));
+        return rows;
+    }
+
+    // ✅ Transactions of the cards between two days (inclusive), newest first. Rows from the database
+    // and, when the range reaches before the archive horizon, from the cold store; a row in both
+    // (archive run interrupted before its delete) is returned once.
+    public List<TransactionDto> findHistory(Collection<CreditCard> cards, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidInputException("'from' must not be after 'to'");
+        }
+        if (cards.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        Map<Long, CreditCard> cardsById = cards.stream().collect(Collectors.toMap(CreditCard::getId, Function.identity()));
+
+        List<TransactionDto> history = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Transaction tx : transactionRepository.findByCardIdsBetween(cardsById.keySet(), start, end)) {
+            seen.add(tx.getId());
+            history.add(toDto(tx));
+        }
+
+        LocalDateTime horizon = coldTransactionStore.horizon();
+        if (horizon != null && start.isBefore(horizon)) {
+            LocalDateTime coldEnd = end.isBefore(horizon) ? end : horizon;
+            for (Row row : coldTransactionStore.scan(cardsById.keySet(), start, coldEnd)) {
+                if (seen.add(row.id())) {
+                    history.add(toDto(row, cardsById.get(row.cardId())));
+                }
+            }
+            history.sort(Comparator.comparing(TransactionDto::getTimestamp).thenComparing(TransactionDto::getId).reversed());
+        }
+        return history;
+    }
+
+    private TransactionDto toDto(Row row, CreditCard card) {
+        TransactionDto dto = new TransactionDto();
+        dto.setId(row.id());
+        dto.setAmount(row.amount());
+        dto.setTransactionType(row.transactionType());
+        dto.setCardType(row.cardType());
+        dto.setDescription(row.description());
+        dto.setTimestamp(row.dateTime());
+        dto.setCardNumber(card.getCardNumber());
+        return dto;
+    }
 }
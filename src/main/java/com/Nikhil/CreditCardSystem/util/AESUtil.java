@@ -1,38 +1,189 @@
-//package com.Nikhil.CreditCardSystem.util;
-//
-//
-//
-//import javax.crypto.Cipher;
-//import javax.crypto.spec.SecretKeySpec;
-//import java.util.Base64;
-//
-//public class AESUtil {
-//    private static final String SECRET_KEY = "MySecretKey12345"; // 16 chars for AES-128
-//
-//    public static String encrypt(String data) {
-//        if (data == null) return null;
-//        try {
-//            SecretKeySpec key = new SecretKeySpec(SECRET_KEY.getBytes(), "AES");
-//            Cipher cipher = Cipher.getInstance("AES");
-//            cipher.init(Cipher.ENCRYPT_MODE, key);
-//            byte[] encryptedBytes = cipher.doFinal(data.getBytes());
-//            return Base64.getEncoder().encodeToString(encryptedBytes);
-//        } catch (Exception e) {
-//            throw new RuntimeException("Error while encrypting: " + e.getMessage());
-//        }
-//    }
-//
-//    public static String decrypt(String encryptedData) {
-//        if (encryptedData == null) return null;
-//        try {
-//            SecretKeySpec key = new SecretKeySpec(SECRET_KEY.getBytes(), "AES");
-//            Cipher cipher = Cipher.getInstance("AES");
-//            cipher.init(Cipher.DECRYPT_MODE, key);
-//            byte[] decodedBytes = Base64.getDecoder().decode(encryptedData);
-//            return new String(cipher.doFinal(decodedBytes));
-//        } catch (Exception e) {
-//            throw new RuntimeException("Error while decrypting: " + e.getMessage());
-//        }
-//    }
-//}
-//
+package com.Nikhil.CreditCardSystem.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Field-level encryption used by {@link EncryptDecryptConverter}.
+ *
+ * Current format ("v1"): {@code v1:} + Base64(nonce || AES-GCM ciphertext and tag). The 96-bit nonce
+ * is derived from an HMAC of the plaintext, so encryption is deterministic: equality lookups
+ * (username and card number lookups) and the unique index on card numbers keep working.
+ *
+ * Legacy format: Base64 of AES/ECB/PKCS5Padding with the old static key, as written by the
+ * previous converter. It is still decrypted, and {@link #lookupCandidates(String)} lets queries
+ * match rows that have not been re-encrypted yet.
+ *
+ * Cipher and Mac instances are created once per thread and re-initialised per call instead of
+ * being looked up through {@code Cipher.getInstance} every time.
+ */
+@Component
+public class AESUtil {
+
+    private static final String VERSION_PREFIX = "v1:";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final SecretKeySpec gcmKey;
+    private final SecretKeySpec nonceKey;
+    private final SecretKeySpec legacyKey;
+
+    private final ThreadLocal<ThreadCiphers> ciphers = ThreadLocal.withInitial(ThreadCiphers::new);
+
+    public AESUtil(@Value("${field-encryption.key}") String base64Key,
+                   @Value("${field-encryption.legacy-key:}") String legacyKey) {
+        if (base64Key == null || base64Key.isBlank()) {
+            throw new IllegalStateException("field-encryption.key is not set; provide it through FIELD_ENCRYPTION_KEY");
+        }
+        byte[] keyBytes = Base64.getDecoder().decode(base64Key);
+        if (keyBytes.length != 16 && keyBytes.length != 32) {
+            throw new IllegalArgumentException("field-encryption.key must be a Base64 encoded 128 or 256 bit key");
+        }
+        this.gcmKey = new SecretKeySpec(keyBytes, "AES");
+        this.nonceKey = new SecretKeySpec(hmac(keyBytes, "field-encryption-nonce"), "HmacSHA256");
+        this.legacyKey = legacyKey == null || legacyKey.isBlank()
+                ? null
+                : new SecretKeySpec(legacyKey.getBytes(StandardCharsets.UTF_8), "AES");
+    }
+
+    public String encrypt(String data) {
+        if (data == null) return null;
+        ThreadCiphers tc = ciphers.get();
+        // GCM refuses to re-init a cipher with the IV it just used; identical plaintext gives
+        // identical output anyway, so hand back the previous result.
+        if (data.equals(tc.lastPlaintext)) {
+            return tc.lastCiphertext;
+        }
+        try {
+            byte[] plain = data.getBytes(StandardCharsets.UTF_8);
+            byte[] nonce = Arrays.copyOf(tc.nonceMac().doFinal(plain), NONCE_LENGTH);
+
+            Cipher cipher = tc.gcmEncrypt();
+            cipher.init(Cipher.ENCRYPT_MODE, gcmKey, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+            byte[] out = new byte[NONCE_LENGTH + cipher.getOutputSize(plain.length)];
+            System.arraycopy(nonce, 0, out, 0, NONCE_LENGTH);
+            cipher.doFinal(plain, 0, plain.length, out, NONCE_LENGTH);
+
+            String result = VERSION_PREFIX + Base64.getEncoder().encodeToString(out);
+            tc.lastPlaintext = data;
+            tc.lastCiphertext = result;
+            return result;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error while encrypting: " + e.getMessage(), e);
+        }
+    }
+
+    public String decrypt(String encryptedData) {
+        if (encryptedData == null) return null;
+        if (!isCurrentFormat(encryptedData)) {
+            return decryptLegacy(encryptedData);
+        }
+        try {
+            byte[] in = Base64.getDecoder().decode(encryptedData.substring(VERSION_PREFIX.length()));
+            Cipher cipher = ciphers.get().gcmDecrypt();
+            cipher.init(Cipher.DECRYPT_MODE, gcmKey, new GCMParameterSpec(TAG_LENGTH_BITS, in, 0, NONCE_LENGTH));
+            return new String(cipher.doFinal(in, NONCE_LENGTH, in.length - NONCE_LENGTH), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error while decrypting: " + e.getMessage(), e);
+        }
+    }
+
+    public boolean isCurrentFormat(String encryptedData) {
+        return encryptedData != null && encryptedData.startsWith(VERSION_PREFIX);
+    }
+
+    /**
+     * Ciphertexts an equality lookup for {@code plain} has to match: the current format and,
+     * while legacy rows may still exist, the legacy one.
+     */
+    public List<String> lookupCandidates(String plain) {
+        if (plain == null) return List.of();
+        return legacyKey == null ? List.of(encrypt(plain)) : List.of(encrypt(plain), encryptLegacy(plain));
+    }
+
+    String encryptLegacy(String data) {
+        try {
+            Cipher cipher = ciphers.get().legacyEncrypt();
+            return Base64.getEncoder().encodeToString(cipher.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error while encrypting: " + e.getMessage(), e);
+        }
+    }
+
+    private String decryptLegacy(String encryptedData) {
+        if (legacyKey == null) {
+            throw new IllegalStateException("Found legacy ciphertext but field-encryption.legacy-key is not configured");
+        }
+        try {
+            Cipher cipher = ciphers.get().legacyDecrypt();
+            return new String(cipher.doFinal(Base64.getDecoder().decode(encryptedData)), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error while decrypting: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String label) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(label.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to derive field encryption nonce key", e);
+        }
+    }
+
+    // Per-thread cipher state; ECB ciphers keep their init, GCM ones are re-initialised per nonce
+    private final class ThreadCiphers {
+        private Cipher gcmEncrypt;
+        private Cipher gcmDecrypt;
+        private Cipher legacyEncrypt;
+        private Cipher legacyDecrypt;
+        private Mac nonceMac;
+        private String lastPlaintext;
+        private String lastCiphertext;
+
+        Cipher gcmEncrypt() throws GeneralSecurityException {
+            if (gcmEncrypt == null) gcmEncrypt = Cipher.getInstance("AES/GCM/NoPadding");
+            return gcmEncrypt;
+        }
+
+        Cipher gcmDecrypt() throws GeneralSecurityException {
+            if (gcmDecrypt == null) gcmDecrypt = Cipher.getInstance("AES/GCM/NoPadding");
+            return gcmDecrypt;
+        }
+
+        Cipher legacyEncrypt() throws GeneralSecurityException {
+            if (legacyEncrypt == null) {
+                legacyEncrypt = Cipher.getInstance("AES/ECB/PKCS5Padding");
+                legacyEncrypt.init(Cipher.ENCRYPT_MODE, legacyKey);
+            }
+            return legacyEncrypt;
+        }
+
+        Cipher legacyDecrypt() throws GeneralSecurityException {
+            if (legacyDecrypt == null) {
+                legacyDecrypt = Cipher.getInstance("AES/ECB/PKCS5Padding");
+                legacyDecrypt.init(Cipher.DECRYPT_MODE, legacyKey);
+            }
+            return legacyDecrypt;
+        }
+
+        Mac nonceMac() throws GeneralSecurityException {
+            if (nonceMac == null) {
+                nonceMac = Mac.getInstance("HmacSHA256");
+                nonceMac.init(nonceKey);
+            }
+            return nonceMac;
+        }
+    }
+}
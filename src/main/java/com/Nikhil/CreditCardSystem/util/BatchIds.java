@@ -0,0 +1,41 @@
+package com.Nikhil.CreditCardSystem.util;
+
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates the id list of a batch-get request.
+ */
+public final class BatchIds {
+
+    private BatchIds() {
+    }
+
+    /**
+     * @param ids    ids as sent by the client
+     * @param maxIds upper bound on ids per request, so one call cannot fan out into an unbounded IN list
+     * @param errors receives a per-id error for ids that are not valid, keyed by the id as text ("null" for a null id)
+     * @return distinct valid ids, in request order
+     */
+    public static Set<Long> normalize(List<Long> ids, int maxIds, Map<String, String> errors) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidInputException("ids must contain at least one ID");
+        }
+        if (ids.size() > maxIds) {
+            throw new InvalidInputException("At most " + maxIds + " IDs can be requested at once, got " + ids.size());
+        }
+        Set<Long> valid = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                errors.put(String.valueOf(id), "ID must be a positive number");
+            } else {
+                valid.add(id);
+            }
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,371 @@
+package com.Nikhil.CreditCardSystem.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compressed column file of archived transactions (see ColdTransactionStore).
+ *
+ * Rows are sorted by (card id, date time, id) and cut into row groups of {@value #GROUP_ROWS} rows.
+ * Each column of a group is deflated separately: ids, card ids and times as delta varints, amounts
+ * as raw doubles, strings through a per-group dictionary. The header holds the min/max card id and
+ * time of the file and of every group together with the column offsets, so a scan only inflates
+ * the groups that can match, and of those the card id and time columns first; the other columns are
+ * inflated only for groups with matching rows.
+ *
+ * Layout: magic, version, row count, file min/max, group count, then per group its row count,
+ * min/max and column lengths; the column data of all groups follows in the same order.
+ */
+public final class ColumnarTransactionFile {
+
+    public static final String EXTENSION = ".txc";
+
+    static final int MAGIC = 0x54584331; // "TXC1"
+    static final int VERSION = 1;
+    static final int GROUP_ROWS = 8192;
+    static final int COLUMNS = 7;
+    private static final int ZONE_BYTES = 4 + 4 * 8;
+
+    private static final int ID = 0, CARD_ID = 1, DATE_TIME = 2, AMOUNT = 3, TYPE = 4, CARD_TYPE = 5, DESCRIPTION = 6;
+
+    private static final Comparator<Row> ORDER = Comparator.comparingLong(Row::cardId)
+            .thenComparing(Row::dateTime)
+            .thenComparingLong(Row::id);
+
+    public record Row(long id, long cardId, LocalDateTime dateTime, double amount,
+                      String transactionType, String cardType, String description) {
+    }
+
+    // Min/max of a file or group; times as epoch microseconds
+    private record Zone(int rows, long minCardId, long maxCardId, long minTime, long maxTime) {
+
+        boolean overlaps(long fromCardId, long toCardId, long fromTime, long toTime) {
+            return maxCardId >= fromCardId && minCardId <= toCardId && maxTime >= fromTime && minTime < toTime;
+        }
+    }
+
+    private ColumnarTransactionFile() {
+    }
+
+    // ✅ Writes the rows (any order) to the file, replacing it
+    public static void write(Path file, List<Row> rows) throws IOException {
+        List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(ORDER);
+
+        List<Zone> zones = new ArrayList<>();
+        List<byte[][]> groups = new ArrayList<>();
+        for (int start = 0; start < sorted.size(); start += GROUP_ROWS) {
+            List<Row> group = sorted.subList(start, Math.min(sorted.size(), start + GROUP_ROWS));
+            zones.add(zoneOf(group));
+            groups.add(encodeGroup(group));
+        }
+
+        try (OutputStream fileOut = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeZone(out, sorted.isEmpty() ? new Zone(0, 0, -1, 0, -1) : zoneOf(sorted));
+            out.writeInt(groups.size());
+            for (int g = 0; g < groups.size(); g++) {
+                writeZone(out, zones.get(g));
+                for (byte[] column : groups.get(g)) {
+                    out.writeInt(column.length);
+                }
+            }
+            for (byte[][] group : groups) {
+                for (byte[] column : group) {
+                    out.write(column);
+                }
+            }
+        }
+    }
+
+    // ✅ Rows of the given cards with fromInclusive <= dateTime < toExclusive
+    public static List<Row> scan(Path file, Set<Long> cardIds, LocalDateTime fromInclusive, LocalDateTime toExclusive) throws IOException {
+        if (cardIds.isEmpty()) {
+            return List.of();
+        }
+        long fromCardId = Collections.min(cardIds);
+        long toCardId = Collections.max(cardIds);
+        long fromTime = micros(fromInclusive);
+        long toTime = micros(toExclusive);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Index index = readIndex(channel, file);
+            List<Row> matches = new ArrayList<>();
+            if (!index.file().overlaps(fromCardId, toCardId, fromTime, toTime)) {
+                return matches;
+            }
+            for (int g = 0; g < index.groups().length; g++) {
+                Zone zone = index.groups()[g];
+                if (!zone.overlaps(fromCardId, toCardId, fromTime, toTime)) {
+                    continue;
+                }
+                long[] offsets = index.offsets()[g];
+                long[] groupCardIds = readLongs(channel, offsets, CARD_ID, zone.rows());
+                long[] times = readLongs(channel, offsets, DATE_TIME, zone.rows());
+                List<Integer> hits = new ArrayList<>();
+                for (int i = 0; i < zone.rows(); i++) {
+                    if (times[i] >= fromTime && times[i] < toTime && cardIds.contains(groupCardIds[i])) {
+                        hits.add(i);
+                    }
+                }
+                if (!hits.isEmpty()) {
+                    readRows(channel, offsets, zone.rows(), groupCardIds, times, hits, matches);
+                }
+            }
+            return matches;
+        }
+    }
+
+    // Every row of the file, for merging rows archived later into it
+    public static List<Row> readAll(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Index index = readIndex(channel, file);
+            List<Row> rows = new ArrayList<>();
+            for (int g = 0; g < index.groups().length; g++) {
+                int count = index.groups()[g].rows();
+                long[] offsets = index.offsets()[g];
+                List<Integer> all = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    all.add(i);
+                }
+                readRows(channel, offsets, count, readLongs(channel, offsets, CARD_ID, count),
+                        readLongs(channel, offsets, DATE_TIME, count), all, rows);
+            }
+            return rows;
+        }
+    }
+
+    // Header of a file: its zone, the zone of every group and the start offsets of the group's columns
+    private record Index(Zone file, Zone[] groups, long[][] offsets) {
+    }
+
+    private static Index readIndex(FileChannel channel, Path file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 14));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a transaction column file: " + file);
+        }
+        Zone fileZone = readZone(in);
+        int groupCount = in.readInt();
+        Zone[] zones = new Zone[groupCount];
+        int[][] lengths = new int[groupCount][COLUMNS];
+        for (int g = 0; g < groupCount; g++) {
+            zones[g] = readZone(in);
+            for (int c = 0; c < COLUMNS; c++) {
+                lengths[g][c] = in.readInt();
+            }
+        }
+        long[][] offsets = new long[groupCount][COLUMNS + 1];
+        long position = 4 + 4 + ZONE_BYTES + 4 + (long) groupCount * (ZONE_BYTES + 4 * COLUMNS);
+        for (int g = 0; g < groupCount; g++) {
+            offsets[g][0] = position;
+            for (int c = 0; c < COLUMNS; c++) {
+                offsets[g][c + 1] = offsets[g][c] + lengths[g][c];
+            }
+            position = offsets[g][COLUMNS];
+        }
+        return new Index(fileZone, zones, offsets);
+    }
+
+    // Inflates the remaining columns of a group and adds the selected rows
+    private static void readRows(FileChannel channel, long[] offsets, int count, long[] cardIds, long[] times,
+                                 List<Integer> selected, List<Row> target) throws IOException {
+        long[] ids = readLongs(channel, offsets, ID, count);
+        double[] amounts = readDoubles(channel, offsets, count);
+        String[] types = readStrings(channel, offsets, TYPE, count);
+        String[] cardTypes = readStrings(channel, offsets, CARD_TYPE, count);
+        String[] descriptions = readStrings(channel, offsets, DESCRIPTION, count);
+        for (int i : selected) {
+            target.add(new Row(ids[i], cardIds[i], dateTime(times[i]), amounts[i], types[i], cardTypes[i], descriptions[i]));
+        }
+    }
+
+    private static byte[][] encodeGroup(List<Row> group) throws IOException {
+        byte[][] columns = new byte[COLUMNS][];
+        columns[ID] = deflate(out -> writeDeltas(out, group.stream().mapToLong(Row::id).toArray()));
+        columns[CARD_ID] = deflate(out -> writeDeltas(out, group.stream().mapToLong(Row::cardId).toArray()));
+        columns[DATE_TIME] = deflate(out -> writeDeltas(out, group.stream().mapToLong(row -> micros(row.dateTime())).toArray()));
+        columns[AMOUNT] = deflate(out -> {
+            for (Row row : group) {
+                out.writeDouble(row.amount());
+            }
+        });
+        columns[TYPE] = deflate(out -> writeDictionary(out, group.stream().map(Row::transactionType).toList()));
+        columns[CARD_TYPE] = deflate(out -> writeDictionary(out, group.stream().map(Row::cardType).toList()));
+        columns[DESCRIPTION] = deflate(out -> writeDictionary(out, group.stream().map(Row::description).toList()));
+        return columns;
+    }
+
+    private static Zone zoneOf(List<Row> rows) {
+        long minCard = Long.MAX_VALUE, maxCard = Long.MIN_VALUE, minTime = Long.MAX_VALUE, maxTime = Long.MIN_VALUE;
+        for (Row row : rows) {
+            long time = micros(row.dateTime());
+            minCard = Math.min(minCard, row.cardId());
+            maxCard = Math.max(maxCard, row.cardId());
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+        }
+        return new Zone(rows.size(), minCard, maxCard, minTime, maxTime);
+    }
+
+    private static void writeZone(DataOutputStream out, Zone zone) throws IOException {
+        out.writeInt(zone.rows());
+        out.writeLong(zone.minCardId());
+        out.writeLong(zone.maxCardId());
+        out.writeLong(zone.minTime());
+        out.writeLong(zone.maxTime());
+    }
+
+    private static Zone readZone(DataInputStream in) throws IOException {
+        return new Zone(in.readInt(), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+    }
+
+    // ---- column encodings ----
+
+    private interface ColumnWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] deflate(ColumnWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 1 << 14))) {
+            writer.write(out);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream inflate(FileChannel channel, long[] offsets, int column) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (offsets[column + 1] - offsets[column]));
+        long position = offsets[column];
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Truncated transaction column file");
+            }
+        }
+        InputStream in = new InflaterInputStream(new ByteArrayInputStream(buffer.array()), new Inflater(), 1 << 14);
+        return new DataInputStream(new BufferedInputStream(in, 1 << 14));
+    }
+
+    private static void writeDeltas(DataOutputStream out, long[] values) throws IOException {
+        long previous = 0;
+        for (long value : values) {
+            long delta = value - previous;
+            writeVarLong(out, (delta << 1) ^ (delta >> 63)); // zigzag
+            previous = value;
+        }
+    }
+
+    private static long[] readLongs(FileChannel channel, long[] offsets, int column, int rows) throws IOException {
+        long[] values = new long[rows];
+        try (DataInputStream in = inflate(channel, offsets, column)) {
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                long zigzag = readVarLong(in);
+                previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                values[i] = previous;
+            }
+        }
+        return values;
+    }
+
+    private static double[] readDoubles(FileChannel channel, long[] offsets, int rows) throws IOException {
+        double[] values = new double[rows];
+        try (DataInputStream in = inflate(channel, offsets, AMOUNT)) {
+            for (int i = 0; i < rows; i++) {
+                values[i] = in.readDouble();
+            }
+        }
+        return values;
+    }
+
+    // Distinct values first, then one varint code per row; code 0 is null
+    private static void writeDictionary(DataOutputStream out, List<String> values) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        for (String value : values) {
+            if (value != null && !codes.containsKey(value)) {
+                codes.put(value, dictionary.size() + 1);
+                dictionary.add(value);
+            }
+        }
+        writeVarLong(out, dictionary.size());
+        for (String value : dictionary) {
+            out.writeUTF(value);
+        }
+        for (String value : values) {
+            writeVarLong(out, value == null ? 0 : codes.get(value));
+        }
+    }
+
+    private static String[] readStrings(FileChannel channel, long[] offsets, int column, int rows) throws IOException {
+        String[] values = new String[rows];
+        try (DataInputStream in = inflate(channel, offsets, column)) {
+            String[] dictionary = new String[(int) readVarLong(in) + 1];
+            for (int i = 1; i < dictionary.length; i++) {
+                dictionary[i] = in.readUTF();
+            }
+            for (int i = 0; i < rows; i++) {
+                values[i] = dictionary[(int) readVarLong(in)];
+            }
+        }
+        return values;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long micros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,59 @@
+package com.Nikhil.CreditCardSystem.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Read-mostly set of ids stored as one sorted {@code long[]} (8 bytes per id, no boxing).
+ *
+ * Lookups are a lock-free binary search on an immutable snapshot; writers build a new array and
+ * publish it through a volatile field, so a reader never sees a half-written set. Meant for sets
+ * that are checked on every request and changed in bulk now and then.
+ */
+public class CompactIdSet {
+
+    private volatile long[] ids = new long[0];
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // Replaces the whole set, e.g. after reloading it from the database
+    public synchronized void replace(long[] newIds) {
+        long[] copy = newIds.clone();
+        Arrays.sort(copy);
+        ids = dedupe(copy, copy.length);
+    }
+
+    // Merges the ids into the set (one array copy per call, so add in bulk)
+    public synchronized void addAll(Collection<Long> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        long[] current = ids;
+        long[] merged = Arrays.copyOf(current, current.length + added.size());
+        int n = current.length;
+        for (Long id : added) {
+            merged[n++] = id;
+        }
+        Arrays.sort(merged);
+        ids = dedupe(merged, merged.length);
+    }
+
+    private static long[] dedupe(long[] sorted, int length) {
+        if (length == 0) {
+            return sorted;
+        }
+        int n = 1;
+        for (int i = 1; i < length; i++) {
+            if (sorted[i] != sorted[n - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+}
@@ -0,0 +1,88 @@
+package com.Nikhil.CreditCardSystem.util;
+
+import com.Nikhil.CreditCardSystem.exception.ServiceTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a fixed set of subtasks in parallel under one shared deadline, in the spirit of
+ * {@code StructuredTaskScope.ShutdownOnFailure} (not available on Java 17).
+ *
+ * {@link #join()} returns once every subtask has succeeded. If one fails or the deadline passes,
+ * the remaining subtasks are cancelled (interrupted) and the failure is rethrown. Closing the
+ * scope cancels anything still running, so no subtask outlives the request that forked it.
+ */
+public final class DeadlineScope implements AutoCloseable {
+
+    private final CompletionService<Object> completionService;
+    private final List<Future<?>> futures = new ArrayList<>();
+    private final long deadlineNanos;
+    private final String name;
+
+    public DeadlineScope(String name, ExecutorService executor, Duration timeout) {
+        this.name = name;
+        this.completionService = new ExecutorCompletionService<>(executor);
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Future<T> fork(Callable<T> task) {
+        Future<T> future = (Future<T>) completionService.submit((Callable<Object>) task);
+        futures.add(future);
+        return future;
+    }
+
+    public void join() {
+        try {
+            for (int remaining = futures.size(); remaining > 0; remaining--) {
+                long waitNanos = deadlineNanos - System.nanoTime();
+                Future<Object> done = waitNanos > 0 ? completionService.poll(waitNanos, TimeUnit.NANOSECONDS) : null;
+                if (done == null) {
+                    throw new ServiceTimeoutException(name + " did not complete within its deadline");
+                }
+                done.get(); // rethrows the first failure
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceTimeoutException(name + " was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(name + " failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            cancelRemaining();
+        }
+    }
+
+    /** Result of a subtask; only valid after {@link #join()} returned normally. */
+    public static <T> T resultOf(Future<T> future) {
+        try {
+            return future.get(0, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | CancellationException | InterruptedException | TimeoutException e) {
+            throw new IllegalStateException("Subtask result read before join() completed", e);
+        }
+    }
+
+    private void cancelRemaining() {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelRemaining();
+    }
+}
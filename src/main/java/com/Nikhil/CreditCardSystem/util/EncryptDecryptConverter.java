@@ -1,21 +1,28 @@
-//package com.Nikhil.CreditCardSystem.util;
-//
-//
-//import jakarta.persistence.AttributeConverter;
-//import jakarta.persistence.Converter;
-////import com.Nikhil.CreditCardSystem.util.AESUtil;
-//
-//@Converter
-//public class EncryptDecryptConverter implements AttributeConverter<String, String> {
-//
-//    @Override
-//    public String convertToDatabaseColumn(String attribute) {
-//        return AESUtil.encrypt(attribute);
-//    }
-//
-//    @Override
-//    public String convertToEntityAttribute(String dbData) {
-//        return AESUtil.decrypt(dbData);
-//    }
-//}
-//
+package com.Nikhil.CreditCardSystem.util;
+
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.stereotype.Component;
+
+// Spring managed so Hibernate gets the configured AESUtil (Boot wires Hibernate to the bean factory)
+@Component
+@Converter
+public class EncryptDecryptConverter implements AttributeConverter<String, String> {
+
+    private final AESUtil aesUtil;
+
+    public EncryptDecryptConverter(AESUtil aesUtil) {
+        this.aesUtil = aesUtil;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return aesUtil.encrypt(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return aesUtil.decrypt(dbData);
+    }
+}
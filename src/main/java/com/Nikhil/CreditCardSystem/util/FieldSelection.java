@@ -0,0 +1,41 @@
+package com.Nikhil.CreditCardSystem.util;
+
+import com.Nikhil.CreditCardSystem.exception.InvalidInputException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Parses a {@code fields=a,b,c} query parameter against the fields an endpoint exposes.
+ */
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    /**
+     * @param fields  raw comma separated value of the query parameter
+     * @param allowed field name exposed in the response -> entity attribute path
+     * @return requested field name -> attribute path, in the order the client asked for them
+     */
+    public static Map<String, String> parse(String fields, Map<String, String> allowed) {
+        Map<String, String> selected = new LinkedHashMap<>();
+        for (String raw : fields.split(",")) {
+            String name = raw.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String path = allowed.get(name);
+            if (path == null) {
+                throw new InvalidInputException("Unknown field '" + name + "'. Allowed fields: "
+                        + String.join(", ", new TreeSet<>(allowed.keySet())));
+            }
+            selected.put(name, path);
+        }
+        if (selected.isEmpty()) {
+            throw new InvalidInputException("At least one field must be requested");
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,134 @@
+package com.Nikhil.CreditCardSystem.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for id deadlines (one bucket per tick, wrapping around).
+ *
+ * Scheduling is O(1) and lock-free: entries go to a pending queue and the ticker thread moves them
+ * into their bucket with the number of full revolutions still to wait. Each tick only touches one
+ * bucket, so millions of outstanding deadlines cost no scan. Ids are never handed out before their
+ * deadline; they may be handed out up to one tick late. Cancellation is not supported: the
+ * consumer has to ignore ids that no longer need expiring.
+ */
+public class HashedTimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Entry>> buckets;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong outstanding = new AtomicLong();
+    private final Consumer<List<Long>> onExpired;
+    private final ScheduledExecutorService ticker;
+
+    // Ticker thread only
+    private long startMillis;
+    private long tick;
+
+    /**
+     * @param name      thread name prefix
+     * @param tickMillis resolution of the wheel
+     * @param wheelSize number of buckets, rounded up to a power of two
+     * @param onExpired receives the ids due in a tick, on the ticker thread
+     */
+    public HashedTimingWheel(String name, long tickMillis, int wheelSize, Consumer<List<Long>> onExpired) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        size = Math.max(size, 1);
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.onExpired = onExpired;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory(name + "-"));
+    }
+
+    public void start() {
+        startMillis = System.currentTimeMillis();
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    public void schedule(long id, long deadlineEpochMillis) {
+        pending.add(new Entry(id, deadlineEpochMillis));
+        outstanding.incrementAndGet();
+    }
+
+    // Scheduled ids not handed out yet
+    public long outstanding() {
+        return outstanding.get();
+    }
+
+    private void advance() {
+        try {
+            long targetTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+            List<Long> expired = new ArrayList<>();
+            // Catches up on ticks missed while the consumer was busy
+            while (tick <= targetTick) {
+                transferPending();
+                List<Entry> bucket = buckets.get((int) (tick & mask));
+                for (int i = bucket.size() - 1; i >= 0; i--) {
+                    Entry entry = bucket.get(i);
+                    if (entry.rounds > 0) {
+                        entry.rounds--;
+                    } else {
+                        expired.add(entry.id);
+                        // Swap-remove, order within a bucket does not matter
+                        bucket.set(i, bucket.get(bucket.size() - 1));
+                        bucket.remove(bucket.size() - 1);
+                    }
+                }
+                tick++;
+            }
+            if (!expired.isEmpty()) {
+                outstanding.addAndGet(-expired.size());
+                onExpired.accept(expired);
+            }
+        } catch (RuntimeException ex) {
+            // Never let an exception cancel the periodic task
+            logger.error("Timing wheel tick failed: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private void transferPending() {
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            // First tick processed at or after the deadline; overdue entries go to the current tick
+            long dueTick = Math.max(Math.floorDiv(entry.deadline - startMillis + tickMillis - 1, tickMillis), tick);
+            entry.rounds = (dueTick - tick) / buckets.size();
+            buckets.get((int) (dueTick & mask)).add(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long deadline;
+        private long rounds;
+
+        private Entry(long id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.Nikhil.CreditCardSystem.util;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks an id as generated by {@link TimeOrderedIdGenerator}: a millisecond timestamp in the high
+ * bits and a block-allocated sequence value in the low bits.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface TimeOrderedId {
+
+    /** Database sequence supplying the low bits. */
+    String sequenceName();
+
+    /** Values fetched per sequence call (block size of the pooled-lo optimizer). */
+    int allocationSize() default 50;
+}
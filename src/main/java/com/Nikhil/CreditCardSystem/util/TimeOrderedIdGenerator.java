@@ -0,0 +1,67 @@
+package com.Nikhil.CreditCardSystem.util;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * Sequence generator producing roughly time-ordered ids:
+ * {@code (millis since 2024-01-01) << 20 | (sequence value & 0xFFFFF)}.
+ *
+ * The sequence is read in blocks (pooled-lo), so ids cost no round trip per insert and Hibernate
+ * can batch inserts. Because the sequence value is unique, two ids only collide if more than
+ * 2^20 ids are generated within the same millisecond. 43 timestamp bits last until the 2270s.
+ * Ordering by id approximates ordering by insert time across all application instances.
+ */
+public class TimeOrderedIdGenerator extends SequenceStyleGenerator implements AnnotationBasedGenerator<TimeOrderedId> {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int SEQUENCE_BITS = 20;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private String sequenceName;
+    private int allocationSize;
+
+    // No-arg construction + initialize(): Hibernate may instantiate generators through the Spring bean container
+    @Override
+    public void initialize(TimeOrderedId config, Member member, GeneratorCreationContext context) {
+        this.sequenceName = config.sequenceName();
+        this.allocationSize = config.allocationSize();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        parameters.setProperty(SEQUENCE_PARAM, sequenceName);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return compose(((Number) super.generate(session, object)).longValue());
+    }
+
+    // Id for a sequence value, stamped now; JDBC batch inserts that draw sequence blocks themselves use it too
+    public static long compose(long sequenceValue) {
+        return ((System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS) | (sequenceValue & SEQUENCE_MASK);
+    }
+
+    // Largest id that can have been generated up to the given instant
+    public static long maxIdAt(long epochMillis) {
+        return ((epochMillis - EPOCH_MILLIS) << SEQUENCE_BITS) | SEQUENCE_MASK;
+    }
+
+    // HQL insert-select would use raw sequence values; force per-row generation instead
+    @Override
+    public boolean supportsBulkInsertionIdentifierGeneration() {
+        return false;
+    }
+}
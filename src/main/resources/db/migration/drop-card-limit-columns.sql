@@ -0,0 +1,7 @@
+-- Card limits moved to limit_profile (see LimitProfileService). Drops the four constant columns
+-- Hibernate used to create on credit_card; idempotent, runs on every startup like sequence-ids.sql.
+ALTER TABLE IF EXISTS credit_card
+    DROP COLUMN IF EXISTS max_withdrawal_limit,
+    DROP COLUMN IF EXISTS daily_debit_limit,
+    DROP COLUMN IF EXISTS daily_credit_limit,
+    DROP COLUMN IF EXISTS max_credit_limit;
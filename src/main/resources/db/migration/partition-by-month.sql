@@ -0,0 +1,60 @@
+-- Range-partitions transaction (by date_time) and user_action_logs (by action_time) by month.
+--
+-- Runs on every startup before Hibernate's schema update and is idempotent:
+--  * no table yet: creates the partitioned table with the columns Hibernate would create
+--  * plain table (existing data): renamed to <table>_legacy and attached as one partition for
+--    everything up to the end of its last month. No rows are copied; attaching scans it once.
+--  * already partitioned: left alone (PartitionMaintenanceService manages it from then on)
+-- The primary key becomes (id, <partition column>), which PostgreSQL requires; ids stay unique
+-- because they come from the sequence. A DEFAULT partition takes rows outside every month range,
+-- and monthly partitions are created three months ahead.
+DO $$
+DECLARE
+    t record;
+    idx record;
+    legacy text;
+    first_month timestamp;
+    month_start timestamp;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES
+            ('transaction', 'date_time',
+             'id bigint not null, amount float(53) not null, card_id bigint, card_type varchar(255), '
+                 || 'date_time timestamp(6) not null, description varchar(255), transaction_type varchar(255)'),
+            ('user_action_logs', 'action_time',
+             'id bigint not null, action varchar(255), action_time timestamp(6) not null, name varchar(255), status varchar(255)')
+        ) AS v(tbl, col, columns)
+    LOOP
+        first_month := date_trunc('month', localtimestamp);
+
+        IF to_regclass(t.tbl) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (%s, PRIMARY KEY (id, %I)) PARTITION BY RANGE (%I)', t.tbl, t.columns, t.col, t.col);
+        ELSIF (SELECT relkind FROM pg_class WHERE oid = to_regclass(t.tbl)) = 'r' THEN
+            legacy := t.tbl || '_legacy';
+            EXECUTE format('ALTER TABLE %I RENAME TO %I', t.tbl, legacy);
+            -- Index names are schema-wide; free them for the indexes Hibernate creates on the new table
+            FOR idx IN SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+                       WHERE i.indrelid = to_regclass(legacy)
+            LOOP
+                EXECUTE format('ALTER INDEX %I RENAME TO %I', idx.relname, left(idx.relname, 55) || '_legacy');
+            END LOOP;
+            EXECUTE format('UPDATE %I SET %I = timestamp ''epoch'' WHERE %I IS NULL', legacy, t.col, t.col);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN %I SET NOT NULL', legacy, t.col);
+
+            EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS, PRIMARY KEY (id, %I)) PARTITION BY RANGE (%I)',
+                           t.tbl, legacy, t.col, t.col);
+            EXECUTE format('SELECT greatest(date_trunc(''month'', max(%I)), date_trunc(''month'', localtimestamp)) + interval ''1 month'' FROM %I',
+                           t.col, legacy) INTO first_month;
+            EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (MINVALUE) TO (%L)', t.tbl, legacy, first_month);
+        ELSE
+            CONTINUE;
+        END IF;
+
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', t.tbl || '_default', t.tbl);
+        FOR i IN 0..3 LOOP
+            month_start := first_month + make_interval(months => i);
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           t.tbl || to_char(month_start, '"_p"YYYY_MM'), t.tbl, month_start, month_start + interval '1 month');
+        END LOOP;
+    END LOOP;
+END
+$$;
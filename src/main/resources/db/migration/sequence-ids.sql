@@ -0,0 +1,31 @@
+-- Moves the IDENTITY primary keys of existing tables to pooled sequences (allocation size 50),
+-- so Hibernate can allocate ids in blocks and batch inserts.
+--
+-- Runs on every startup before Hibernate's schema update (spring.sql.init) and is idempotent:
+-- on an empty schema it does nothing and Hibernate creates tables and sequences itself; on an
+-- existing schema each sequence is created once, starting after the current max(id), and the
+-- IDENTITY default is dropped. transaction and user_action_logs ids are time-ordered from then on
+-- (see TimeOrderedIdGenerator) and are far above any existing IDENTITY value.
+DO $$
+DECLARE
+    t record;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES ('customer', 'customer_seq'),
+                                   ('credit_card', 'credit_card_seq'),
+                                   ('transaction', 'transaction_seq'),
+                                   ('user_action_logs', 'user_action_logs_seq')) AS v(tbl, seq)
+    LOOP
+        IF to_regclass(t.tbl) IS NOT NULL THEN
+            IF to_regclass(t.seq) IS NULL THEN
+                EXECUTE format('CREATE SEQUENCE %I START WITH 1 INCREMENT BY 50', t.seq);
+                EXECUTE format('SELECT setval(%L, coalesce((SELECT max(id) FROM %I), 0) + 1, false)', t.seq, t.tbl);
+            END IF;
+            IF EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_schema = current_schema() AND table_name = t.tbl
+                         AND column_name = 'id' AND is_identity = 'YES') THEN
+                EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', t.tbl);
+            END IF;
+        END IF;
+    END LOOP;
+END
+$$;
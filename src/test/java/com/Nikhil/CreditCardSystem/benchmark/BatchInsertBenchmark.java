@@ -0,0 +1,128 @@
+package com.Nikhil.CreditCardSystem.benchmark;
+
+import com.Nikhil.CreditCardSystem.CreditCardSystemApplication;
+import com.Nikhil.CreditCardSystem.Entity.Transaction;
+import com.Nikhil.CreditCardSystem.Entity.UserActionLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput of transaction and audit rows through JPA with the sequence-based ids.
+ *
+ * jdbcBatchSize=1 is one statement round trip per row (what IDENTITY ids forced);
+ * jdbcBatchSize=50 is the configured hibernate.jdbc.batch_size. Needs the database from
+ * application.properties; the rows written are deleted at the end.
+ *
+ * Run: mvn test-compile, then run main() from the IDE, or
+ * java -cp target/test-classes:target/classes:<test classpath> com.Nikhil.CreditCardSystem.benchmark.BatchInsertBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    private static final int ROWS_PER_TRANSACTION = 500;
+    private static final String MARKER = "jmh-batch-insert";
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(CreditCardSystemApplication.class,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.com.Nikhil=WARN");
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        inTransaction(em -> {
+            em.createQuery("delete from Transaction t where t.description = :marker")
+                    .setParameter("marker", MARKER).executeUpdate();
+            em.createQuery("delete from UserActionLog l where l.name = :marker")
+                    .setParameter("marker", MARKER).executeUpdate();
+        });
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public void insertTransactions() {
+        insertRows(() -> {
+            Transaction transaction = new Transaction();
+            transaction.setAmount(10);
+            transaction.setTransactionType("DEBIT");
+            transaction.setCardType("VISA");
+            transaction.setDescription(MARKER);
+            return transaction;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public void insertAuditLogs() {
+        insertRows(() -> {
+            UserActionLog log = new UserActionLog();
+            log.setName(MARKER);
+            log.setAction("Benchmark insert");
+            log.setStatus("SUCCESS");
+            return log;
+        });
+    }
+
+    private void insertRows(Supplier<Object> row) {
+        inTransaction(em -> {
+            em.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                em.persist(row.get());
+            }
+        });
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            work.accept(em);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(BatchInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.Nikhil.CreditCardSystem.benchmark;
+
+import com.Nikhil.CreditCardSystem.util.AESUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Old converter pattern (Cipher.getInstance + new key per call, AES/ECB) vs. AESUtil
+ * (per-thread Cipher reuse, AES-GCM v1 format).
+ *
+ * Run: mvn test-compile, then run main() from the IDE, or
+ * java -cp target/test-classes:target/classes:<test classpath> com.Nikhil.CreditCardSystem.benchmark.FieldEncryptionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldEncryptionBenchmark {
+
+    private static final String LEGACY_KEY = "MySecretKey12345";
+    private static final int VALUES = 64;
+
+    @Param({"16", "48"})
+    private int length;
+
+    private AESUtil aesUtil;
+    private String[] plain;
+    private String[] legacyCipherText;
+    private String[] v1CipherText;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        aesUtil = new AESUtil(Base64.getEncoder().encodeToString(new byte[32]), LEGACY_KEY);
+        plain = new String[VALUES];
+        legacyCipherText = new String[VALUES];
+        v1CipherText = new String[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            StringBuilder sb = new StringBuilder();
+            while (sb.length() < length) {
+                sb.append(4111_1111_1111_1111L + i);
+            }
+            plain[i] = sb.substring(0, length);
+            legacyCipherText[i] = legacyEncrypt(plain[i]);
+            v1CipherText[i] = aesUtil.encrypt(plain[i]);
+        }
+    }
+
+    // Cycle through distinct values, like a converter running over a result set
+    private int nextIndex() {
+        next = (next + 1) % VALUES;
+        return next;
+    }
+
+    @Benchmark
+    public String legacyEncryptPerCall() throws Exception {
+        return legacyEncrypt(plain[nextIndex()]);
+    }
+
+    @Benchmark
+    public String legacyDecryptPerCall() throws Exception {
+        SecretKeySpec key = new SecretKeySpec(LEGACY_KEY.getBytes(), "AES");
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.DECRYPT_MODE, key);
+        return new String(cipher.doFinal(Base64.getDecoder().decode(legacyCipherText[nextIndex()])));
+    }
+
+    @Benchmark
+    public String legacyDecryptThreadLocal() {
+        return aesUtil.decrypt(legacyCipherText[nextIndex()]);
+    }
+
+    @Benchmark
+    public String gcmEncryptThreadLocal() {
+        return aesUtil.encrypt(plain[nextIndex()]);
+    }
+
+    @Benchmark
+    public String gcmDecryptThreadLocal() {
+        return aesUtil.decrypt(v1CipherText[nextIndex()]);
+    }
+
+    private static String legacyEncrypt(String data) throws Exception {
+        SecretKeySpec key = new SecretKeySpec(LEGACY_KEY.getBytes(), "AES");
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, key);
+        return Base64.getEncoder().encodeToString(cipher.doFinal(data.getBytes()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(FieldEncryptionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,159 @@
+package com.Nikhil.CreditCardSystem.service;
+
+import com.Nikhil.CreditCardSystem.Entity.CreditCard;
+import com.Nikhil.CreditCardSystem.Entity.Customer;
+import com.Nikhil.CreditCardSystem.dto.TransferRequest;
+import com.Nikhil.CreditCardSystem.repo.CreditCardRepository;
+import com.Nikhil.CreditCardSystem.repo.CustomerRepository;
+import com.Nikhil.CreditCardSystem.repo.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.security.Principal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opposite-direction transfers between the same two cards from many threads at once.
+ * Without a consistent lock order these deadlock; lost updates show up as a changed total.
+ * Needs the database from application.properties, so it is tagged "integration" and only runs
+ * with -Pintegration-tests.
+ */
+@SpringBootTest
+@Tag("integration")
+class CardTransferStressTest {
+
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 25;
+    private static final double AMOUNT = 10;
+    private static final double INITIAL_BALANCE = 10_000;
+
+    @Autowired
+    private CardTransferService cardTransferService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionAnalyticsStore transactionAnalyticsStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+    private CreditCard cardA;
+    private CreditCard cardB;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setUsername("transfer-stress-" + UUID.randomUUID());
+        customer.setName("Transfer Stress");
+        customer.setRole("USER");
+        cardA = newCard(customer);
+        cardB = newCard(customer);
+        customer.getCreditCards().addAll(List.of(cardA, cardB));
+        customer = customerRepository.save(customer);
+        cardA = customer.getCreditCards().get(0);
+        cardB = customer.getCreditCards().get(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Rows keyed by card id outside the entity graph; transactions go with the customer's cards
+        for (String table : List.of("card_rollup", "card_balance_snapshot", "card_ledger_checksum")) {
+            jdbcTemplate.update("delete from " + table + " where card_id in (?, ?)", cardA.getId(), cardB.getId());
+        }
+        jdbcTemplate.update("delete from user_action_logs where name = ?", customer.getUsername());
+        customerRepository.deleteById(customer.getId());
+        // The in-memory analytics store still holds the deleted transactions until it reloads
+        transactionAnalyticsStore.reload();
+    }
+
+    @Test
+    void concurrentOppositeTransfersNeitherDeadlockNorLoseUpdates() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicInteger aToB = new AtomicInteger();
+        AtomicInteger bToA = new AtomicInteger();
+        String username = customer.getUsername();
+        Principal principal = () -> username; // audit rows under the test customer, removed in tearDown
+
+        for (int t = 0; t < THREADS; t++) {
+            pool.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        boolean forward = ThreadLocalRandom.current().nextBoolean();
+                        CreditCard from = forward ? cardA : cardB;
+                        CreditCard to = forward ? cardB : cardA;
+                        cardTransferService.transfer(request(from, to), principal);
+                        (forward ? aToB : bToA).incrementAndGet();
+                    }
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "Transfers did not finish, likely deadlocked");
+        assertTrue(failures.isEmpty(), () -> "Transfers failed: " + failures);
+
+        CreditCard a = creditCardRepository.findById(cardA.getId()).orElseThrow();
+        CreditCard b = creditCardRepository.findById(cardB.getId()).orElseThrow();
+        int transfers = THREADS * TRANSFERS_PER_THREAD;
+
+        assertEquals(transfers, aToB.get() + bToA.get());
+        assertEquals(INITIAL_BALANCE - AMOUNT * aToB.get() + AMOUNT * bToA.get(), a.getTotalBalance(), 1e-6);
+        assertEquals(INITIAL_BALANCE - AMOUNT * bToA.get() + AMOUNT * aToB.get(), b.getTotalBalance(), 1e-6);
+        assertEquals(2 * INITIAL_BALANCE, a.getTotalBalance() + b.getTotalBalance(), 1e-6);
+        assertEquals(2L * transfers, transactionRepository.countByCreditCardIdIn(List.of(a.getId(), b.getId())));
+    }
+
+    private TransferRequest request(CreditCard from, CreditCard to) {
+        TransferRequest request = new TransferRequest();
+        request.setCustomerId(customer.getId());
+        request.setFromCardNumber(from.getCardNumber());
+        request.setToCardNumber(to.getCardNumber());
+        request.setAmount(AMOUNT);
+        return request;
+    }
+
+    private static CreditCard newCard(Customer owner) {
+        CreditCard card = new CreditCard();
+        card.setCardNumber(String.valueOf(1_0000_0000_0000_000L + ThreadLocalRandom.current().nextLong(9_0000_0000_0000_000L)));
+        card.setCardHolderName(owner.getName());
+        card.setCardType("VISA");
+        card.setTotalBalance(INITIAL_BALANCE);
+        card.setIssueDate(LocalDate.now());
+        card.setExpiryDate(LocalDate.now().plusYears(10));
+        card.setCustomer(owner);
+        return card;
+    }
+}
@@ -0,0 +1,146 @@
+package com.Nikhil.CreditCardSystem.util;
+
+import com.Nikhil.CreditCardSystem.util.ColumnarTransactionFile.Row;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips through the column file: every row comes back unchanged, row groups split at
+ * GROUP_ROWS, and a scan never inflates a group whose zone cannot match.
+ */
+class ColumnarTransactionFileTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0, 0, 123_456_000);
+
+    // Header bytes before the group count: magic, version, file zone (row count + 4 longs)
+    private static final int GROUP_COUNT_OFFSET = 4 + 4 + 4 + 4 * 8;
+    // Per group: zone, then one length per column
+    private static final int GROUP_HEADER_BYTES = 4 + 4 * 8 + 4 * ColumnarTransactionFile.COLUMNS;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readAllReturnsEveryRowSorted() throws IOException {
+        List<Row> rows = List.of(
+                new Row(3, 20, START.plusHours(1), -12.5, "DEBIT", "VISA", "coffee"),
+                new Row(1, 10, START, 100, "CREDIT", "MASTERCARD", null),
+                new Row(2, 10, START.plusMinutes(5), 0.01, null, null, "refund ✅"));
+        Path file = dir.resolve("rows" + ColumnarTransactionFile.EXTENSION);
+
+        ColumnarTransactionFile.write(file, rows);
+
+        assertEquals(sorted(rows), ColumnarTransactionFile.readAll(file));
+    }
+
+    @Test
+    void emptyFileReadsAndScansEmpty() throws IOException {
+        Path file = dir.resolve("empty" + ColumnarTransactionFile.EXTENSION);
+
+        ColumnarTransactionFile.write(file, List.of());
+
+        assertTrue(ColumnarTransactionFile.readAll(file).isEmpty());
+        assertTrue(ColumnarTransactionFile.scan(file, Set.of(1L), START.minusYears(1), START.plusYears(1)).isEmpty());
+    }
+
+    @Test
+    void groupBoundaryAtGroupRows() throws IOException {
+        // Card 1 fills the first group exactly, card 2 starts the second
+        List<Row> rows = rowsFor(1, ColumnarTransactionFile.GROUP_ROWS, 0);
+        rows.addAll(rowsFor(2, 1, ColumnarTransactionFile.GROUP_ROWS));
+        Path file = dir.resolve("groups" + ColumnarTransactionFile.EXTENSION);
+
+        ColumnarTransactionFile.write(file, rows);
+
+        assertEquals(2, groupCount(file));
+        assertEquals(sorted(rows), ColumnarTransactionFile.readAll(file));
+        List<Row> second = ColumnarTransactionFile.scan(file, Set.of(2L), START, START.plusYears(1));
+        assertEquals(rowsFor(2, 1, ColumnarTransactionFile.GROUP_ROWS), second);
+    }
+
+    @Test
+    void scanFiltersByCardAndHalfOpenTimeRange() throws IOException {
+        List<Row> rows = rowsFor(1, 10, 0);
+        rows.addAll(rowsFor(2, 10, 10));
+        rows.addAll(rowsFor(3, 10, 20));
+        Path file = dir.resolve("scan" + ColumnarTransactionFile.EXTENSION);
+        ColumnarTransactionFile.write(file, rows);
+
+        // Cards 1 and 3 only; rows 2..4 of each card by time, the upper bound excluded
+        List<Row> matches = ColumnarTransactionFile.scan(file, Set.of(1L, 3L), START.plusMinutes(2), START.plusMinutes(5));
+
+        List<Row> expected = new ArrayList<>();
+        expected.addAll(rowsFor(1, 10, 0).subList(2, 5));
+        expected.addAll(rowsFor(3, 10, 20).subList(2, 5));
+        assertEquals(expected, matches);
+        assertTrue(ColumnarTransactionFile.scan(file, Set.of(4L), START, START.plusYears(1)).isEmpty());
+        assertTrue(ColumnarTransactionFile.scan(file, Set.of(1L), START.plusYears(1), START.plusYears(2)).isEmpty());
+    }
+
+    @Test
+    void scanSkipsGroupsOutsideTheZone() throws IOException {
+        List<Row> rows = rowsFor(1, ColumnarTransactionFile.GROUP_ROWS, 0);
+        rows.addAll(rowsFor(2, 5, ColumnarTransactionFile.GROUP_ROWS));
+        Path file = dir.resolve("zones" + ColumnarTransactionFile.EXTENSION);
+        ColumnarTransactionFile.write(file, rows);
+
+        // Garble every column of the first group: any read of it now fails
+        corruptFirstGroup(file);
+        assertThrows(IOException.class, () -> ColumnarTransactionFile.readAll(file));
+
+        List<Row> matches = ColumnarTransactionFile.scan(file, Set.of(2L), START, START.plusYears(1));
+        assertEquals(rowsFor(2, 5, ColumnarTransactionFile.GROUP_ROWS), matches);
+    }
+
+    // count rows of one card, a minute apart, with ids from firstId + 1
+    private static List<Row> rowsFor(long cardId, int count, long firstId) {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row(firstId + i + 1, cardId, START.plusMinutes(i), i * 1.5,
+                    i % 2 == 0 ? "DEBIT" : "CREDIT", "VISA", i % 3 == 0 ? null : "purchase " + (i % 7)));
+        }
+        return rows;
+    }
+
+    private static List<Row> sorted(List<Row> rows) {
+        List<Row> copy = new ArrayList<>(rows);
+        copy.sort(Comparator.comparingLong(Row::cardId).thenComparing(Row::dateTime).thenComparingLong(Row::id));
+        return copy;
+    }
+
+    private static int groupCount(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            raf.seek(GROUP_COUNT_OFFSET);
+            return raf.readInt();
+        }
+    }
+
+    private static void corruptFirstGroup(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(GROUP_COUNT_OFFSET);
+            int groups = raf.readInt();
+            raf.seek(GROUP_COUNT_OFFSET + 4 + 4 + 4 * 8); // column lengths of group 0
+            long length = 0;
+            for (int c = 0; c < ColumnarTransactionFile.COLUMNS; c++) {
+                length += raf.readInt();
+            }
+            raf.seek(GROUP_COUNT_OFFSET + 4 + (long) groups * GROUP_HEADER_BYTES);
+            for (long i = 0; i < length; i++) {
+                raf.write(0xFF);
+            }
+        }
+    }
+}